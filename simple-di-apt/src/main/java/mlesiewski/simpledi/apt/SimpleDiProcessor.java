@@ -2,8 +2,11 @@ package mlesiewski.simpledi.apt;
 
 import mlesiewski.simpledi.apt.model.GeneratedCode;
 import mlesiewski.simpledi.apt.model.GeneratedCodeCollector;
+import mlesiewski.simpledi.apt.model.MembersInjectorEntity;
 import mlesiewski.simpledi.apt.processors.BeanAnnotationProcessor;
 import mlesiewski.simpledi.apt.processors.CustomScopeAnnotationProcessor;
+import mlesiewski.simpledi.apt.processors.DecoratorAnnotationProcessor;
+import mlesiewski.simpledi.apt.processors.DisposeAnnotationProcessor;
 import mlesiewski.simpledi.apt.processors.InjectAnnotationProcessor;
 import mlesiewski.simpledi.apt.processors.ProduceAnnotationsProcessor;
 import mlesiewski.simpledi.apt.template.TemplateFactory;
@@ -12,18 +15,32 @@ import mlesiewski.simpledi.apt.writer.GeneratedCodeWriter;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 @SupportedAnnotationTypes({
         "mlesiewski.simpledi.core.annotations.Bean",
         "mlesiewski.simpledi.core.annotations.Inject",
         "mlesiewski.simpledi.core.annotations.Produce",
-        "mlesiewski.simpledi.core.annotations.CustomScope"
+        "mlesiewski.simpledi.core.annotations.CustomScope",
+        "mlesiewski.simpledi.core.annotations.Dispose",
+        "mlesiewski.simpledi.core.annotations.Cached",
+        "mlesiewski.simpledi.core.annotations.Batched",
+        "mlesiewski.simpledi.core.annotations.Async",
+        "mlesiewski.simpledi.core.annotations.Timed"
 })
+@SupportedOptions(SimpleDiProcessor.ROOTS_OPTION)
 public class SimpleDiProcessor extends AbstractProcessor {
 
+    /** comma separated names or class names of root beans - only beans they depend on (directly or not) are generated and registered */
+    public static final String ROOTS_OPTION = "simpledi.roots";
+
     private static final boolean ANNOTATIONS_CLAIMED = true;
 
     private GeneratedCodeWriter codeWriter;
@@ -32,6 +49,9 @@ public class SimpleDiProcessor extends AbstractProcessor {
     private final BeanAnnotationProcessor beanAnnotationProcessor = new BeanAnnotationProcessor(collector);
     private final InjectAnnotationProcessor injectAnnotationProcessor = new InjectAnnotationProcessor(collector);
     private final CustomScopeAnnotationProcessor customScopeAnnotationProcessor = new CustomScopeAnnotationProcessor();
+    private final DisposeAnnotationProcessor disposeAnnotationProcessor = new DisposeAnnotationProcessor();
+    private DecoratorAnnotationProcessor decoratorAnnotationProcessor;
+    private List<String> roots = Collections.emptyList();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -40,6 +60,11 @@ public class SimpleDiProcessor extends AbstractProcessor {
         TemplateFactory.set(processingEnv.getFiler());
         codeWriter = new GeneratedCodeWriter(processingEnv.getFiler());
         produceAnnotationsProcessor = new ProduceAnnotationsProcessor(collector, processingEnv);
+        decoratorAnnotationProcessor = new DecoratorAnnotationProcessor(collector, processingEnv);
+        String rootsOption = processingEnv.getOptions().get(ROOTS_OPTION);
+        if (rootsOption != null) {
+            roots = Arrays.stream(rootsOption.split(",")).map(String::trim).filter(root -> !root.isEmpty()).collect(Collectors.toList());
+        }
     }
 
     @Override
@@ -54,16 +79,34 @@ public class SimpleDiProcessor extends AbstractProcessor {
             injectAnnotationProcessor.process(roundEnv);
             // 4. processSupertypes @CustomScope annotations - just garter types
             customScopeAnnotationProcessor.process(roundEnv);
+            // 4a. processSupertypes @Dispose annotations - just collect methods
+            disposeAnnotationProcessor.process(roundEnv);
+            // 4b. processSupertypes @Cached, @Batched, @Async and @Timed annotations - decorated methods of beans
+            decoratorAnnotationProcessor.process(roundEnv);
             if (roundEnv.processingOver()) {
                 Collection<GeneratedCode> registrable = collector.registrable();
                 // 5. processSupertypes all beans in search for @Inject annotations in supertypes
                 injectAnnotationProcessor.processSupertypes(registrable);
+                // 5a. assign dispose methods to beans of their types
+                disposeAnnotationProcessor.assign(registrable);
+                // 5b. drop beans unreachable from the roots (if there are any)
+                if (!roots.isEmpty()) {
+                    collector.retainReachable(resolvedRoots());
+                    registrable = collector.registrable();
+                    Logger.note("kept " + registrable.size() + " beans reachable from " + roots);
+                }
                 // 6. write source files
                 codeWriter.writeSourceFiles(registrable);
-                // 7. write Registrable service loader file
-                codeWriter.writeRegistrableServiceLoader(registrable);
+                // 7. write provider manifest file
+                codeWriter.writeProviderManifest(registrable);
                 // 8. write Scope service loader file
                 codeWriter.writeScopeServiceLoader(customScopeAnnotationProcessor.scopes());
+                // 9. write members injectors and their index
+                Collection<MembersInjectorEntity> membersInjectors = collector.membersInjectors();
+                codeWriter.writeMembersInjectors(membersInjectors);
+                codeWriter.writeMembersInjectorIndex(membersInjectors);
+                // 10. write decorators of beans with decorated methods
+                codeWriter.writeDecorators(collector.decorators());
             }
         } catch (SimpleDiAptException e) {
             log(e);
@@ -73,6 +116,22 @@ public class SimpleDiProcessor extends AbstractProcessor {
         return ANNOTATIONS_CLAIMED;
     }
 
+    /** @return the roots with every entry point that is not a bean but has injected members (it uses MemberInjector) replaced by beans injected into it */
+    private List<String> resolvedRoots() {
+        List<String> resolved = new ArrayList<>();
+        for (String root : roots) {
+            TypeElement type = collector.matchesBean(root) ? null : processingEnv.getElementUtils().getTypeElement(root);
+            List<String> injected = type != null ? injectAnnotationProcessor.injectedBeanNames(type) : Collections.emptyList();
+            if (injected.isEmpty()) {
+                resolved.add(root);
+            } else {
+                Logger.note("root '" + root + "' is not a bean - keeping beans injected into it " + injected);
+                resolved.addAll(injected);
+            }
+        }
+        return resolved;
+    }
+
     private void log(Exception e) {
         Logger.error("unexpected error: " + e.getClass() + " " + e.getMessage());
         for (StackTraceElement element : e.getStackTrace()) {
@@ -25,6 +25,10 @@ public class BeanEntity {
     private final Map<String, BeanName> setters = new HashMap<>();
     /** hard dependencies */
     private final Set<BeanName> hardDependencies = new HashSet<>();
+    /** a no-args method releasing resources of the bean - {@code null} if it has none */
+    private String disposeMethod;
+    /** methods overridden by a generated decorator by their signatures */
+    private final Map<String, DecoratedMethod> decoratedMethods = new LinkedHashMap<>();
 
     /**
      * Creates new entity from a Java class with default scope and name.
@@ -158,6 +162,36 @@ public class BeanEntity {
         return hardDependencies;
     }
 
+    /** sets a method called when the bean is disposed */
+    public void disposeMethod(String methodName) {
+        this.disposeMethod = methodName;
+    }
+
+    /** @return a method called when the bean is disposed */
+    public Optional<String> disposeMethod() {
+        return Optional.ofNullable(disposeMethod);
+    }
+
+    /** @return a decorated method with the signature - added if it was not decorated before */
+    public DecoratedMethod decoratedMethod(DecoratedMethod method) {
+        return decoratedMethods.computeIfAbsent(method.signature(), signature -> method);
+    }
+
+    /** @return methods overridden by a generated decorator */
+    public Collection<DecoratedMethod> decoratedMethods() {
+        return decoratedMethods.values();
+    }
+
+    /** @return {@code true} if instances of this bean are instances of its generated decorator */
+    public boolean isDecorated() {
+        return !decoratedMethods.isEmpty();
+    }
+
+    /** @return a type name of instances created by the bean provider - the bean's or its decorator's */
+    public String instantiatedTypeName() {
+        return isDecorated() ? DecoratorEntity.decoratorTypeName(this) : typeName();
+    }
+
     /**
      * @return instance of {@link Builder}
      */
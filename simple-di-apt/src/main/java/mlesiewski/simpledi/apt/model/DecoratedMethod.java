@@ -0,0 +1,262 @@
+package mlesiewski.simpledi.apt.model;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A bean method overridden by a generated decorator.
+ */
+public class DecoratedMethod {
+
+    private final String name;
+    private final String modifier;
+    private final String returnType;
+    private final List<String> parameterTypes = new ArrayList<>();
+    private final List<String> parameterNames = new ArrayList<>();
+    private final boolean varArgs;
+    private final List<String> thrownTypes;
+    private final int checkedExceptions;
+    /** {@code null} if the method is not cached */
+    private CacheSettings cache;
+    /** {@code null} if the method is not batched */
+    private BatchSettings batch;
+    /** {@code null} if the method is not async */
+    private AsyncSettings async;
+    private boolean timed;
+
+    /** @param method a method to override */
+    public DecoratedMethod(ExecutableElement method) {
+        this.name = method.getSimpleName().toString();
+        this.modifier = method.getModifiers().contains(Modifier.PUBLIC) ? "public " : method.getModifiers().contains(Modifier.PROTECTED) ? "protected " : "";
+        this.returnType = method.getReturnType().toString();
+        for (VariableElement parameter : method.getParameters()) {
+            parameterTypes.add(parameter.asType().toString());
+            parameterNames.add(parameter.getSimpleName().toString());
+        }
+        this.varArgs = method.isVarArgs();
+        this.thrownTypes = method.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.toList());
+        this.checkedExceptions = (int) method.getThrownTypes().stream().filter(DecoratedMethod::isChecked).count();
+    }
+
+    /** @return a name of the method */
+    public String name() {
+        return name;
+    }
+
+    /** @return an access modifier followed by a space - empty for a friendly method */
+    public String modifier() {
+        return modifier;
+    }
+
+    /** @return a type returned by the method */
+    public String returnType() {
+        return returnType;
+    }
+
+    /** @return a type returned by the method - a wrapper of a primitive one */
+    public String boxedReturnType() {
+        return boxed(returnType);
+    }
+
+    /** @return types of the parameters */
+    public List<String> parameterTypes() {
+        return Collections.unmodifiableList(parameterTypes);
+    }
+
+    /** @return {@code true} if the last parameter is a variable arity one */
+    public boolean isVarArgs() {
+        return varArgs;
+    }
+
+    /** @return a wrapper of a primitive type or the type itself */
+    public static String boxed(String type) {
+        switch (type) {
+            case "boolean": return "java.lang.Boolean";
+            case "byte": return "java.lang.Byte";
+            case "short": return "java.lang.Short";
+            case "char": return "java.lang.Character";
+            case "int": return "java.lang.Integer";
+            case "long": return "java.lang.Long";
+            case "float": return "java.lang.Float";
+            case "double": return "java.lang.Double";
+            case "void": return "java.lang.Void";
+            default: return type;
+        }
+    }
+
+    /** @return {@code true} if the method does not return a value */
+    public boolean isVoid() {
+        return "void".equals(returnType);
+    }
+
+    /** @return names of the parameters */
+    public List<String> parameterNames() {
+        return Collections.unmodifiableList(parameterNames);
+    }
+
+    /** @return declarations of the parameters - the last one is a variable arity one if the method's is */
+    public String parameters() {
+        List<String> declarations = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            String type = parameterTypes.get(i);
+            if (varArgs && i == parameterTypes.size() - 1) {
+                type = type.substring(0, type.length() - 2) + "...";
+            }
+            declarations.add(type + " " + parameterNames.get(i));
+        }
+        return String.join(", ", declarations);
+    }
+
+    /** @return a {@code throws} clause of the method - preceded by a space - or an empty string */
+    public String throwsClause() {
+        return thrownTypes.isEmpty() ? "" : " throws " + String.join(", ", thrownTypes);
+    }
+
+    /** @return number of checked exceptions declared by the method */
+    public int checkedExceptions() {
+        return checkedExceptions;
+    }
+
+    /** @return a name and parameter types of the method */
+    public String signature() {
+        return name + "(" + String.join(",", parameterTypes) + ")";
+    }
+
+    /** @param cache makes the method cached */
+    public void cache(CacheSettings cache) {
+        this.cache = cache;
+    }
+
+    /** @return settings of the method's cache or {@code null} if it is not cached */
+    public CacheSettings cache() {
+        return cache;
+    }
+
+    /** @param batch makes the method batched */
+    public void batch(BatchSettings batch) {
+        this.batch = batch;
+    }
+
+    /** @return settings of the method's batcher or {@code null} if it is not batched */
+    public BatchSettings batch() {
+        return batch;
+    }
+
+    /** @param async makes the method async */
+    public void async(AsyncSettings async) {
+        this.async = async;
+    }
+
+    /** @return settings of the method's dispatcher or {@code null} if it is not async */
+    public AsyncSettings async() {
+        return async;
+    }
+
+    /** @param timed {@code true} makes the method timed */
+    public void timed(boolean timed) {
+        this.timed = timed;
+    }
+
+    /** @return {@code true} if the method is timed */
+    public boolean timed() {
+        return timed;
+    }
+
+    /** @return {@code true} if the thrown type is neither a {@link RuntimeException} nor an {@link Error} */
+    public static boolean isChecked(TypeMirror thrown) {
+        for (TypeMirror type = thrown; type.getKind() == TypeKind.DECLARED; type = ((TypeElement) ((DeclaredType) type).asElement()).getSuperclass()) {
+            String typeName = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            if (typeName.equals(RuntimeException.class.getName()) || typeName.equals(Error.class.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Settings of a {@link mlesiewski.simpledi.core.annotations.Cached} method. */
+    public static class CacheSettings {
+
+        private final int maximumSize;
+        private final long expireAfterMillis;
+
+        public CacheSettings(int maximumSize, long expireAfterMillis) {
+            this.maximumSize = maximumSize;
+            this.expireAfterMillis = expireAfterMillis;
+        }
+
+        public int maximumSize() {
+            return maximumSize;
+        }
+
+        public long expireAfterMillis() {
+            return expireAfterMillis;
+        }
+    }
+
+    /** Settings of a {@link mlesiewski.simpledi.core.annotations.Batched} method. */
+    public static class BatchSettings {
+
+        private final String bulk;
+        private final String keysType;
+        private final int maximumBatchSize;
+        private final long windowMicros;
+
+        /**
+         * @param bulk             a name of the bulk method
+         * @param keysType         a qualified name of the bulk method's parameter type without type arguments, e.g. {@code java.util.List}
+         * @param maximumBatchSize the most distinct keys passed to the bulk method at once
+         * @param windowMicros     a time the first call of a batch waits for other calls
+         */
+        public BatchSettings(String bulk, String keysType, int maximumBatchSize, long windowMicros) {
+            this.bulk = bulk;
+            this.keysType = keysType;
+            this.maximumBatchSize = maximumBatchSize;
+            this.windowMicros = windowMicros;
+        }
+
+        public String bulk() {
+            return bulk;
+        }
+
+        public String keysType() {
+            return keysType;
+        }
+
+        public int maximumBatchSize() {
+            return maximumBatchSize;
+        }
+
+        public long windowMicros() {
+            return windowMicros;
+        }
+    }
+
+    /** Settings of an {@link mlesiewski.simpledi.core.annotations.Async} method. */
+    public static class AsyncSettings {
+
+        private final int maximumConcurrency;
+        private final int poolSize;
+
+        public AsyncSettings(int maximumConcurrency, int poolSize) {
+            this.maximumConcurrency = maximumConcurrency;
+            this.poolSize = poolSize;
+        }
+
+        public int maximumConcurrency() {
+            return maximumConcurrency;
+        }
+
+        public int poolSize() {
+            return poolSize;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mlesiewski.simpledi.apt.model;
+
+/**
+ * An entity representing a subclass of a bean class that overrides its decorated methods - its provider creates instances of it.
+ */
+public class DecoratorEntity extends ClassEntity {
+
+    private final BeanEntity beanEntity;
+
+    /**
+     * @param beanEntity a bean whose methods are going to be decorated by this entity
+     */
+    public DecoratorEntity(BeanEntity beanEntity) {
+        super(beanEntity.packageName(), decoratorSimpleName(beanEntity));
+        this.beanEntity = beanEntity;
+    }
+
+    /**
+     * @return a bean whose methods are going to be decorated by this entity
+     */
+    public BeanEntity beanEntity() {
+        return beanEntity;
+    }
+
+    /** @return a type name of a decorator of the bean */
+    static String decoratorTypeName(BeanEntity beanEntity) {
+        return beanEntity.packageName() + "." + decoratorSimpleName(beanEntity);
+    }
+
+    private static String decoratorSimpleName(BeanEntity beanEntity) {
+        return beanEntity.simpleName() + "Decorator";
+    }
+}
@@ -1,10 +1,18 @@
 package mlesiewski.simpledi.apt.model;
 
 import mlesiewski.simpledi.apt.SimpleDiAptException;
+import mlesiewski.simpledi.core.KeyedBeans;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -51,6 +59,75 @@ public class GeneratedCodeCollector {
         return output.stream().map(Node::provider).collect(Collectors.toList());
     }
 
+    /** @return one {@link MembersInjectorEntity} per bean class with soft dependencies, ordered by class name */
+    public Collection<MembersInjectorEntity> membersInjectors() {
+        Map<String, MembersInjectorEntity> injectorsByTypeName = new TreeMap<>();
+        providersByBeanName.values().stream()
+                .map(BeanProviderEntity::beanEntity)
+                .filter(bean -> !bean.fields().isEmpty() || !bean.setters().isEmpty())
+                .forEach(bean -> injectorsByTypeName.putIfAbsent(bean.typeName(), new MembersInjectorEntity(bean)));
+        return injectorsByTypeName.values();
+    }
+
+    /** @return one {@link DecoratorEntity} per decorated bean class, ordered by class name */
+    public Collection<DecoratorEntity> decorators() {
+        Map<String, DecoratorEntity> decoratorsByTypeName = new TreeMap<>();
+        providersByBeanName.values().stream()
+                .filter(provider -> !(provider instanceof ProducedBeanProviderEntity))
+                .map(BeanProviderEntity::beanEntity)
+                .filter(BeanEntity::isDecorated)
+                .forEach(bean -> decoratorsByTypeName.putIfAbsent(bean.typeName(), new DecoratorEntity(bean)));
+        return decoratorsByTypeName.values();
+    }
+
+    /**
+     * Drops providers of beans that cannot be reached from the roots by following hard and soft dependencies.
+     * Dependencies with no provider collected (e.g. registered by hand) are skipped.
+     *
+     * @param roots names or class names of root beans - a name of a keyed producer method's bean matches its factory bean
+     * @throws SimpleDiAptException if a root matches no bean
+     */
+    public void retainReachable(List<String> roots) {
+        Deque<BeanName> pending = new ArrayDeque<>();
+        for (String root : roots) {
+            List<BeanName> matching = providersByBeanName.values().stream()
+                    .filter(provider -> matches(provider, root))
+                    .map(BeanProviderEntity::beanName)
+                    .collect(Collectors.toList());
+            if (matching.isEmpty()) {
+                throw new SimpleDiAptException("root '" + root + "' matches no bean");
+            }
+            pending.addAll(matching);
+        }
+        Set<BeanName> reachable = new HashSet<>();
+        while (!pending.isEmpty()) {
+            BeanName beanName = pending.poll();
+            BeanProviderEntity provider = providersByBeanName.get(beanName);
+            if (provider != null && reachable.add(beanName)) {
+                BeanEntity bean = provider.beanEntity();
+                pending.addAll(provider.hardDependencies());
+                pending.addAll(bean.fields().values());
+                pending.addAll(bean.setters().values());
+            }
+        }
+        providersByBeanName.keySet().retainAll(reachable);
+    }
+
+    /** @return true if the root matches a collected bean by its name or class name */
+    public boolean matchesBean(String root) {
+        return providersByBeanName.values().stream().anyMatch(provider -> matches(provider, root));
+    }
+
+    /** @return true if a bean registered under the {@link BeanName} provided is created by a producer method */
+    public boolean isProduced(BeanName beanName) {
+        return providersByBeanName.get(beanName) instanceof ProducedBeanProviderEntity;
+    }
+
+    private static boolean matches(BeanProviderEntity provider, String root) {
+        String name = provider.beanName().name();
+        return name.equals(root) || name.equals(KeyedBeans.factoryName(root)) || provider.beanEntity().typeName().equals(root);
+    }
+
     private void visit(Node current, LinkedList<Node> output) {
         if (current.mark) {
             throw new SimpleDiAptException("cycle found in entity hard dependency graph - first to occur on bean '" + current.provider.beanName() + "'");
@@ -0,0 +1,25 @@
+package mlesiewski.simpledi.apt.model;
+
+/**
+ * An entity representing a class implementing MembersInjector interface - it injects soft dependencies of a bean class
+ * into instances that were not created by the container.
+ */
+public class MembersInjectorEntity extends ClassEntity {
+
+    private final BeanEntity beanEntity;
+
+    /**
+     * @param beanEntity a bean whose fields and setters are going to be injected by this entity
+     */
+    public MembersInjectorEntity(BeanEntity beanEntity) {
+        super(beanEntity.packageName(), beanEntity.simpleName() + "MembersInjector");
+        this.beanEntity = beanEntity;
+    }
+
+    /**
+     * @return a bean whose fields and setters are going to be injected by this entity
+     */
+    public BeanEntity beanEntity() {
+        return beanEntity;
+    }
+}
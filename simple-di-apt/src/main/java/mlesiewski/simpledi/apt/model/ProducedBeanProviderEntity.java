@@ -1,6 +1,10 @@
 package mlesiewski.simpledi.apt.model;
 
+import mlesiewski.simpledi.core.KeyedBeans;
+
 import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,6 +17,9 @@ public class ProducedBeanProviderEntity extends BeanProviderEntity implements Ge
     private final BeanEntity beanProducer;
     private final String producerMethod;
     private final String thrown;
+    private final boolean staticMethod;
+    private final List<String> parameterTypes;
+    private final int maximumCached;
 
     /**
      * @param producedBean a bean that is going to be produced by this provider
@@ -21,10 +28,54 @@ public class ProducedBeanProviderEntity extends BeanProviderEntity implements Ge
      * @param thrown list of names of thrown types declared by the producer method
      */
     public ProducedBeanProviderEntity(BeanEntity producedBean, BeanEntity beanProducer, String producerMethod, List<String> thrown) {
-        super(producedBean, "Wrapper", SOURCE);
+        this(producedBean, beanProducer, producerMethod, thrown, false, Collections.emptyList(), 0);
+    }
+
+    private ProducedBeanProviderEntity(BeanEntity producedBean, BeanEntity beanProducer, String producerMethod, List<String> thrown, boolean staticMethod,
+                                       List<String> parameterTypes, int maximumCached) {
+        super(producedBean, parameterTypes.isEmpty() ? "Wrapper" : "KeyedWrapper", SOURCE);
         this.beanProducer = beanProducer;
         this.producerMethod = producerMethod;
         this.thrown = thrown.stream().collect(Collectors.joining(" | "));
+        this.staticMethod = staticMethod;
+        this.parameterTypes = new ArrayList<>(parameterTypes);
+        this.maximumCached = maximumCached;
+    }
+
+    /**
+     * @param producedBean a bean that is going to be produced by this provider
+     * @param producerClass a class declaring the producer method - it is not a bean
+     * @param producerMethod name of the static method of producerClass that produces producedBean instances
+     * @param thrown list of names of thrown types declared by the producer method
+     * @return an entity of a provider calling the static method directly
+     */
+    public static ProducedBeanProviderEntity ofStaticMethod(BeanEntity producedBean, BeanEntity producerClass, String producerMethod, List<String> thrown) {
+        return new ProducedBeanProviderEntity(producedBean, producerClass, producerMethod, thrown, true, Collections.emptyList(), 0);
+    }
+
+    /**
+     * @param producedBean a bean that is going to be produced per key by this provider's {@link KeyedBeans}
+     * @param beanProducer a bean that is going to be a delegate for bean production call - or just a class of a static method
+     * @param producerMethod name of the method of beanProducer that produces producedBean instances
+     * @param thrown list of names of thrown types declared by the producer method
+     * @param staticMethod {@code true} if the producer method is static
+     * @param parameterTypes types of the producer method's parameters - the key
+     * @param maximumCached the most produced beans kept
+     * @return an entity of a provider of a {@link KeyedBeans} factory bean
+     */
+    public static ProducedBeanProviderEntity keyed(BeanEntity producedBean, BeanEntity beanProducer, String producerMethod, List<String> thrown,
+                                                   boolean staticMethod, List<String> parameterTypes, int maximumCached) {
+        return new ProducedBeanProviderEntity(producedBean, beanProducer, producerMethod, thrown, staticMethod, parameterTypes, maximumCached);
+    }
+
+    /** @return a name of the {@link KeyedBeans} factory bean if the producer method has parameters - of the produced bean otherwise */
+    @Override
+    public BeanName beanName() {
+        BeanName producedBean = super.beanName();
+        if (!isKeyed()) {
+            return producedBean;
+        }
+        return new BeanName(KeyedBeans.factoryName(producedBean.name()), producedBean.scopeFromAnnotation(), producedBean.nameFromType());
     }
 
     public String producerMethod() {
@@ -38,4 +89,24 @@ public class ProducedBeanProviderEntity extends BeanProviderEntity implements Ge
     public String thrown() {
         return thrown;
     }
+
+    /** @return {@code true} if the producer method is static - {@link #beanProducer()} is just its class then */
+    public boolean isStaticMethod() {
+        return staticMethod;
+    }
+
+    /** @return {@code true} if the producer method has parameters - the provider provides a {@link KeyedBeans} factory */
+    public boolean isKeyed() {
+        return !parameterTypes.isEmpty();
+    }
+
+    /** @return types of the producer method's parameters */
+    public List<String> parameterTypes() {
+        return Collections.unmodifiableList(parameterTypes);
+    }
+
+    /** @return the most produced beans kept by the {@link KeyedBeans} factory */
+    public int maximumCached() {
+        return maximumCached;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package mlesiewski.simpledi.apt.processors;
+
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.BeanName;
+import mlesiewski.simpledi.apt.model.BeanProviderEntity;
+import mlesiewski.simpledi.apt.model.ClassEntity;
+import mlesiewski.simpledi.apt.model.GeneratedCodeCollector;
+import mlesiewski.simpledi.core.annotations.Bean;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+
+/**
+ * Finds beans of classes enclosing annotated members.
+ */
+class BeanEntities {
+
+    private BeanEntities() {
+    }
+
+    /** @return {@link BeanEntity} of a class enclosing the element, with a correct name - created and collected if there is none yet */
+    static BeanEntity enclosing(Element element, GeneratedCodeCollector collector) {
+        TypeElement aBeanClass = (TypeElement) element.getEnclosingElement();
+        DeclaredType declaredType = (DeclaredType) aBeanClass.asType();
+        Validators.validBeanConstructor(declaredType);
+        Bean annotation = aBeanClass.getAnnotation(Bean.class);
+        BeanName beanName;
+        if (annotation != null) {
+            beanName = new BeanName(annotation, declaredType);
+        } else {
+            beanName = new BeanName(declaredType);
+        }
+        return getBeanEntity(aBeanClass, beanName, collector);
+    }
+
+    /** @return {@link BeanEntity} form the collector - if its not there than a new {@link BeanEntity} will be created and pun into the collector */
+    private static BeanEntity getBeanEntity(TypeElement beanClass, BeanName beanClassName, GeneratedCodeCollector collector) {
+        if (collector.hasBean(beanClassName)) {
+            return collector.getBean(beanClassName);
+        } else {
+            ClassEntity beanClassEntity = ClassEntity.from(beanClass.asType());
+            BeanEntity beanEntity = BeanEntity.builder().from(beanClassEntity).withName(beanClassName.nameFromAnnotation()).withScope(beanClassName.scopeFromAnnotation()).build();
+            BeanProviderEntity provider = new BeanProviderEntity(beanEntity, beanClass);
+            collector.registrable(provider);
+            return beanEntity;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package mlesiewski.simpledi.apt.processors;
+
+import mlesiewski.simpledi.apt.Logger;
+import mlesiewski.simpledi.apt.SimpleDiAptException;
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.DecoratedMethod;
+import mlesiewski.simpledi.apt.model.GeneratedCodeCollector;
+import mlesiewski.simpledi.core.annotations.Async;
+import mlesiewski.simpledi.core.annotations.Batched;
+import mlesiewski.simpledi.core.annotations.Cached;
+import mlesiewski.simpledi.core.annotations.Timed;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Processes annotations of bean methods that are overridden by a generated decorator - @Cached, @Batched, @Async and @Timed.
+ */
+public class DecoratorAnnotationProcessor {
+
+    /** types a bulk method of a {@link Batched} method may take keys as */
+    private static final List<String> KEYS_TYPES = Arrays.asList(Collection.class.getName(), List.class.getName(), Set.class.getName(), Iterable.class.getName());
+
+    /** collector ref */
+    private final GeneratedCodeCollector collector;
+    private final Elements elementUtils;
+    private final Types typeUtils;
+
+    public DecoratorAnnotationProcessor(GeneratedCodeCollector collector, ProcessingEnvironment environment) {
+        this.collector = collector;
+        this.elementUtils = environment.getElementUtils();
+        this.typeUtils = environment.getTypeUtils();
+    }
+
+    /** @param roundEnv environment to get annotated {@link Element Elements} from */
+    public void process(RoundEnvironment roundEnv) {
+        roundEnv.getElementsAnnotatedWith(Cached.class).forEach(this::processCached);
+        roundEnv.getElementsAnnotatedWith(Batched.class).forEach(this::processBatched);
+        roundEnv.getElementsAnnotatedWith(Async.class).forEach(this::processAsync);
+        roundEnv.getElementsAnnotatedWith(Timed.class).forEach(this::processTimed);
+    }
+
+    private void processCached(Element element) {
+        Logger.note("processing element '" + element.getSimpleName() + "'");
+        DecoratedMethod method = decoratedMethod(element, Cached.class);
+        Cached annotation = element.getAnnotation(Cached.class);
+        if (method.isVoid()) {
+            throw new SimpleDiAptException(Cached.class.getName() + " is only applicable for methods returning a value", element);
+        }
+        if (method.checkedExceptions() > 1) {
+            throw new SimpleDiAptException(Cached.class.getName() + " is only applicable for methods declaring at most one checked exception", element);
+        }
+        if (annotation.maximumSize() < 1 || annotation.expireAfterMillis() < 0) {
+            throw new SimpleDiAptException(Cached.class.getName() + " needs a positive maximumSize and a non-negative expireAfterMillis", element);
+        }
+        method.cache(new DecoratedMethod.CacheSettings(annotation.maximumSize(), annotation.expireAfterMillis()));
+    }
+
+    private void processBatched(Element element) {
+        Logger.note("processing element '" + element.getSimpleName() + "'");
+        DecoratedMethod method = decoratedMethod(element, Batched.class);
+        Batched annotation = element.getAnnotation(Batched.class);
+        ExecutableElement single = (ExecutableElement) element;
+        if (single.getParameters().size() != 1 || single.isVarArgs()) {
+            throw new SimpleDiAptException(Batched.class.getName() + " is only applicable for methods with exactly one parameter - a key", element);
+        }
+        if (single.getReturnType().getKind() != TypeKind.DECLARED && single.getReturnType().getKind() != TypeKind.ARRAY) {
+            throw new SimpleDiAptException(Batched.class.getName() + " is only applicable for methods returning a reference type", element);
+        }
+        if (annotation.maximumBatchSize() < 1 || annotation.windowMicros() < 0) {
+            throw new SimpleDiAptException(Batched.class.getName() + " needs a positive maximumBatchSize and a non-negative windowMicros", element);
+        }
+        TypeMirror key = boxed(single.getParameters().get(0).asType());
+        ExecutableElement bulk = bulkMethod(single, annotation.bulk(), key);
+        List<? extends TypeMirror> bulkExceptions = bulk.getThrownTypes().stream().filter(DecoratedMethod::isChecked).collect(Collectors.toList());
+        if (bulkExceptions.size() > 1) {
+            throw new SimpleDiAptException("the bulk method '" + annotation.bulk() + "' may declare at most one checked exception", element);
+        }
+        for (TypeMirror thrown : bulkExceptions) {
+            if (single.getThrownTypes().stream().noneMatch(declared -> typeUtils.isSubtype(thrown, declared))) {
+                throw new SimpleDiAptException("a method batched by '" + annotation.bulk() + "' has to declare " + thrown + " it throws", element);
+            }
+        }
+        String keysType = ((TypeElement) typeUtils.asElement(bulk.getParameters().get(0).asType())).getQualifiedName().toString();
+        method.batch(new DecoratedMethod.BatchSettings(annotation.bulk(), keysType, annotation.maximumBatchSize(), annotation.windowMicros()));
+    }
+
+    private void processAsync(Element element) {
+        Logger.note("processing element '" + element.getSimpleName() + "'");
+        DecoratedMethod method = decoratedMethod(element, Async.class);
+        Async annotation = element.getAnnotation(Async.class);
+        TypeMirror returned = ((ExecutableElement) element).getReturnType();
+        if (returned.getKind() != TypeKind.DECLARED || !((TypeElement) typeUtils.asElement(returned)).getQualifiedName().contentEquals(CompletableFuture.class.getName())) {
+            throw new SimpleDiAptException(Async.class.getName() + " is only applicable for methods returning a " + CompletableFuture.class.getName(), element);
+        }
+        if (annotation.maximumConcurrency() < 1 || annotation.poolSize() < 0) {
+            throw new SimpleDiAptException(Async.class.getName() + " needs a positive maximumConcurrency and a non-negative poolSize", element);
+        }
+        method.async(new DecoratedMethod.AsyncSettings(annotation.maximumConcurrency(), annotation.poolSize()));
+    }
+
+    private void processTimed(Element element) {
+        Logger.note("processing element '" + element.getSimpleName() + "'");
+        decoratedMethod(element, Timed.class).timed(true);
+    }
+
+    /** @return a bulk method named {@code bulk} that takes keys of the type and returns a map of them to values the single method returns */
+    private ExecutableElement bulkMethod(ExecutableElement single, String bulk, TypeMirror key) {
+        TypeElement beanClass = (TypeElement) single.getEnclosingElement();
+        Optional<ExecutableElement> found = ElementFilter.methodsIn(elementUtils.getAllMembers(beanClass)).stream()
+                .filter(candidate -> candidate.getSimpleName().contentEquals(bulk))
+                .filter(candidate -> !candidate.getModifiers().contains(STATIC) && !candidate.getModifiers().contains(PRIVATE))
+                .filter(candidate -> candidate.getParameters().size() == 1 && candidate.getTypeParameters().isEmpty())
+                .filter(candidate -> takesKeys(candidate.getParameters().get(0).asType(), key))
+                .filter(candidate -> returnsValues(candidate.getReturnType(), key, single.getReturnType()))
+                .findFirst();
+        return found.orElseThrow(() -> new SimpleDiAptException("no bulk method '" + bulk + "' taking a Collection, List, Set or Iterable of " + key
+                + " and returning a Map of them to " + single.getReturnType() + " found", single));
+    }
+
+    private boolean takesKeys(TypeMirror parameter, TypeMirror key) {
+        if (parameter.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        DeclaredType type = (DeclaredType) parameter;
+        String typeName = ((TypeElement) type.asElement()).getQualifiedName().toString();
+        return KEYS_TYPES.contains(typeName) && type.getTypeArguments().size() == 1 && typeUtils.isSameType(type.getTypeArguments().get(0), key);
+    }
+
+    private boolean returnsValues(TypeMirror returned, TypeMirror key, TypeMirror value) {
+        if (returned.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        DeclaredType type = (DeclaredType) returned;
+        List<? extends TypeMirror> arguments = type.getTypeArguments();
+        return ((TypeElement) type.asElement()).getQualifiedName().contentEquals(Map.class.getName()) && arguments.size() == 2
+                && typeUtils.isSameType(arguments.get(0), key) && typeUtils.isSameType(arguments.get(1), value);
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive() ? typeUtils.boxedClass(typeUtils.getPrimitiveType(type.getKind())).asType() : type;
+    }
+
+    /** @return a method of the enclosing bean that is going to be decorated */
+    private DecoratedMethod decoratedMethod(Element element, Class<? extends Annotation> annotation) {
+        validate(element, annotation);
+        BeanEntity beanEntity = BeanEntities.enclosing(element, collector);
+        if (collector.isProduced(beanEntity.beanName())) {
+            throw new SimpleDiAptException(annotation.getName() + " is not applicable for methods of produced beans", element);
+        }
+        return beanEntity.decoratedMethod(new DecoratedMethod((ExecutableElement) element));
+    }
+
+    /**
+     * @param element annotated element to validate - was the annotation applied to the right place?
+     */
+    private void validate(Element element, Class<? extends Annotation> annotation) {
+        Validators.isAMethod(element, annotation);
+        Validators.validAccessibility(element, annotation, "methods");
+        Validators.isNotStatic(element, annotation, "methods");
+        if (element.getModifiers().contains(FINAL)) {
+            throw new SimpleDiAptException(annotation.getName() + " is only applicable for non-final methods", element);
+        }
+        if (!((ExecutableElement) element).getTypeParameters().isEmpty()) {
+            throw new SimpleDiAptException(annotation.getName() + " is only applicable for non-generic methods", element);
+        }
+        TypeElement beanClass = (TypeElement) element.getEnclosingElement();
+        if (beanClass.getModifiers().contains(FINAL) || beanClass.getModifiers().contains(ABSTRACT) || !beanClass.getTypeParameters().isEmpty()) {
+            throw new SimpleDiAptException(annotation.getName() + " is only applicable for methods of non-final, non-abstract and non-generic classes", element);
+        }
+    }
+}
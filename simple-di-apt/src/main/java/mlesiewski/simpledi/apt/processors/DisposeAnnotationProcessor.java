@@ -0,0 +1,65 @@
+package mlesiewski.simpledi.apt.processors;
+
+import mlesiewski.simpledi.apt.Logger;
+import mlesiewski.simpledi.apt.SimpleDiAptException;
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.BeanProviderEntity;
+import mlesiewski.simpledi.apt.model.ClassEntity;
+import mlesiewski.simpledi.apt.model.GeneratedCode;
+import mlesiewski.simpledi.core.annotations.Dispose;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process @Dispose annotations - collects dispose methods by a type and assigns them to beans of that type,
+ * also to the produced ones.
+ */
+public class DisposeAnnotationProcessor {
+
+    /** dispose method names by a bean type name */
+    private final Map<String, String> methods = new HashMap<>();
+
+    /** @param roundEnv environment to get annotated {@link Element Elements} from */
+    public void process(RoundEnvironment roundEnv) {
+        roundEnv.getElementsAnnotatedWith(Dispose.class).forEach(this::processElement);
+    }
+
+    /** @param generatedCodes all the generated elements - beans of types with a dispose method get it */
+    public void assign(Collection<GeneratedCode> generatedCodes) {
+        generatedCodes.stream()
+                .filter(generated -> generated instanceof BeanProviderEntity)
+                .map(generated -> ((BeanProviderEntity) generated).beanEntity())
+                .filter(bean -> methods.containsKey(bean.typeName()))
+                .forEach(bean -> bean.disposeMethod(methods.get(bean.typeName())));
+    }
+
+    /**
+     * @param element element to processSupertypes - remember it as a dispose method of the enclosing type
+     */
+    private void processElement(Element element) {
+        Logger.note("processing element '" + element.getSimpleName() + "'");
+        validate(element);
+        String typeName = ClassEntity.from(element.getEnclosingElement().asType()).typeName();
+        String previous = methods.putIfAbsent(typeName, element.getSimpleName().toString());
+        if (previous != null) {
+            throw new SimpleDiAptException("a bean can have only one " + Dispose.class.getSimpleName() + " method - " + previous + "() is one already", element);
+        }
+    }
+
+    /**
+     * @param element annotated element to validate - was the annotation applied to the right place?
+     */
+    private void validate(Element element) {
+        Validators.isAMethod(element, Dispose.class);
+        Validators.validAccessibility(element, Dispose.class, "methods");
+        Validators.isNotStatic(element, Dispose.class, "methods");
+        if (!((ExecutableElement) element).getParameters().isEmpty()) {
+            throw new SimpleDiAptException(Dispose.class.getName() + " is only applicable for methods with no arguments", element);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package mlesiewski.simpledi.apt.processors;
 
 import mlesiewski.simpledi.apt.Logger;
 import mlesiewski.simpledi.apt.SimpleDiAptException;
-import mlesiewski.simpledi.core.annotations.Bean;
 import mlesiewski.simpledi.core.annotations.Inject;
 import mlesiewski.simpledi.apt.model.*;
 
@@ -15,8 +14,10 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PRIVATE;
@@ -59,6 +60,20 @@ public class InjectAnnotationProcessor {
                 .forEach(field -> addFieldDependencyToABean(field, bean));
     }
 
+    /** @return names of beans injected into non-static fields of the class and its superclasses */
+    public List<String> injectedBeanNames(TypeElement aClass) {
+        List<TypeElement> classes = new ArrayList<>();
+        classes.add(aClass);
+        classes.addAll(supertypesOf(aClass));
+        return classes.stream()
+                .flatMap(type -> type.getEnclosedElements().stream())
+                .filter(this::hasAtInjectAnnotation)
+                .filter(this::isAField)
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .map(field -> new BeanName(field.getAnnotation(Inject.class), (DeclaredType) field.asType()).name())
+                .collect(Collectors.toList());
+    }
+
     private Collection<TypeElement> supertypesOf(TypeElement childClass) {
         return supertypesOf(childClass, new ArrayList<>());
     }
@@ -227,29 +242,6 @@ public class InjectAnnotationProcessor {
 
     /** @return {@link BeanEntity} with a correct name */
     private BeanEntity getEnclosingBeanEntity(Element element) {
-        TypeElement aBeanClass = (TypeElement) element.getEnclosingElement();
-        DeclaredType declaredType = (DeclaredType) aBeanClass.asType();
-        Validators.validBeanConstructor(declaredType);
-        Bean annotation = aBeanClass.getAnnotation(Bean.class);
-        BeanName beanName;
-        if (annotation != null) {
-            beanName = new BeanName(annotation, declaredType);
-        } else {
-            beanName = new BeanName(declaredType);
-        }
-        return getBeanEntity(aBeanClass, beanName);
-    }
-
-    /** @return {@link BeanEntity} form the {@link #collector} - if its not there than a new {@link BeanEntity} will be created and pun into {@link #collector} */
-    private BeanEntity getBeanEntity(TypeElement beanClass, BeanName beanClassName) {
-        if (collector.hasBean(beanClassName)) {
-            return collector.getBean(beanClassName);
-        } else {
-            ClassEntity beanClassEntity = ClassEntity.from(beanClass.asType());
-            BeanEntity beanEntity = BeanEntity.builder().from(beanClassEntity).withName(beanClassName.nameFromAnnotation()).withScope(beanClassName.scopeFromAnnotation()).build();
-            BeanProviderEntity provider = new BeanProviderEntity(beanEntity, beanClass);
-            collector.registrable(provider);
-            return beanEntity;
-        }
+        return BeanEntities.enclosing(element, collector);
     }
 }
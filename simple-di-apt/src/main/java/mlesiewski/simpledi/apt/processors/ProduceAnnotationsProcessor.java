@@ -1,6 +1,7 @@
 package mlesiewski.simpledi.apt.processors;
 
 import mlesiewski.simpledi.apt.Logger;
+import mlesiewski.simpledi.apt.SimpleDiAptException;
 import mlesiewski.simpledi.core.annotations.Bean;
 import mlesiewski.simpledi.core.annotations.Produce;
 import mlesiewski.simpledi.apt.model.BeanEntity;
@@ -13,6 +14,7 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
@@ -52,8 +54,12 @@ public class ProduceAnnotationsProcessor {
         validate(element);
         Produce annotation = element.getAnnotation(Produce.class);
         ExecutableElement method = (ExecutableElement) element;
-        BeanProviderEntity beanProvider = createBeanProducerProvider(method);
-        createProducedBeanProvider(annotation, method, beanProvider);
+        if (method.getModifiers().contains(Modifier.STATIC)) {
+            createStaticallyProducedBeanProvider(annotation, method);
+        } else {
+            BeanProviderEntity beanProvider = createBeanProducerProvider(method);
+            createProducedBeanProvider(annotation, method, beanProvider);
+        }
     }
 
     /**
@@ -63,8 +69,13 @@ public class ProduceAnnotationsProcessor {
         Produce annotation = element.getAnnotation(Produce.class);
         Validators.validBeanName(annotation.name(), Produce.class, element);
         Validators.validAccessibility(element, Bean.class, "methods");
-        Validators.isNotStatic(element, Produce.class, "methods");
         Validators.isAMethod(element, Produce.class);
+        if (annotation.maximumCached() < 0) {
+            throw new SimpleDiAptException(Produce.class.getName() + " needs a non-negative maximumCached", element);
+        }
+        if (annotation.maximumCached() > 0 && ((ExecutableElement) element).getParameters().isEmpty()) {
+            throw new SimpleDiAptException(Produce.class.getName() + " maximumCached is only applicable for methods with parameters", element);
+        }
     }
 
     /***
@@ -89,10 +100,33 @@ public class ProduceAnnotationsProcessor {
         producedBean.hardDependency(beanProvider.beanName());
         String producerMethod = method.getSimpleName().toString();
         List<String> thrown = method.getThrownTypes().stream().filter(this::isCheckedException).map(TypeMirror::toString).collect(Collectors.toList());
-        ProducedBeanProviderEntity producedBeanProvider = new ProducedBeanProviderEntity(producedBean, beanProvider.beanEntity(), producerMethod, thrown);
+        List<String> parameterTypes = parameterTypes(method);
+        ProducedBeanProviderEntity producedBeanProvider = parameterTypes.isEmpty()
+                ? new ProducedBeanProviderEntity(producedBean, beanProvider.beanEntity(), producerMethod, thrown)
+                : ProducedBeanProviderEntity.keyed(producedBean, beanProvider.beanEntity(), producerMethod, thrown, false, parameterTypes, annotation.maximumCached());
         generatedCollector.registrable(producedBeanProvider);
     }
 
+    /**
+     * creates bean provider that provides the produced bean by calling a static {@link Produce} annotated method - its class is not a bean
+     */
+    private void createStaticallyProducedBeanProvider(Produce annotation, ExecutableElement method) {
+        ClassEntity producedBeanClass = ClassEntity.from(method.getReturnType());
+        BeanEntity producedBean = BeanEntity.builder().from(producedBeanClass).withScope(annotation.scope()).withName(annotation.name()).build();
+        BeanEntity producerClass = BeanEntity.builder().from(ClassEntity.from(method.getEnclosingElement().asType())).build();
+        String producerMethod = method.getSimpleName().toString();
+        List<String> thrown = method.getThrownTypes().stream().filter(this::isCheckedException).map(TypeMirror::toString).collect(Collectors.toList());
+        List<String> parameterTypes = parameterTypes(method);
+        generatedCollector.registrable(parameterTypes.isEmpty()
+                ? ProducedBeanProviderEntity.ofStaticMethod(producedBean, producerClass, producerMethod, thrown)
+                : ProducedBeanProviderEntity.keyed(producedBean, producerClass, producerMethod, thrown, true, parameterTypes, annotation.maximumCached()));
+    }
+
+    /** @return types of parameters of the method - a key of beans it produces */
+    private static List<String> parameterTypes(ExecutableElement method) {
+        return method.getParameters().stream().map(parameter -> parameter.asType().toString()).collect(Collectors.toList());
+    }
+
     /**
      * @return {@code true} if type provided is an unchecked exception
      */
@@ -0,0 +1,163 @@
+package mlesiewski.simpledi.apt.writer;
+
+import mlesiewski.simpledi.apt.model.DecoratedMethod;
+import mlesiewski.simpledi.apt.model.DecoratedMethod.AsyncSettings;
+import mlesiewski.simpledi.apt.model.DecoratedMethod.BatchSettings;
+import mlesiewski.simpledi.apt.model.DecoratedMethod.CacheSettings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Overrides of decorated methods of a generated decorator and fields they use.
+ */
+class DecoratedMethods {
+
+    private final List<String> fields = new ArrayList<>();
+    private final List<String> cacheEntries = new ArrayList<>();
+    private final List<String> batcherEntries = new ArrayList<>();
+    private final List<String> dispatcherEntries = new ArrayList<>();
+    private final List<String> timerEntries = new ArrayList<>();
+
+    /** @return overriding methods - fields they use are collected */
+    String overrides(Collection<DecoratedMethod> methods) {
+        return methods.stream().map(this::override).collect(Collectors.joining("\n\n    "));
+    }
+
+    /** @return declarations of fields used by the overriding methods */
+    String fields() {
+        return fields.isEmpty() ? "// no fields" : String.join("\n    ", fields);
+    }
+
+    /** @return an {@code implements} clause of the interfaces exposing caches, batchers, dispatchers and timers - only those the decorator has */
+    String interfaces() {
+        List<String> interfaces = new ArrayList<>();
+        if (!cacheEntries.isEmpty()) {
+            interfaces.add("MethodCaches");
+        }
+        if (!batcherEntries.isEmpty()) {
+            interfaces.add("MethodBatchers");
+        }
+        if (!dispatcherEntries.isEmpty()) {
+            interfaces.add("MethodDispatchers");
+        }
+        if (!timerEntries.isEmpty()) {
+            interfaces.add("MethodTimers");
+        }
+        return interfaces.isEmpty() ? "" : " implements " + String.join(", ", interfaces);
+    }
+
+    /** @return methods of the interfaces in {@link #interfaces()} */
+    String interfaceMethods() {
+        List<String> methods = new ArrayList<>();
+        if (!cacheEntries.isEmpty()) {
+            methods.add(mapMethod("MethodCache<?>", "methodCaches", "caches", cacheEntries));
+        }
+        if (!batcherEntries.isEmpty()) {
+            methods.add(mapMethod("MethodBatcher<?, ?>", "methodBatchers", "batchers", batcherEntries));
+        }
+        if (!dispatcherEntries.isEmpty()) {
+            methods.add(mapMethod("MethodDispatcher", "methodDispatchers", "dispatchers", dispatcherEntries));
+        }
+        if (!timerEntries.isEmpty()) {
+            methods.add(mapMethod("MethodTimer", "methodTimers", "timers", timerEntries));
+        }
+        return String.join("\n\n    ", methods);
+    }
+
+    /** @return a method returning a map filled by the statements */
+    private static String mapMethod(String valueType, String name, String map, List<String> entries) {
+        return String.format("public java.util.Map<String, %1$s> %2$s() {\n        java.util.Map<String, %1$s> %3$s = new java.util.LinkedHashMap<>();\n"
+                + "        %4$s\n        return %3$s;\n    }", valueType, name, map, String.join("\n        ", entries));
+    }
+
+    /**
+     * A batched call is dispatched by an async one made inside a cached one - only misses of the cache are dispatched and batched.
+     * A timed body times all of it - cache hits included.
+     */
+    private String override(DecoratedMethod method) {
+        String call = method.batch() != null ? batched(method) : "super." + method.name() + "(" + String.join(", ", method.parameterNames()) + ")";
+        if (method.async() != null) {
+            call = dispatched(method, call);
+        }
+        String body = method.cache() != null ? cached(method, call) : method.isVoid() ? call + ";" : "return " + call + ";";
+        if (method.timed()) {
+            body = timed(method, body);
+        }
+        return String.format("@Override\n    %s%s %s(%s)%s {\n        %s\n    }",
+                method.modifier(), method.returnType(), method.name(), method.parameters(), method.throwsClause(), body);
+    }
+
+    /** @return a body of a cached method - the call is made only on a miss */
+    private String cached(DecoratedMethod method, String call) {
+        CacheSettings cache = method.cache();
+        String field = "cache" + cacheEntries.size();
+        fields.add(String.format("private final MethodCache<%s> %s = new MethodCache<>(\"%s\", %d, %dL);",
+                method.boxedReturnType(), field, method.signature(), cache.maximumSize(), cache.expireAfterMillis()));
+        cacheEntries.add(String.format("caches.put(\"%s\", this.%s);", method.signature(), field));
+        return String.format("return this.%s.get(%s, () -> %s);", field, key(method.parameterNames()), call);
+    }
+
+    /** @return an expression collecting a call into a batch of bulk method calls */
+    private String batched(DecoratedMethod method) {
+        BatchSettings batch = method.batch();
+        String field = "batcher" + batcherEntries.size();
+        String key = method.parameterNames().get(0);
+        String keys = local(method, "keys");
+        fields.add(String.format("private final MethodBatcher<%s, %s> %s = new MethodBatcher<>(\"%s\", %d, %dL);",
+                DecoratedMethod.boxed(method.parameterTypes().get(0)), method.returnType(), field, method.signature(), batch.maximumBatchSize(), batch.windowMicros()));
+        batcherEntries.add(String.format("batchers.put(\"%s\", this.%s);", method.signature(), field));
+        return String.format("this.%s.get(%s, %s -> super.%s(%s))", field, key, keys, batch.bulk(), keysArgument(batch.keysType(), keys));
+    }
+
+    /** @return the body surrounded by recording of its time and failures */
+    private String timed(DecoratedMethod method, String body) {
+        String field = "timer" + timerEntries.size();
+        String start = local(method, field + "Start");
+        String failed = local(method, field + "Failed");
+        String failure = local(method, field + "Failure");
+        fields.add(String.format("private final MethodTimer %s = new MethodTimer(\"%s\");", field, method.signature()));
+        timerEntries.add(String.format("timers.put(\"%s\", this.%s);", method.signature(), field));
+        return String.format("long %2$s = this.%1$s.start();\n        boolean %3$s = false;\n        try {\n            %5$s\n        } catch (Throwable %4$s) {\n"
+                + "            %3$s = true;\n            throw %4$s;\n        } finally {\n            this.%1$s.stop(%2$s, %3$s);\n        }", field, start, failed, failure, body);
+    }
+
+    /** @return a name of a local variable that does not hide a parameter of the method */
+    private static String local(DecoratedMethod method, String name) {
+        return method.parameterNames().contains(name) ? local(method, name + "_") : name;
+    }
+
+    /** @return an expression dispatching the call to an executor */
+    private String dispatched(DecoratedMethod method, String call) {
+        AsyncSettings async = method.async();
+        String field = "dispatcher" + dispatcherEntries.size();
+        fields.add(String.format("private final MethodDispatcher %s = new MethodDispatcher(\"%s\", %d, %d);",
+                field, method.signature(), async.maximumConcurrency(), async.poolSize()));
+        dispatcherEntries.add(String.format("dispatchers.put(\"%s\", this.%s);", method.signature(), field));
+        return String.format("this.%s.submit(() -> %s)", field, call);
+    }
+
+    /** @return an expression converting keys of a batch to the bulk method's parameter type */
+    private static String keysArgument(String keysType, String keys) {
+        if (keysType.equals(List.class.getName())) {
+            return "new java.util.ArrayList<>(" + keys + ")";
+        }
+        if (keysType.equals(Set.class.getName())) {
+            return "new java.util.LinkedHashSet<>(" + keys + ")";
+        }
+        return keys;
+    }
+
+    /** @return an expression of a cache key made of the arguments */
+    private static String key(List<String> arguments) {
+        switch (arguments.size()) {
+            case 0: return "MethodCache.NO_ARGUMENTS";
+            case 1:
+            case 2: return "MethodCache.key(" + String.join(", ", arguments) + ")";
+            default: return "MethodCache.keyOf(new Object[]{" + String.join(", ", arguments) + "})";
+        }
+    }
+}
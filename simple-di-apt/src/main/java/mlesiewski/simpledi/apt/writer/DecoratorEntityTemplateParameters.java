@@ -0,0 +1,36 @@
+package mlesiewski.simpledi.apt.writer;
+
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.BeanName;
+import mlesiewski.simpledi.apt.model.DecoratorEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * represents template parameters for {@link DecoratorEntity}
+ */
+class DecoratorEntityTemplateParameters extends HashMap<String, String> {
+
+    DecoratorEntityTemplateParameters(DecoratorEntity entity) {
+        DecoratedMethods methods = new DecoratedMethods();
+        put("decoratorPackage", entity.packageName());
+        put("decoratorSimpleName", entity.simpleName());
+        BeanEntity beanEntity = entity.beanEntity();
+        put("beanType", beanEntity.typeName());
+        List<String> parameters = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        for (BeanName parameter : beanEntity.constructor().list()) {
+            String argument = "argument" + arguments.size();
+            parameters.add(parameter.nameFromType() + " " + argument);
+            arguments.add(argument);
+        }
+        put("constructorParameters", String.join(", ", parameters));
+        put("constructorArguments", String.join(", ", arguments));
+        put("methods", methods.overrides(beanEntity.decoratedMethods()));
+        put("fields", methods.fields());
+        put("interfaces", methods.interfaces());
+        put("interfaceMethods", methods.interfaceMethods());
+    }
+}
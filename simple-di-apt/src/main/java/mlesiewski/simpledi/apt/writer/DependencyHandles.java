@@ -0,0 +1,63 @@
+package mlesiewski.simpledi.apt.writer;
+
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.BeanName;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@code BeanHandle} fields of a generated class - a dependency used many times gets one handle.
+ */
+class DependencyHandles {
+
+    /** handle field names by dependency */
+    private final Map<BeanName, String> handles = new LinkedHashMap<>();
+
+    /** @return a name of a handle field for the dependency */
+    String handle(BeanName dependency) {
+        return handles.computeIfAbsent(dependency, key -> "dependency" + handles.size());
+    }
+
+    /** @return statements injecting soft dependencies (fields and setters) into a {@code bean} variable, or a comment if there are none */
+    String softDependencies(BeanEntity beanEntity) {
+        StringBuilder softDependencies = new StringBuilder();
+        beanEntity.fields().forEach((field, dependency) -> {
+            softDependencies.append("bean.").append(field).append(" = ");
+            softDependencies.append(handle(dependency)).append(".get()");
+            softDependencies.append(";\n\t\t");
+        });
+        beanEntity.setters().forEach((setter, dependency) -> {
+            softDependencies.append("bean.").append(setter).append("(");
+            softDependencies.append(handle(dependency)).append(".get()");
+            softDependencies.append(");\n\t\t");
+        });
+        return softDependencies.length() != 0 ? softDependencies.toString() : "//empty";
+    }
+
+    /** @return an expression listing handle fields of all dependencies */
+    String list() {
+        if (handles.isEmpty()) {
+            return "java.util.Collections.emptyList()";
+        }
+        return handles.values().stream().collect(Collectors.joining(", ", "java.util.Arrays.asList(", ")"));
+    }
+
+    /** @return declarations of handle fields for all dependencies */
+    String declarations() {
+        if (handles.isEmpty()) {
+            return "// no dependencies";
+        }
+        return handles.entrySet().stream()
+                .map(handle -> {
+                    BeanName dependency = handle.getKey();
+                    if (dependency.scopeIsDefault()) {
+                        return String.format("private final BeanHandle %s = new BeanHandle(\"%s\");", handle.getValue(), dependency.name());
+                    } else {
+                        return String.format("private final BeanHandle %s = new BeanHandle(\"%s\", \"%s\");", handle.getValue(), dependency.name(), dependency.scope());
+                    }
+                })
+                .collect(Collectors.joining("\n    "));
+    }
+}
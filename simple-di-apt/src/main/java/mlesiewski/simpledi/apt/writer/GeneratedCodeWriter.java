@@ -2,7 +2,8 @@ package mlesiewski.simpledi.apt.writer;
 
 import mlesiewski.simpledi.apt.Logger;
 import mlesiewski.simpledi.apt.SimpleDiAptException;
-import mlesiewski.simpledi.core.annotations.Registerable;
+import mlesiewski.simpledi.core.MembersInjectorIndex;
+import mlesiewski.simpledi.core.ProviderManifest;
 import mlesiewski.simpledi.apt.model.*;
 import mlesiewski.simpledi.core.scopes.Scope;
 import mlesiewski.simpledi.apt.template.Template;
@@ -30,9 +31,25 @@ public class GeneratedCodeWriter {
         generated.forEach(this::write);
     }
 
+    /** writes generated members injectors */
+    public void writeMembersInjectors(Collection<MembersInjectorEntity> injectors) {
+        Template template = TemplateFactory.get("MembersInjectorImplementation");
+        injectors.forEach(injector -> writeSource(injector.typeName(), template, new MembersInjectorEntityTemplateParameters(injector)));
+    }
+
+    /** writes generated decorators */
+    public void writeDecorators(Collection<DecoratorEntity> decorators) {
+        Template template = TemplateFactory.get("DecoratorImplementation");
+        decorators.forEach(decorator -> writeSource(decorator.typeName(), template, new DecoratorEntityTemplateParameters(decorator)));
+    }
+
     /** writes registrable class */
     private void write(GeneratedCode generated) {
-        String typeName = generated.typeName();
+        writeSource(generated.typeName(), getTemplateFor(generated), getTemplateParametersFor(generated));
+    }
+
+    /** writes a source file of a class compiled from a template */
+    private void writeSource(String typeName, Template template, Map<String, String> params) {
         int dot = typeName.lastIndexOf(".");
         String pkg = typeName.substring(0, dot);
         CharSequence relativeName = typeName.substring(dot + 1, typeName.length()) + ".java";
@@ -40,8 +57,6 @@ public class GeneratedCodeWriter {
         try {
             FileObject resource = filer.createResource(StandardLocation.SOURCE_OUTPUT, pkg, relativeName);
             Writer writer = resource.openWriter();
-            Template template = getTemplateFor(generated);
-            Map<String, String> params = getTemplateParametersFor(generated);
             String text = template.compile(params);
             writer.write(text);
             writer.close();
@@ -61,7 +76,9 @@ public class GeneratedCodeWriter {
     }
 
     private Template getTemplateFor(GeneratedCode generated) {
-        if (generated instanceof ProducedBeanProviderEntity) {
+        if (generated instanceof ProducedBeanProviderEntity && ((ProducedBeanProviderEntity) generated).isKeyed()) {
+            return TemplateFactory.get("KeyedBeanProviderImplementation");
+        } else if (generated instanceof ProducedBeanProviderEntity) {
             return TemplateFactory.get("ProducedBeanProviderImplementation");
         } else if (generated instanceof BeanProviderEntity) {
             return TemplateFactory.get("BeanProviderImplementation");
@@ -70,9 +87,18 @@ public class GeneratedCodeWriter {
         }
     }
 
-    /** writes service loader filer for registrable */
-    public void writeRegistrableServiceLoader(Collection<GeneratedCode> registrable) {
-        writeServiceLoader(registrable, Registerable.class, (Writer writer, GeneratedCode aClass) -> writer.write(aClass.typeName()));
+    /** writes a provider manifest - providers are registered lazily from it instead of being loaded by a service loader */
+    public void writeProviderManifest(Collection<GeneratedCode> registrable) {
+        writeResource(registrable, ProviderManifest.LOCATION, (Writer writer, GeneratedCode aClass) -> {
+            BeanName beanName = aClass.beanName();
+            writer.write(ProviderManifest.line(beanName.name(), beanName.scope(), aClass.typeName()));
+        });
+    }
+
+    /** writes an index of generated members injectors keyed by the injected class */
+    public void writeMembersInjectorIndex(Collection<MembersInjectorEntity> injectors) {
+        writeResource(injectors, MembersInjectorIndex.LOCATION, (Writer writer, MembersInjectorEntity injector) ->
+                writer.write(MembersInjectorIndex.line(injector.beanEntity().typeName(), injector.typeName())));
     }
 
     /** writes service loader filer for custom scopes */
@@ -82,9 +108,13 @@ public class GeneratedCodeWriter {
 
     /** writes a service loader file */
     private <T> void writeServiceLoader(Collection<T> generated, Class service, WritingOperation<T> operation) {
+        writeResource(generated, "META-INF/services/" + service.getName(), operation);
+    }
+
+    /** writes a resource file - one line per element */
+    private <T> void writeResource(Collection<T> generated, String relativeName, WritingOperation<T> operation) {
         StandardLocation location = StandardLocation.CLASS_OUTPUT;
         String pkg = "";
-        String relativeName = "META-INF/services/" + service.getName();
         Logger.note("attempting to write to a resource file '" + relativeName + "'");
         try {
             FileObject resource = filer.createResource(location, pkg, relativeName);
@@ -0,0 +1,22 @@
+package mlesiewski.simpledi.apt.writer;
+
+import mlesiewski.simpledi.apt.model.BeanEntity;
+import mlesiewski.simpledi.apt.model.MembersInjectorEntity;
+
+import java.util.HashMap;
+
+/**
+ * represents template parameters for {@link MembersInjectorEntity}
+ */
+class MembersInjectorEntityTemplateParameters extends HashMap<String, String> {
+
+    MembersInjectorEntityTemplateParameters(MembersInjectorEntity entity) {
+        DependencyHandles handles = new DependencyHandles();
+        put("injectorPackage", entity.packageName());
+        put("injectorSimpleName", entity.simpleName());
+        BeanEntity beanEntity = entity.beanEntity();
+        put("beanType", beanEntity.typeName());
+        put("softDependencies", handles.softDependencies(beanEntity));
+        put("dependencyHandles", handles.declarations());
+    }
+}
@@ -4,7 +4,9 @@ import mlesiewski.simpledi.apt.model.BeanEntity;
 import mlesiewski.simpledi.apt.model.GeneratedCode;
 import mlesiewski.simpledi.apt.model.ProducedBeanProviderEntity;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * represents template parameters for {@link ProducedBeanProviderEntity}
@@ -17,19 +19,36 @@ class ProducedBeanProviderEntityTemplateParameters extends HashMap<String, Strin
         put("beanProviderSimpleName", entity.simpleName());
         BeanEntity beanEntity = entity.beanEntity();
         put("beanType", beanEntity.typeName());
-        put("beanName", beanEntity.name());
-        put("beanScope", beanEntity.scope());
-        put("beanProducerBeanName", entity.beanProducer().typeName());
-        put("beanProducerBeanScope", entity.beanProducer().scope());
+        if (entity.isStaticMethod()) {
+            put("producerField", "// produced by a static method");
+            put("producer", entity.beanProducer().typeName());
+            put("dependencies", "java.util.Collections.emptyList()");
+        } else {
+            put("producerField", String.format("private final BeanHandle producer = new BeanHandle(\"%s\", \"%s\");", entity.beanProducer().typeName(), entity.beanProducer().scope()));
+            put("producer", String.format("producer.<%s>get()", entity.beanProducer().typeName()));
+            put("dependencies", "java.util.Collections.singletonList(producer)");
+        }
         put("beanProducerMethod", entity.producerMethod());
+        put("disposeCall", BeanProviderEntityTemplateParameters.disposeCall(beanEntity));
 
         String tryBlock = "";
         String catchBlock = "";
         if (!entity.thrown().isEmpty()) {
-            tryBlock = "try {";
-            catchBlock = String.format("} catch (%s e) { throw new SimpleDiException(\"exception wrapped during calling produce() :\" + e.getMessage(), e); }", entity.thrown());
+            tryBlock = "try { ";
+            catchBlock = String.format(" } catch (%s e) { throw new SimpleDiException(\"exception wrapped during calling produce() :\" + e.getMessage(), e); }", entity.thrown());
         }
         put("tryBlock", tryBlock);
         put("catchBlock", catchBlock);
+        if (entity.isKeyed()) {
+            put("producedBeanName", beanEntity.name());
+            put("maximumCached", String.valueOf(entity.maximumCached()));
+            put("parameterCount", String.valueOf(entity.parameterTypes().size()));
+            List<String> arguments = new ArrayList<>();
+            for (String type : entity.parameterTypes()) {
+                String erasure = type.replaceAll("<.*>", "");
+                arguments.add(String.format("(%s) KeyedBeans.keyArgument(\"%s\", key, %d, %s.class)", type, beanEntity.name(), arguments.size(), erasure));
+            }
+            put("keyArguments", String.join(", ", arguments));
+        }
     }
 }
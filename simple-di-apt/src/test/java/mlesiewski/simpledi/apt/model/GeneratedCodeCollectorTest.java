@@ -5,8 +5,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.lang.model.element.TypeElement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static mlesiewski.simpledi.apt.model.GeneratedOrderMatcher.returnsRegistrableInOrder;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class GeneratedCodeCollectorTest {
@@ -81,6 +87,76 @@ public class GeneratedCodeCollectorTest {
         // then - error
     }
 
+    @Test
+    public void returnsMembersInjectorsOnlyForBeansWithSoftDependencies() throws Exception {
+        // given
+        BeanEntity withField = createBeanEntity("withField");
+        BeanEntity withSetter = createBeanEntity("withSetter");
+        BeanEntity withoutSoftDependencies = createBeanEntity("withoutSoftDependencies");
+        withField.field("dependency", withoutSoftDependencies.beanName());
+        withSetter.setter("setDependency", withoutSoftDependencies.beanName());
+        // when
+        Collection<MembersInjectorEntity> injectors = collector.membersInjectors();
+        // then
+        List<String> injectedTypes = injectors.stream().map(injector -> injector.beanEntity().typeName()).collect(Collectors.toList());
+        assertThat(injectedTypes.size(), is(2));
+        assertThat(injectedTypes, hasItems(withField.typeName(), withSetter.typeName()));
+    }
+
+    @Test
+    public void retainsBeansReachableFromRootsByHardAndSoftDependencies() throws Exception {
+        // given
+        BeanEntity root = createBeanEntity("root");
+        BeanEntity constructorDependency = createBeanEntity("constructorDependency");
+        BeanEntity fieldDependency = createBeanEntity("fieldDependency");
+        BeanEntity setterDependency = createBeanEntity("setterDependency");
+        BeanEntity unused = createBeanEntity("unused");
+        root.hardDependency(constructorDependency.beanName());
+        root.field("dependency", fieldDependency.beanName());
+        fieldDependency.setter("setDependency", setterDependency.beanName());
+        unused.hardDependency(root.beanName());
+        // when
+        collector.retainReachable(Collections.singletonList("root"));
+        // then
+        assertThat(collector.hasBean(root.beanName()), is(true));
+        assertThat(collector.hasBean(constructorDependency.beanName()), is(true));
+        assertThat(collector.hasBean(fieldDependency.beanName()), is(true));
+        assertThat(collector.hasBean(setterDependency.beanName()), is(true));
+        assertThat(collector.hasBean(unused.beanName()), is(false));
+        assertThat(collector.registrable().size(), is(4));
+    }
+
+    @Test
+    public void matchesRootsByClassName() throws Exception {
+        // given
+        BeanEntity root = createBeanEntity("root");
+        BeanEntity unused = createBeanEntity("unused");
+        // when
+        collector.retainReachable(Collections.singletonList(root.typeName()));
+        // then
+        assertThat(collector.hasBean(root.beanName()), is(true));
+        assertThat(collector.hasBean(unused.beanName()), is(false));
+    }
+
+    @Test
+    public void matchesBeansByNameOrClassName() throws Exception {
+        // given
+        BeanEntity root = createBeanEntity("root");
+        // then
+        assertThat(collector.matchesBean("root"), is(true));
+        assertThat(collector.matchesBean(root.typeName()), is(true));
+        assertThat(collector.matchesBean("missing"), is(false));
+    }
+
+    @Test(expectedExceptions = SimpleDiAptException.class, expectedExceptionsMessageRegExp = ".*'missing'.*")
+    public void throwsExceptionOnARootMatchingNoBean() throws Exception {
+        // given
+        createBeanEntity("root");
+        // when
+        collector.retainReachable(Collections.singletonList("missing"));
+        // then - error
+    }
+
     @BeforeMethod
     public void initCut() {
         collector = new GeneratedCodeCollector();
@@ -0,0 +1,178 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.Scope;
+import mlesiewski.simpledi.core.scopes.SingletonScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates singletons that were not requested yet on low priority daemon threads, so that the first request does not pay for them.
+ * Beans are created in order of registration (the annotation processor registers dependencies first).
+ * The warmer goes through the {@link SingletonScope} so a bean is never created twice, and it pauses before each bean
+ * while any foreground thread is creating a bean.
+ */
+public final class BackgroundWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundWarmer.class);
+    /** marks warmer threads - their creations are not foreground creations */
+    private static final ThreadLocal<Boolean> WARMING = new ThreadLocal<>();
+    /** longest time to wait for the foreground before checking again */
+    private static final long PAUSE_MILLIS = 50;
+
+    private final BeanRegistryImpl registry;
+    private final Object foregroundMonitor = new Object();
+    private int foregroundCreations = 0;
+    /** counts bean creations that are not made by the warmer */
+    final BeanCreationListener foregroundTracker = new BeanCreationListener() {
+
+        @Override
+        public void creating(String scopeName, String beanName) {
+            if (WARMING.get() == null) {
+                synchronized (foregroundMonitor) {
+                    foregroundCreations++;
+                }
+            }
+        }
+
+        @Override
+        public void created(String scopeName, String beanName, long nanos) {
+            foregroundFinished();
+        }
+
+        @Override
+        public void failed(String scopeName, String beanName, Throwable cause) {
+            foregroundFinished();
+        }
+    };
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger alreadyCreated = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger pauses = new AtomicInteger();
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    BackgroundWarmer(BeanRegistryImpl registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Starts warming singletons of the registry.
+     *
+     * @param registry a bootstrapped registry
+     * @param threads  number of threads
+     * @return a started warmer
+     */
+    static BackgroundWarmer start(BeanRegistryImpl registry, int threads) {
+        BackgroundWarmer warmer = new BackgroundWarmer(registry);
+        registry.creationListeners.add(warmer.foregroundTracker);
+        warmer.start(threads);
+        return warmer;
+    }
+
+    /** submits all singletons to a pool of low priority threads */
+    void start(int threads) {
+        Scope scope = registry.scopes.get(SingletonScope.NAME);
+        List<String> names = new ArrayList<>(scope.beanNames());
+        total.set(names.size());
+        remaining.set(names.size());
+        if (names.isEmpty()) {
+            registry.creationListeners.remove(foregroundTracker);
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = StartupProfile.daemonThreads("simple-di-warmer-").newThread(runnable);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        names.forEach(name -> executor.execute(() -> warm(scope, name)));
+        executor.shutdown();
+        LOGGER.debug("warming {} singletons on {} threads", names.size(), threads);
+    }
+
+    private void warm(Scope scope, String name) {
+        WARMING.set(Boolean.TRUE);
+        try {
+            awaitIdleForeground();
+            if (scope.hasInstance(name)) {
+                alreadyCreated.incrementAndGet();
+            } else {
+                registry.bound(() -> scope.getBean(name));
+                warmed.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOGGER.debug("could not warm bean '{}' - {}", name, e.getMessage());
+        } finally {
+            WARMING.remove();
+            if (remaining.decrementAndGet() == 0) {
+                registry.creationListeners.remove(foregroundTracker);
+                LOGGER.debug("warming finished: {}", this);
+            }
+        }
+    }
+
+    private void foregroundFinished() {
+        if (WARMING.get() == null) {
+            synchronized (foregroundMonitor) {
+                if (foregroundCreations > 0 && --foregroundCreations == 0) {
+                    foregroundMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void awaitIdleForeground() throws InterruptedException {
+        synchronized (foregroundMonitor) {
+            if (foregroundCreations > 0) {
+                pauses.incrementAndGet();
+            }
+            while (foregroundCreations > 0) {
+                foregroundMonitor.wait(PAUSE_MILLIS);
+            }
+        }
+    }
+
+    /** @return number of singletons to warm */
+    public int total() {
+        return total.get();
+    }
+
+    /** @return number of singletons created by the warmer */
+    public int warmed() {
+        return warmed.get();
+    }
+
+    /** @return number of singletons that were already created when the warmer got to them */
+    public int alreadyCreated() {
+        return alreadyCreated.get();
+    }
+
+    /** @return number of singletons that the warmer failed to create */
+    public int failed() {
+        return failed.get();
+    }
+
+    /** @return how many times the warmer paused for foreground creations */
+    public int pauses() {
+        return pauses.get();
+    }
+
+    /** @return {@code true} if the warmer got through all the singletons */
+    public boolean isDone() {
+        return remaining.get() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BackgroundWarmer{total=" + total + ", warmed=" + warmed + ", alreadyCreated=" + alreadyCreated + ", failed=" + failed + ", pauses=" + pauses + "}";
+    }
+}
@@ -0,0 +1,70 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.Scope;
+
+import java.util.List;
+
+/** Gets notified by {@link Scope Scopes} of a registry it was added to when they create beans. */
+public interface BeanCreationListener {
+
+    /**
+     * Called before a provider is asked for a bean.
+     *
+     * @param scopeName a name of the scope the bean is created in
+     * @param beanName  a name of the bean
+     */
+    default void creating(String scopeName, String beanName) {
+    }
+
+    /**
+     * Called after a provider created a bean (before its soft dependencies were set).
+     *
+     * @param scopeName a name of the scope the bean was created in
+     * @param beanName  a name of the bean
+     * @param nanos     time it took to create the bean in nanoseconds
+     */
+    void created(String scopeName, String beanName, long nanos);
+
+    /**
+     * Called if a provider failed to create a bean.
+     *
+     * @param scopeName a name of the scope the bean was created in
+     * @param beanName  a name of the bean
+     * @param cause     an exception thrown by the provider
+     */
+    default void failed(String scopeName, String beanName, Throwable cause) {
+    }
+
+    /**
+     * Asks a provider for a bean and notifies the listeners. It just calls the provider if there are no listeners.
+     *
+     * @param listeners listeners of a registry the scope is registered with
+     * @param scopeName a name of the scope the bean is created in
+     * @param beanName  a name of the bean
+     * @param provider  a provider of the bean
+     * @return a bean created by the provider
+     */
+    static <T> T provide(List<BeanCreationListener> listeners, String scopeName, String beanName, BeanProvider<T> provider) {
+        if (listeners.isEmpty()) {
+            return provider.provide();
+        }
+        for (BeanCreationListener listener : listeners) {
+            listener.creating(scopeName, beanName);
+        }
+        long start = System.nanoTime();
+        T bean;
+        try {
+            bean = provider.provide();
+        } catch (RuntimeException | Error e) {
+            for (BeanCreationListener listener : listeners) {
+                listener.failed(scopeName, beanName, e);
+            }
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        for (BeanCreationListener listener : listeners) {
+            listener.created(scopeName, beanName, nanos);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,96 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.annotations.Bean;
+import mlesiewski.simpledi.core.scopes.Scope;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A dependency of a generated {@link BeanProvider}. It is resolved only once per registry into a {@link Scope#link(String) link},
+ * so repeated calls do not look the {@link Bean} up by its name. A provider can be shared by many registries (forks for example)
+ * so a handle keeps a link of every registry it was used with - the one used last is checked first.
+ */
+public final class BeanHandle {
+
+    private final String beanName;
+    private final String scopeName;
+    /** a link of the registry used last */
+    private volatile Link link;
+    /** links of all registries the handle was used with - guarded by itself */
+    private final Map<BeanRegistryImpl, Link> links = new WeakHashMap<>();
+
+    /** @param beanName a name of a bean that any scope can have - like in {@link BeanRegistry#getBean(String)} */
+    public BeanHandle(String beanName) {
+        this(beanName, null);
+    }
+
+    /**
+     * @param beanName  a name of a bean - like in {@link BeanRegistry#getBean(String, String)}
+     * @param scopeName a name of its scope
+     */
+    public BeanHandle(String beanName, String scopeName) {
+        this.beanName = beanName;
+        this.scopeName = scopeName;
+    }
+
+    /**
+     * @return a {@link Bean} instance
+     * @throws SimpleDiException if the bean cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get() {
+        BeanRegistryImpl registry = BeanRegistry.started();
+        Link current = link;
+        if (current == null || current.registry.get() != registry) {
+            current = linkOf(registry);
+            link = current;
+        }
+        return (T) current.supplier.get();
+    }
+
+    /** @return a link of the registry - created without holding a lock since a bean might not be available yet */
+    private Link linkOf(BeanRegistryImpl registry) {
+        synchronized (links) {
+            Link known = links.get(registry);
+            if (known != null) {
+                return known;
+            }
+        }
+        Supplier<Object> supplier = scopeName == null ? registry.link(beanName) : registry.link(beanName, scopeName);
+        Link created = new Link(registry, supplier);
+        synchronized (links) {
+            Link known = links.putIfAbsent(registry, created);
+            return known != null ? known : created;
+        }
+    }
+
+    /** @return a name of the bean */
+    String beanName() {
+        return beanName;
+    }
+
+    /** @return a name of its scope or {@code null} if any scope will do */
+    String scopeName() {
+        return scopeName;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanHandle{" + beanName + (scopeName != null ? ", " + scopeName : "") + "}";
+    }
+
+    /** a link to a bean in a registry - the registry is weakly referenced so that a handle does not keep it alive */
+    private static final class Link {
+
+        private final WeakReference<BeanRegistryImpl> registry;
+        private final Supplier<Object> supplier;
+
+        private Link(BeanRegistryImpl registry, Supplier<Object> supplier) {
+            this.registry = new WeakReference<>(registry);
+            this.supplier = supplier;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package mlesiewski.simpledi.core;
 
+import java.util.Collections;
+import java.util.List;
+
 /** An interface for classes that can provide a bean. */
 public interface BeanProvider<T> {
 
@@ -11,4 +14,19 @@ public interface BeanProvider<T> {
      * @param newInstance
      */
     void setSoftDependencies(T newInstance);
+
+    /**
+     * Releases resources of a bean created by this provider - called once on {@link BeanRegistry#shutdown()}.
+     * Generated providers call a method annotated with {@link mlesiewski.simpledi.core.annotations.Dispose}.
+     *
+     * @param bean an instance created by this provider
+     */
+    default void dispose(T bean) {
+        // nothing to release
+    }
+
+    /** @return beans the beans of this provider depend on - they are disposed after them */
+    default List<BeanHandle> dependencies() {
+        return Collections.emptyList();
+    }
 }
@@ -5,49 +5,207 @@ import mlesiewski.simpledi.core.scopes.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** A class for getting beans from. It actually a static interface to the {@link BeanRegistryImpl}. */
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A class for getting beans from. It actually a static interface to the {@link BeanRegistryImpl}.
+ * Calls are delegated to a registry of a {@link BeanRegistryContext} if one is bound to the current thread.
+ * The registry is bootstrapped on the first use or in the background after {@link #startAsync()}.
+ */
 public final class BeanRegistry {
 
-    static {
-        init();
-    }
+    /** time given by {@link #shutdown()} to a dispose method of a single bean */
+    public static final Duration DEFAULT_DISPOSE_TIMEOUT = Duration.ofSeconds(10);
 
     /** only one instance */
-    static BeanRegistryImpl DELEGATE;
+    static volatile BeanRegistryImpl DELEGATE = new BeanRegistryImpl();
+
+    /** tracks bootstrapping of the {@link #DELEGATE} - {@code null} until it was started */
+    private static final AtomicReference<CompletableFuture<Void>> STARTUP = new AtomicReference<>();
+
+    /** a registry bound to the current thread by {@link BeanRegistryImpl#bound(Supplier)} - it takes precedence over the {@link #DELEGATE} */
+    private static final ThreadLocal<BeanRegistryImpl> BOUND = new ThreadLocal<>();
 
     /** No you can't. */
     private BeanRegistry() {
     }
 
     /**
-     * Creates new {@link BeanRegistryImpl} instance and calls {@link Bootstrapper#bootstrap()}.
-     * Gets called in the static initializer.
+     * Starts bootstrapping on a new daemon thread and returns immediately. Beans become available as they are registered
+     * (eager beans - when they are created) and a {@link #getBean(String)} call for a bean that is not available yet
+     * waits only for that bean. If bootstrapping was already started then its future is returned.
+     * Without this call the first use of the {@link BeanRegistry} bootstraps it on the calling thread.
+     *
+     * @return a future completed when bootstrapping is over (it completes exceptionally if bootstrapping failed)
+     */
+    public static CompletableFuture<Void> startAsync() {
+        CompletableFuture<Void> startup = new CompletableFuture<>();
+        BeanRegistryImpl registry = DELEGATE;
+        Thread thread = new Thread(() -> bootstrap(registry, BootstrapOptions.fromSystemProperties(), startup), "simple-di-bootstrap");
+        thread.setDaemon(true);
+        if (!publish(registry, startup, thread)) {
+            return STARTUP.get();
+        }
+        thread.start();
+        return startup;
+    }
+
+    /**
+     * Replaces the {@link #DELEGATE} with a new one created by {@link #newBootstrappedRegistry(BootstrapOptions)}
+     * with {@link BootstrapOptions#fromSystemProperties() options from system properties}.
      */
     static void init() {
-        Logger logger = LoggerFactory.getLogger(BeanRegistry.class);
-        logger.trace("starting BeanRegistry initialization");
+        DELEGATE = newBootstrappedRegistry(BootstrapOptions.fromSystemProperties());
+        STARTUP.set(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Creates new {@link BeanRegistryImpl} instance and bootstraps it on the current thread.
+     *
+     * @param options bootstrap options
+     * @return a new registry that does not share anything with the {@link #DELEGATE}
+     */
+    static BeanRegistryImpl newBootstrappedRegistry(BootstrapOptions options) {
+        BeanRegistryImpl registry;
         try {
-            DELEGATE = new BeanRegistryImpl();
+            registry = new BeanRegistryImpl();
         } catch (Exception e) {
             String message = "BeanRegistry initialization failed during BeanRegistryImpl instantiation";
-            logger.error(message, e);
+            LoggerFactory.getLogger(BeanRegistry.class).error(message, e);
             throw new SimpleDiException(message, e);
         }
+        CompletableFuture<Void> startup = new CompletableFuture<>();
+        bootstrap(registry, options, startup);
+        rethrowFailure(startup);
+        return registry;
+    }
+
+    /**
+     * Calls {@link Bootstrapper#bootstrap(BeanRegistryImpl, BootstrapOptions)} and starts eager scopes.
+     * A {@link StartupProfile} is recorded or replayed and a {@link BackgroundWarmer} is started if the options say so.
+     *
+     * @param registry a new registry
+     * @param options  bootstrap options
+     * @param startup  completed when bootstrapping is over - exceptionally with a {@link SimpleDiException} if it failed
+     */
+    private static void bootstrap(BeanRegistryImpl registry, BootstrapOptions options, CompletableFuture<Void> startup) {
+        Logger logger = LoggerFactory.getLogger(BeanRegistry.class);
+        logger.trace("starting BeanRegistry initialization");
         try {
-            Bootstrapper.bootstrap();
-        } catch (Exception e) {
-            String message = "BeanRegistry initialization failed during bootstrapping";
-            logger.error(message, e);
-            throw new SimpleDiException(message, e);
+            try {
+                Bootstrapper.bootstrap(registry, options);
+            } catch (Exception e) {
+                String message = "BeanRegistry initialization failed during bootstrapping";
+                logger.error(message, e);
+                throw new SimpleDiException(message, e);
+            }
+            StartupProfile.Recorder recorder = options.recordProfile() != null ? StartupProfile.Recorder.start(registry, options.recordProfile()) : null;
+            try {
+                registry.bound(registry::startEagerScopes);
+            } catch (Exception e) {
+                String message = "BeanRegistry initialization failed during starting eager scopes";
+                logger.error(message, e);
+                throw new SimpleDiException(message, e);
+            }
+            registry.registrationsCompleted();
+            if (options.replayProfile() != null) {
+                StartupProfile.replay(registry, options.replayProfile(), options.replayThreads());
+            }
+            if (recorder != null) {
+                recorder.stopAfter(options.recordSeconds());
+            }
+            if (options.warmerThreads() > 0) {
+                registry.warmer = BackgroundWarmer.start(registry, options.warmerThreads());
+            }
+            logger.debug("BeanRegistry initialized");
+            startup.complete(null);
+        } catch (SimpleDiException e) {
+            startup.completeExceptionally(e);
+        } catch (RuntimeException | Error e) {
+            startup.completeExceptionally(new SimpleDiException("BeanRegistry initialization failed", e));
+        } finally {
+            registry.registrationsCompleted();
         }
-        try {
-            DELEGATE.startEagerScopes();
-        } catch (Exception e) {
-            String message = "BeanRegistry initialization failed during starting eager scopes";
-            logger.error(message, e);
-            throw new SimpleDiException(message, e);
+    }
+
+    /**
+     * Bootstraps the {@link #DELEGATE} on the current thread if nobody started it yet.
+     *
+     * @return a registry bound to the current thread or the {@link #DELEGATE}
+     * @throws SimpleDiException if bootstrapping failed
+     */
+    static BeanRegistryImpl started() {
+        BeanRegistryImpl bound = BOUND.get();
+        if (bound != null) {
+            return bound;
+        }
+        CompletableFuture<Void> startup = STARTUP.get();
+        if (startup == null) {
+            CompletableFuture<Void> newStartup = new CompletableFuture<>();
+            BeanRegistryImpl registry = DELEGATE;
+            if (publish(registry, newStartup, Thread.currentThread())) {
+                bootstrap(registry, BootstrapOptions.fromSystemProperties(), newStartup);
+            }
+            startup = STARTUP.get();
+        }
+        rethrowFailure(startup);
+        return DELEGATE;
+    }
+
+    /**
+     * Makes the registry track the startup before it is published so that a thread that sees the startup also sees the registry
+     * waiting for beans of it.
+     *
+     * @return {@code false} if another startup was published first
+     */
+    private static boolean publish(BeanRegistryImpl registry, CompletableFuture<Void> startup, Thread bootstrapThread) {
+        synchronized (STARTUP) {
+            if (STARTUP.get() != null) {
+                return false;
+            }
+            registry.startup = startup;
+            registry.bootstrapThread = bootstrapThread;
+            STARTUP.set(startup);
+            return true;
         }
-        logger.debug("BeanRegistry initialized");
+    }
+
+    /** @throws SimpleDiException if the startup failed */
+    private static void rethrowFailure(CompletableFuture<Void> startup) {
+        if (startup.isCompletedExceptionally()) {
+            try {
+                startup.join();
+            } catch (CompletionException e) {
+                throw (SimpleDiException) e.getCause();
+            }
+        }
+    }
+
+    /** @return a registry bound to the current thread or the {@link #DELEGATE} */
+    static BeanRegistryImpl delegate() {
+        BeanRegistryImpl bound = BOUND.get();
+        return bound != null ? bound : DELEGATE;
+    }
+
+    /**
+     * Binds a registry to the current thread.
+     *
+     * @param registry a registry to bind or {@code null} to unbind
+     * @return a registry that was bound before or {@code null}
+     */
+    static BeanRegistryImpl bind(BeanRegistryImpl registry) {
+        BeanRegistryImpl previous = BOUND.get();
+        if (registry == null) {
+            BOUND.remove();
+        } else {
+            BOUND.set(registry);
+        }
+        return previous;
     }
 
     /**
@@ -56,7 +214,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if no {@link Scope} has a {@link BeanProvider} registered under the beanName provided
      */
     public static <T> T getBean(String beanName) {
-        return DELEGATE.getBean(beanName);
+        return started().getBean(beanName);
     }
 
     /**
@@ -66,7 +224,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if no {@link Scope} has a {@link BeanProvider} registered under the beanName provided
      */
     public static <T> T getBean(String beanName, String scopeName) {
-        return DELEGATE.getBean(beanName, scopeName);
+        return started().getBean(beanName, scopeName);
     }
 
     /**
@@ -75,7 +233,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if no {@link Scope} has a {@link BeanProvider} registered under the beanName provided
      */
     public static <T> T getBean(Class<T> beanName) {
-        return DELEGATE.getBean(beanName);
+        return started().getBean(beanName);
     }
 
     /**
@@ -85,7 +243,38 @@ public final class BeanRegistry {
      * @throws SimpleDiException if no {@link Scope} has a {@link BeanProvider} registered under the beanName provided
      */
     public static <T> T getBean(Class<T> beanName, String scopeName) {
-        return DELEGATE.getBean(beanName, scopeName);
+        return started().getBean(beanName, scopeName);
+    }
+
+    /**
+     * @param beanName a name of a bean produced by a {@link mlesiewski.simpledi.core.annotations.Produce} method with parameters
+     * @param key      arguments of the producer method
+     * @return a bean produced for the key - a kept one if there is any
+     * @throws SimpleDiException if no such producer is registered or it fails
+     * @see KeyedBeans
+     */
+    public static <T> T produce(String beanName, Object... key) {
+        return BeanRegistry.<T>keyedBeans(beanName).get(key);
+    }
+
+    /**
+     * @param beanName a type of a bean produced by a {@link mlesiewski.simpledi.core.annotations.Produce} method with parameters
+     * @param key      arguments of the producer method
+     * @return a bean produced for the key - a kept one if there is any
+     * @throws SimpleDiException if no such producer is registered or it fails
+     * @see KeyedBeans
+     */
+    public static <T> T produce(Class<T> beanName, Object... key) {
+        return BeanRegistry.<T>keyedBeans(beanName.getName()).get(key);
+    }
+
+    /**
+     * @param beanName a name of a bean produced by a {@link mlesiewski.simpledi.core.annotations.Produce} method with parameters
+     * @return a factory of the beans
+     * @throws SimpleDiException if no such producer is registered
+     */
+    public static <T> KeyedBeans<T> keyedBeans(String beanName) {
+        return started().getBean(KeyedBeans.factoryName(beanName));
     }
 
     /**
@@ -97,7 +286,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if a {@link BeanProvider} under that name was already registered
      */
     public static <T> void register(BeanProvider<T> beanProvider, String beanProviderName, String scopeName) {
-        DELEGATE.register(beanProvider, beanProviderName, scopeName);
+        started().register(beanProvider, beanProviderName, scopeName);
     }
 
     /**
@@ -109,7 +298,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if a {@link BeanProvider} under that name was already registered
      */
     public static <T> void register(BeanProvider<T> beanProvider, Class<T> beanProviderName, String scopeName) {
-        DELEGATE.register(beanProvider, beanProviderName, scopeName);
+        started().register(beanProvider, beanProviderName, scopeName);
     }
 
     /**
@@ -120,7 +309,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if a {@link BeanProvider} under that name was already registered
      */
     public static <T> void register(BeanProvider<T> beanProvider, String beanProviderName) {
-        DELEGATE.register(beanProvider, beanProviderName);
+        started().register(beanProvider, beanProviderName);
     }
 
     /**
@@ -131,7 +320,7 @@ public final class BeanRegistry {
      * @throws SimpleDiException if a {@link BeanProvider} under that name was already registered
      */
     public static <T> void register(BeanProvider<T> beanProvider, Class<T> beanProviderName) {
-        DELEGATE.register(beanProvider, beanProviderName);
+        started().register(beanProvider, beanProviderName);
     }
 
     /**
@@ -141,13 +330,54 @@ public final class BeanRegistry {
      * @throws SimpleDiException if scope is null or is already registered
      */
     public static void register(Scope scope) {
-        DELEGATE.register(scope);
+        started().register(scope);
+    }
+
+    /** @return a {@link BackgroundWarmer} started during bootstrap if it was enabled */
+    public static Optional<BackgroundWarmer> warmer() {
+        return Optional.ofNullable(started().warmer);
+    }
+
+    /**
+     * Registers a {@link BeanRegistryMonitor} of the default registry as {@value BeanRegistryMonitor#OBJECT_NAME} - only once per registry.
+     *
+     * @return the monitor
+     * @throws SimpleDiException if the MBean could not be registered
+     */
+    public static synchronized BeanRegistryMonitor registerMBean() {
+        BeanRegistryImpl registry = started();
+        if (registry.monitor == null) {
+            registry.monitor = BeanRegistryMonitor.register(registry, BeanRegistryMonitor.OBJECT_NAME);
+        }
+        return registry.monitor;
+    }
+
+    /**
+     * Just calls {@link #shutdown(Duration)} with {@link #DEFAULT_DISPOSE_TIMEOUT}.
+     *
+     * @return a report of disposing
+     */
+    public static ShutdownReport shutdown() {
+        return shutdown(DEFAULT_DISPOSE_TIMEOUT);
+    }
+
+    /**
+     * Calls {@link mlesiewski.simpledi.core.annotations.Dispose} methods of created {@link Bean} instances - a bean is disposed only after
+     * all beans that depend on it were. Beans that do not depend on each other are disposed in parallel. A bean whose dispose method
+     * fails or does not return in time does not stop the others. {@link Scope Scopes} are not ended but they drop disposed
+     * instances - beans created afterwards are disposed by the next call.
+     *
+     * @param timeout time given to a dispose method of a single bean - it is interrupted afterwards
+     * @return a report of disposing
+     */
+    public static ShutdownReport shutdown(Duration timeout) {
+        return delegate().shutdown(timeout);
     }
 
     /**
      * @return name of the default scope
      */
     public static String defaultScope() {
-        return DELEGATE.DEFAULT_SCOPE;
+        return delegate().DEFAULT_SCOPE;
     }
 }
\ No newline at end of file
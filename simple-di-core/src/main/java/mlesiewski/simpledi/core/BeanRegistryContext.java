@@ -0,0 +1,169 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.annotations.Bean;
+import mlesiewski.simpledi.core.scopes.Scope;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * An isolated registry of {@link Bean Beans} with its own {@link Scope Scopes}. Useful for tests and multi-tenant servers.
+ * <p>
+ * A context is either created from scratch (it is bootstrapped just like the global {@link BeanRegistry}), as a child
+ * (it resolves beans it does not have with its parent chain) or as a fork (it shares providers but no bean instances).
+ * Static {@link BeanRegistry} calls made within {@link #run(Runnable)} and {@link #call(Supplier)} are resolved by this context.
+ */
+public final class BeanRegistryContext {
+
+    private final BeanRegistryImpl registry;
+
+    private BeanRegistryContext(BeanRegistryImpl registry) {
+        this.registry = registry;
+    }
+
+    /** @return a new, bootstrapped context that does not share anything with the global {@link BeanRegistry} */
+    public static BeanRegistryContext create() {
+        return create(BootstrapOptions.defaults());
+    }
+
+    /**
+     * @param options bootstrap options
+     * @return a new context bootstrapped with the options that does not share anything with the global {@link BeanRegistry}
+     */
+    public static BeanRegistryContext create(BootstrapOptions options) {
+        return new BeanRegistryContext(BeanRegistry.newBootstrappedRegistry(options));
+    }
+
+    /** @return a context that wraps the registry currently used by the static {@link BeanRegistry} calls on this thread */
+    public static BeanRegistryContext current() {
+        return new BeanRegistryContext(BeanRegistry.delegate());
+    }
+
+    /**
+     * A child starts empty - it is not bootstrapped. Beans it does not have are taken from this context and its ancestors.
+     * Registrations in a child are never visible to its parent.
+     *
+     * @return a new child context
+     */
+    public BeanRegistryContext child() {
+        return new BeanRegistryContext(registry.child());
+    }
+
+    /**
+     * A fork shares providers with this context (without copying them) but none of the {@link Bean} instances.
+     * Providers registered afterwards with either of them are not visible to the other.
+     *
+     * @return a new forked context
+     * @throws SimpleDiException if one of the {@link Scope Scopes} cannot be forked
+     */
+    public BeanRegistryContext fork() {
+        return new BeanRegistryContext(registry.fork());
+    }
+
+    /**
+     * Runs the action with this context bound to the current thread.
+     *
+     * @param action an action that uses static {@link BeanRegistry} methods
+     */
+    public void run(Runnable action) {
+        registry.bound(action);
+    }
+
+    /**
+     * Calls the action with this context bound to the current thread.
+     *
+     * @param action an action that uses static {@link BeanRegistry} methods
+     * @return a result of the action
+     */
+    public <T> T call(Supplier<T> action) {
+        return registry.bound(action);
+    }
+
+    /** @see BeanRegistry#getBean(String) */
+    public <T> T getBean(String beanName) {
+        return registry.bound(() -> registry.getBean(beanName));
+    }
+
+    /** @see BeanRegistry#getBean(String, String) */
+    public <T> T getBean(String beanName, String scopeName) {
+        return registry.bound(() -> registry.getBean(beanName, scopeName));
+    }
+
+    /** @see BeanRegistry#getBean(Class) */
+    public <T> T getBean(Class<T> beanName) {
+        return registry.bound(() -> registry.getBean(beanName));
+    }
+
+    /** @see BeanRegistry#getBean(Class, String) */
+    public <T> T getBean(Class<T> beanName, String scopeName) {
+        return registry.bound(() -> registry.getBean(beanName, scopeName));
+    }
+
+    /** @see BeanRegistry#produce(String, Object...) */
+    public <T> T produce(String beanName, Object... key) {
+        return this.<T>keyedBeans(beanName).get(key);
+    }
+
+    /** @see BeanRegistry#produce(Class, Object...) */
+    public <T> T produce(Class<T> beanName, Object... key) {
+        return this.<T>keyedBeans(beanName.getName()).get(key);
+    }
+
+    /** @see BeanRegistry#keyedBeans(String) */
+    public <T> KeyedBeans<T> keyedBeans(String beanName) {
+        return getBean(KeyedBeans.factoryName(beanName));
+    }
+
+    /** @see BeanRegistry#register(BeanProvider, String, String) */
+    public <T> void register(BeanProvider<T> beanProvider, String beanProviderName, String scopeName) {
+        registry.bound(() -> registry.register(beanProvider, beanProviderName, scopeName));
+    }
+
+    /** @see BeanRegistry#register(BeanProvider, Class, String) */
+    public <T> void register(BeanProvider<T> beanProvider, Class<T> beanProviderName, String scopeName) {
+        registry.bound(() -> registry.register(beanProvider, beanProviderName, scopeName));
+    }
+
+    /** @see BeanRegistry#register(BeanProvider, String) */
+    public <T> void register(BeanProvider<T> beanProvider, String beanProviderName) {
+        registry.bound(() -> registry.register(beanProvider, beanProviderName));
+    }
+
+    /** @see BeanRegistry#register(BeanProvider, Class) */
+    public <T> void register(BeanProvider<T> beanProvider, Class<T> beanProviderName) {
+        registry.bound(() -> registry.register(beanProvider, beanProviderName));
+    }
+
+    /** @see BeanRegistry#warmer() */
+    public Optional<BackgroundWarmer> warmer() {
+        return Optional.ofNullable(registry.warmer);
+    }
+
+    /**
+     * Registers a {@link BeanRegistryMonitor} of this context's registry as {@value BeanRegistryMonitor#OBJECT_NAME} with a {@code name} key
+     * - only once per registry.
+     *
+     * @param name a value of the {@code name} key of the MBean's object name
+     * @return the monitor
+     * @see BeanRegistry#registerMBean()
+     */
+    public BeanRegistryMonitor registerMBean(String name) {
+        synchronized (registry) {
+            if (registry.monitor == null) {
+                registry.monitor = BeanRegistryMonitor.register(registry, BeanRegistryMonitor.OBJECT_NAME + ",name=" + name);
+            }
+            return registry.monitor;
+        }
+    }
+
+    /** @see BeanRegistry#register(Scope) */
+    public void register(Scope scope) {
+        registry.register(scope);
+    }
+
+    /** @see BeanRegistry#shutdown(Duration) */
+    public ShutdownReport shutdown(Duration timeout) {
+        return registry.shutdown(timeout);
+    }
+}
@@ -7,23 +7,59 @@ import mlesiewski.simpledi.core.scopes.SingletonScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 /** A delegate for {@link BeanRegistry}. Default scope is {@link SingletonScope}. */
 class BeanRegistryImpl {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BeanRegistryImpl.class);
+    private static final BeanRegistryImpl[] NO_ANCESTORS = new BeanRegistryImpl[0];
+    /** dispose methods mostly wait for I/O or other threads so they are not limited to the number of processors */
+    private static final int MIN_DISPOSING_THREADS = 4;
 
-    final HashMap<String, Scope> scopes = new HashMap<>();
+    /** copied on write - scopes are registered rarely but read all the time, also by threads that do not bootstrap */
+    volatile HashMap<String, Scope> scopes = new HashMap<>();
     final String DEFAULT_SCOPE;
+    /** parent, grandparent and so on - flattened so that a lookup does not have to walk the hierarchy */
+    private final BeanRegistryImpl[] ancestors;
+    /** set by the {@link Bootstrapper} */
+    boolean bootstrapped = false;
+    /** set by the {@link #startEagerScopes()} */
+    private boolean eagerScopesStarted = false;
+    /** given to every registered {@link Scope} - notified when it creates a bean */
+    final List<BeanCreationListener> creationListeners = new CopyOnWriteArrayList<>();
+    /** started after bootstrap if enabled */
+    volatile BackgroundWarmer warmer;
+    /** registered on demand */
+    volatile BeanRegistryMonitor monitor;
+    /** set if the registry is bootstrapped while other threads can already use it */
+    volatile CompletableFuture<Void> startup;
+    /** a thread that bootstraps this registry - it never waits for beans */
+    volatile Thread bootstrapThread;
+    /** {@code false} while a tracked {@link #startup} can still register beans */
+    private volatile boolean registrationsCompleted = false;
+    /** notified when a tracked {@link #startup} registers a bean, creates an eager one or completes */
+    private final Object startupMonitor = new Object();
+
+    /** Constructs a new instance initialized with "appScope", "singletonScope" and "newInstanceScope". */
+    BeanRegistryImpl() {
+        this(NO_ANCESTORS);
+    }
 
     /**
-     * Constructs a new instance initialized with "appScope" and "toggleScope".
-     * Might call {@link Bootstrapper#bootstrap()}.
+     * Constructs a new instance initialized with "appScope", "singletonScope" and "newInstanceScope".
+     *
+     * @param ancestors registries that will be asked for beans that this one does not have - in that order
      */
-    BeanRegistryImpl() {
+    private BeanRegistryImpl(BeanRegistryImpl[] ancestors) {
         LOGGER.debug("instantiating BeanRegistryImpl");
+        this.ancestors = ancestors;
         // application scope
         Scope applicationScope = new ApplicationScope();
         register(applicationScope);
@@ -37,6 +73,66 @@ class BeanRegistryImpl {
         DEFAULT_SCOPE = singletonScope.getName();
     }
 
+    /**
+     * Constructs a fork - every scope of the source is forked so the providers are shared until either side registers a new one.
+     *
+     * @param source a registry to fork
+     */
+    private BeanRegistryImpl(BeanRegistryImpl source) {
+        LOGGER.debug("forking BeanRegistryImpl");
+        this.ancestors = source.ancestors;
+        source.scopes.values().forEach(scope -> register(scope.fork()));
+        DEFAULT_SCOPE = source.DEFAULT_SCOPE;
+        bootstrapped = source.bootstrapped;
+    }
+
+    /** @return a new registry that will resolve beans it does not have with this registry and its ancestors */
+    BeanRegistryImpl child() {
+        BeanRegistryImpl[] chain = new BeanRegistryImpl[ancestors.length + 1];
+        chain[0] = this;
+        System.arraycopy(ancestors, 0, chain, 1, ancestors.length);
+        return new BeanRegistryImpl(chain);
+    }
+
+    /**
+     * A fork has the same scopes, providers and ancestors but no bean instances.
+     * It does not need to be bootstrapped - eager scopes are started if they were started in this registry.
+     *
+     * @return a new registry that shares providers with this one
+     */
+    BeanRegistryImpl fork() {
+        BeanRegistryImpl fork = new BeanRegistryImpl(this);
+        if (eagerScopesStarted) {
+            fork.bound(fork::startEagerScopes);
+        }
+        return fork;
+    }
+
+    /**
+     * Calls the action with this registry bound to the current thread so that static {@link BeanRegistry} calls
+     * (made by providers for example) are resolved by this registry.
+     *
+     * @return a result of the action
+     */
+    <T> T bound(Supplier<T> action) {
+        BeanRegistryImpl previous = BeanRegistry.bind(this);
+        try {
+            return action.get();
+        } finally {
+            BeanRegistry.bind(previous);
+        }
+    }
+
+    /** Runs the action with this registry bound to the current thread - see {@link #bound(Supplier)}. */
+    void bound(Runnable action) {
+        BeanRegistryImpl previous = BeanRegistry.bind(this);
+        try {
+            action.run();
+        } finally {
+            BeanRegistry.bind(previous);
+        }
+    }
+
     /**
      * Registers new scope.
      *
@@ -47,10 +143,81 @@ class BeanRegistryImpl {
         if (scope == null) {
             throw new SimpleDiException("Cannot register null scope");
         }
-        if (scopes.containsKey(scope.getName())) {
-            throw new SimpleDiException("Scope " + scope.getName() + " is already registered");
+        synchronized (startupMonitor) {
+            if (scopes.containsKey(scope.getName())) {
+                throw new SimpleDiException("Scope " + scope.getName() + " is already registered");
+            }
+            HashMap<String, Scope> copy = new HashMap<>(scopes);
+            copy.put(scope.getName(), scope);
+            scopes = copy;
+            scope.setCreationListeners(creationListeners);
+            startupMonitor.notifyAll();
+        }
+    }
+
+    /** Ends a tracked {@link #startup} phase in which other threads might need to wait for beans. */
+    void registrationsCompleted() {
+        synchronized (startupMonitor) {
+            registrationsCompleted = true;
+            startupMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for a bean if this registry is still being bootstrapped by another thread and the bean is not available yet.
+     *
+     * @param beanName  a name of a bean
+     * @param scopeName a name of its scope or {@code null} if any scope will do
+     */
+    private void awaitBean(String beanName, String scopeName) {
+        if (startup == null || registrationsCompleted || Thread.currentThread() == bootstrapThread) {
+            return;
+        }
+        LOGGER.trace("awaitBean({}, {})", beanName, scopeName);
+        synchronized (startupMonitor) {
+            try {
+                while (!registrationsCompleted && !isAvailable(beanName, scopeName)) {
+                    startupMonitor.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SimpleDiException("Interrupted while waiting for bean '" + beanName + "'", e);
+            }
+        }
+    }
+
+    /** @return {@code true} if this registry or one of its ancestors has the bean */
+    private boolean isAvailable(String beanName, String scopeName) {
+        if (scopeName == null) {
+            if (findScopeWith(beanName).isPresent()) {
+                return true;
+            }
+            for (BeanRegistryImpl ancestor : ancestors) {
+                if (ancestor.findScopeWith(beanName).isPresent()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Scope scope = scopes.get(scopeName);
+        if (scope != null && scope.hasBean(beanName)) {
+            return true;
+        }
+        for (BeanRegistryImpl ancestor : ancestors) {
+            if (ancestor.getScope(scopeName, true).hasBean(beanName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** wakes up threads waiting for beans - they check if theirs are available */
+    private void beansChanged() {
+        if (startup != null && !registrationsCompleted) {
+            synchronized (startupMonitor) {
+                startupMonitor.notifyAll();
+            }
         }
-        scopes.put(scope.getName(), scope);
     }
 
     /**
@@ -77,18 +244,84 @@ class BeanRegistryImpl {
      * @return a bean instance
      */
     <T> T getBean(String name) {
-        Optional<Scope> optional = scopes.values().stream().filter(scope -> scope.hasBean(name)).findFirst();
+        awaitBean(name, null);
+        Optional<Scope> optional = findScopeWith(name);
         if (optional.isPresent()) {
             return optional.get().getBean(name);
-        } else {
-            throw new SimpleDiException("Cannot find a scope that provides a bean '" + name + "'");
         }
+        for (BeanRegistryImpl ancestor : ancestors) {
+            Optional<Scope> inAncestor = ancestor.findScopeWith(name);
+            if (inAncestor.isPresent()) {
+                return ancestor.bound(() -> inAncestor.get().getBean(name));
+            }
+        }
+        throw new SimpleDiException("Cannot find a scope that provides a bean '" + name + "'");
+    }
+
+    /**
+     * Links a bean the same way as {@link #getBean(String)} finds it - see {@link Scope#link(String)}.
+     *
+     * @return a supplier of the bean
+     */
+    <T> Supplier<T> link(String name) {
+        awaitBean(name, null);
+        Optional<Scope> optional = findScopeWith(name);
+        if (optional.isPresent()) {
+            return optional.get().link(name);
+        }
+        for (BeanRegistryImpl ancestor : ancestors) {
+            Optional<Scope> inAncestor = ancestor.findScopeWith(name);
+            if (inAncestor.isPresent()) {
+                return ancestor.linkBound(inAncestor.get(), name);
+            }
+        }
+        throw new SimpleDiException("Cannot find a scope that provides a bean '" + name + "'");
     }
 
-    /** @return a bean instance from the desired scope or default scope as a fallback. */
+    /**
+     * Links a bean the same way as {@link #getBean(String, String)} finds it - see {@link Scope#link(String)}.
+     *
+     * @return a supplier of the bean
+     */
+    <T> Supplier<T> link(String beanName, String scopeName) {
+        LOGGER.trace("link({}, {})", beanName, scopeName);
+        awaitBean(beanName, scopeName);
+        Scope scope = getScope(scopeName, true);
+        if (ancestors.length != 0 && !scope.hasBean(beanName)) {
+            for (BeanRegistryImpl ancestor : ancestors) {
+                Scope inAncestor = ancestor.getScope(scopeName, true);
+                if (inAncestor.hasBean(beanName)) {
+                    return ancestor.linkBound(inAncestor, beanName);
+                }
+            }
+        }
+        return scope.link(beanName);
+    }
+
+    /** @return a link that binds this registry whenever it is used */
+    private <T> Supplier<T> linkBound(Scope scope, String name) {
+        Supplier<T> link = bound(() -> scope.link(name));
+        return () -> bound(link);
+    }
+
+    /** @return a first scope that has a bean with the name provided */
+    Optional<Scope> findScopeWith(String name) {
+        return scopes.values().stream().filter(scope -> scope.hasBean(name)).findFirst();
+    }
+
+    /** @return a bean instance from the desired scope or default scope as a fallback. Ancestors are asked if the scope does not have that bean. */
     <T> T getBean(String beanName, String scopeName) {
         LOGGER.trace("getBean({}, {})", beanName, scopeName);
+        awaitBean(beanName, scopeName);
         Scope scope = getScope(scopeName, true);
+        if (ancestors.length != 0 && !scope.hasBean(beanName)) {
+            for (BeanRegistryImpl ancestor : ancestors) {
+                Scope inAncestor = ancestor.getScope(scopeName, true);
+                if (inAncestor.hasBean(beanName)) {
+                    return ancestor.bound(() -> inAncestor.getBean(beanName));
+                }
+            }
+        }
         return scope.getBean(beanName);
     }
 
@@ -110,10 +343,11 @@ class BeanRegistryImpl {
         }
         Scope scope = getScope(scopeName, false);
         scope.register(beanProvider, beanProviderName);
+        beansChanged();
     }
 
     /** @return a scope with the given name or a default scope as a fallback. */
-    private Scope getScope(String scopeName, boolean orDefault) {
+    Scope getScope(String scopeName, boolean orDefault) {
         LOGGER.trace("getScope({}, {})", scopeName, orDefault);
         boolean validScopeName = scopes.containsKey(scopeName);
         if (!validScopeName) {
@@ -159,9 +393,43 @@ class BeanRegistryImpl {
         register(beanProvider, beanProviderName.getName());
     }
 
-    /** starts eager scopes so that they can be instantiated with their hard dependencies */
+    /**
+     * Disposes bean instances of this registry's scopes in a reverse dependency order - see {@link Teardown}.
+     * Scopes are not ended but they drop disposed instances - it can be called again after new beans were created.
+     *
+     * @param timeout time given to a dispose method of a single bean
+     * @return a report of disposing
+     */
+    synchronized ShutdownReport shutdown(Duration timeout) {
+        LOGGER.debug("shutdown({})", timeout);
+        ShutdownReport report = new Teardown(this, timeout).run(Math.max(MIN_DISPOSING_THREADS, Runtime.getRuntime().availableProcessors()));
+        LOGGER.debug("{}", report);
+        return report;
+    }
+
+    /**
+     * Starts eager scopes so that they can be instantiated with their hard dependencies.
+     * An eager bean is available once the next one is being created, so waiting threads are woken up then and when the scope is started.
+     */
     void startEagerScopes() {
-        // only one such scope
-        scopes.get(ApplicationScope.NAME).start();
+        BeanCreationListener availability = new BeanCreationListener() {
+            @Override
+            public void creating(String scopeName, String beanName) {
+                beansChanged();
+            }
+
+            @Override
+            public void created(String scopeName, String beanName, long nanos) {
+            }
+        };
+        creationListeners.add(availability);
+        try {
+            // only one such scope
+            scopes.get(ApplicationScope.NAME).start();
+        } finally {
+            creationListeners.remove(availability);
+            beansChanged();
+        }
+        eagerScopesStarted = true;
     }
 }
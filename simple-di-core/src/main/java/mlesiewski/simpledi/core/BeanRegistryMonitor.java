@@ -0,0 +1,247 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exposes a state of a registry over JMX - registered on demand with {@link BeanRegistry#registerMBean()}
+ * or {@link BeanRegistryContext#registerMBean(String)}. Creation statistics are collected from the moment it was registered.
+ */
+public final class BeanRegistryMonitor implements BeanRegistryMonitorMXBean {
+
+    /** an object name of the monitor of the default registry */
+    public static final String OBJECT_NAME = "mlesiewski.simpledi:type=BeanRegistry";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BeanRegistryMonitor.class);
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    /** a limit of objects visited when a retained size of a single bean is estimated */
+    private static final int MAX_ESTIMATED_OBJECTS = 100_000;
+    /** monitors by their names - a monitor registered under a name in use replaces the previous one */
+    private static final ConcurrentHashMap<ObjectName, BeanRegistryMonitor> REGISTERED = new ConcurrentHashMap<>();
+
+    private final BeanRegistryImpl registry;
+    private final ObjectName objectName;
+    private final ConcurrentHashMap<String, CreationStats> stats = new ConcurrentHashMap<>();
+    private final BeanCreationListener listener = new BeanCreationListener() {
+        @Override
+        public void created(String scopeName, String beanName, long nanos) {
+            statsOf(scopeName, beanName).created(nanos);
+        }
+
+        @Override
+        public void failed(String scopeName, String beanName, Throwable cause) {
+            statsOf(scopeName, beanName).failed.increment();
+        }
+    };
+    private volatile boolean retainedSizeEstimated = false;
+
+    BeanRegistryMonitor(BeanRegistryImpl registry, ObjectName objectName) {
+        this.registry = registry;
+        this.objectName = objectName;
+    }
+
+    /**
+     * Registers a monitor of the registry with the platform MBean server. A monitor registered under the same name before is unregistered.
+     *
+     * @param registry   a registry to monitor
+     * @param objectName a name of the MBean
+     * @return a registered monitor
+     * @throws SimpleDiException if the MBean could not be registered
+     */
+    static synchronized BeanRegistryMonitor register(BeanRegistryImpl registry, String objectName) {
+        BeanRegistryMonitor monitor;
+        try {
+            monitor = new BeanRegistryMonitor(registry, new ObjectName(objectName));
+        } catch (MalformedObjectNameException e) {
+            throw new SimpleDiException("Malformed MBean name '" + objectName + "'", e);
+        }
+        BeanRegistryMonitor previous = REGISTERED.get(monitor.objectName);
+        if (previous != null) {
+            previous.unregister();
+        }
+        registry.creationListeners.add(monitor.listener);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, monitor.objectName);
+        } catch (JMException e) {
+            registry.creationListeners.remove(monitor.listener);
+            throw new SimpleDiException("Could not register MBean '" + objectName + "'", e);
+        }
+        REGISTERED.put(monitor.objectName, monitor);
+        LOGGER.debug("registered MBean '{}'", objectName);
+        return monitor;
+    }
+
+    /** Unregisters the MBean and stops collecting statistics. */
+    public void unregister() {
+        registry.creationListeners.remove(listener);
+        REGISTERED.remove(objectName, this);
+        if (registry.monitor == this) {
+            registry.monitor = null;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new SimpleDiException("Could not unregister MBean '" + objectName + "'", e);
+        }
+        LOGGER.debug("unregistered MBean '{}'", objectName);
+    }
+
+    /** @return a name under which the MBean was registered */
+    public ObjectName objectName() {
+        return objectName;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBootstrapped() {
+        return registry.bootstrapped;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ScopeInfo> getScopes() {
+        List<ScopeInfo> scopes = new ArrayList<>();
+        for (Scope scope : registry.scopes.values()) {
+            Collection<String> beanNames = scope.beanNames();
+            int instanceCount = (int) beanNames.stream().filter(scope::hasInstance).count();
+            scopes.add(new ScopeInfo(scope.getName(), scope.isStarted(), beanNames.size(), instanceCount));
+        }
+        return scopes;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<BeanInfo> getBeans() {
+        Collection<Scope> scopes = registry.scopes.values();
+        Set<Object> instances = retainedSizeEstimated ? instances(scopes) : Collections.emptySet();
+        List<BeanInfo> beans = new ArrayList<>();
+        for (Scope scope : scopes) {
+            for (String beanName : scope.beanNames()) {
+                CreationStats beanStats = stats.get(key(scope.getName(), beanName));
+                long created = beanStats != null ? beanStats.created.sum() : 0;
+                long failed = beanStats != null ? beanStats.failed.sum() : 0;
+                double average = created != 0 ? beanStats.nanos.sum() / NANOS_PER_MILLI / created : 0;
+                double max = beanStats != null ? beanStats.maxNanos.get() / NANOS_PER_MILLI : 0;
+                Object instance = scope.instance(beanName);
+                long retainedBytes = retainedSizeEstimated && instance != null ? ObjectGraphSize.estimate(instance, instances, MAX_ESTIMATED_OBJECTS) : -1;
+                beans.add(new BeanInfo(scope.getName(), beanName, instance != null || scope.hasInstance(beanName), created, failed, average, max, retainedBytes));
+            }
+        }
+        return beans;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<MethodInfo> getMethods() {
+        List<MethodInfo> methods = new ArrayList<>();
+        forEachTimer((scope, beanName, timer) -> methods.add(new MethodInfo(scope.getName(), beanName, timer.method(), timer.callCount(), timer.errorCount(),
+                timer.averageMillis(), timer.percentileMillis(50), timer.percentileMillis(99), timer.maxMillis())));
+        return methods;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isRetainedSizeEstimated() {
+        return retainedSizeEstimated;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setRetainedSizeEstimated(boolean estimated) {
+        this.retainedSizeEstimated = estimated;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String dumpBeanTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-40s %-60s %-6s %8s %8s %12s %12s %12s%n", "scope", "bean", "inst", "created", "failed", "avg ms", "max ms", "retained B"));
+        for (BeanInfo bean : getBeans()) {
+            table.append(String.format("%-40s %-60s %-6s %8d %8d %12.3f %12.3f %12d%n", bean.getScope(), bean.getName(), bean.isInstantiated(),
+                    bean.getCreated(), bean.getFailed(), bean.getAverageCreationMillis(), bean.getMaxCreationMillis(), bean.getRetainedBytes()));
+        }
+        return table.toString();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void resetCounters() {
+        LOGGER.debug("resetting counters of MBean '{}'", objectName);
+        stats.clear();
+        forEachTimer((scope, beanName, timer) -> timer.reset());
+    }
+
+    /** calls the consumer with timers of all bean instances held by scopes */
+    private void forEachTimer(TimerConsumer consumer) {
+        for (Scope scope : registry.scopes.values()) {
+            for (String beanName : scope.beanNames()) {
+                Object instance = scope.instance(beanName);
+                if (instance instanceof MethodTimers) {
+                    ((MethodTimers) instance).methodTimers().values().forEach(timer -> consumer.accept(scope, beanName, timer));
+                }
+            }
+        }
+    }
+
+    private CreationStats statsOf(String scopeName, String beanName) {
+        return stats.computeIfAbsent(key(scopeName, beanName), key -> new CreationStats());
+    }
+
+    private static String key(String scopeName, String beanName) {
+        return scopeName + '\t' + beanName;
+    }
+
+    /** @return all bean instances held by scopes - they are not counted into each other's retained sizes (a root is never a boundary) */
+    private static Set<Object> instances(Collection<Scope> scopes) {
+        Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Scope scope : scopes) {
+            for (String beanName : scope.beanNames()) {
+                Object instance = scope.instance(beanName);
+                if (instance != null) {
+                    instances.add(instance);
+                }
+            }
+        }
+        return instances;
+    }
+
+    @FunctionalInterface
+    private interface TimerConsumer {
+
+        void accept(Scope scope, String beanName, MethodTimer timer);
+    }
+
+    /** creation statistics of a single bean */
+    private static final class CreationStats {
+
+        final LongAdder created = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void created(long nanos) {
+            created.increment();
+            this.nanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
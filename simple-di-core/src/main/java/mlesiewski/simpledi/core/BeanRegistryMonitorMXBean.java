@@ -0,0 +1,208 @@
+package mlesiewski.simpledi.core;
+
+import java.beans.ConstructorProperties;
+import java.util.List;
+
+/**
+ * A management interface of a {@link BeanRegistryMonitor} - scopes, providers, cached instances and creation statistics of a registry.
+ */
+public interface BeanRegistryMonitorMXBean {
+
+    /** @return {@code true} if the registry was bootstrapped */
+    boolean isBootstrapped();
+
+    /** @return all scopes of the registry */
+    List<ScopeInfo> getScopes();
+
+    /** @return every bean of every scope - with sizes if {@link #isRetainedSizeEstimated()} */
+    List<BeanInfo> getBeans();
+
+    /** @return every {@link mlesiewski.simpledi.core.annotations.Timed} method of every bean instance held by a scope - counted since the bean was created or reset */
+    List<MethodInfo> getMethods();
+
+    /** @return {@code true} if {@link #getBeans()} estimate retained sizes of bean instances - it walks their object graphs so it is off by default */
+    boolean isRetainedSizeEstimated();
+
+    /** @param estimated {@code true} if {@link #getBeans()} should estimate retained sizes of bean instances */
+    void setRetainedSizeEstimated(boolean estimated);
+
+    /** @return {@link #getBeans()} as a text table */
+    String dumpBeanTable();
+
+    /** Resets creation statistics of all beans and timers of their methods. */
+    void resetCounters();
+
+    /** A state of a single scope. */
+    final class ScopeInfo {
+
+        private final String name;
+        private final boolean started;
+        private final int providerCount;
+        private final int instanceCount;
+
+        @ConstructorProperties({"name", "started", "providerCount", "instanceCount"})
+        public ScopeInfo(String name, boolean started, int providerCount, int instanceCount) {
+            this.name = name;
+            this.started = started;
+            this.providerCount = providerCount;
+            this.instanceCount = instanceCount;
+        }
+
+        /** @return a name of the scope */
+        public String getName() {
+            return name;
+        }
+
+        /** @return {@code true} if the scope was started */
+        public boolean isStarted() {
+            return started;
+        }
+
+        /** @return number of registered providers */
+        public int getProviderCount() {
+            return providerCount;
+        }
+
+        /** @return number of bean instances the scope holds */
+        public int getInstanceCount() {
+            return instanceCount;
+        }
+    }
+
+    /** A state of a single bean. */
+    final class BeanInfo {
+
+        private final String scope;
+        private final String name;
+        private final boolean instantiated;
+        private final long created;
+        private final long failed;
+        private final double averageCreationMillis;
+        private final double maxCreationMillis;
+        private final long retainedBytes;
+
+        @ConstructorProperties({"scope", "name", "instantiated", "created", "failed", "averageCreationMillis", "maxCreationMillis", "retainedBytes"})
+        public BeanInfo(String scope, String name, boolean instantiated, long created, long failed, double averageCreationMillis, double maxCreationMillis, long retainedBytes) {
+            this.scope = scope;
+            this.name = name;
+            this.instantiated = instantiated;
+            this.created = created;
+            this.failed = failed;
+            this.averageCreationMillis = averageCreationMillis;
+            this.maxCreationMillis = maxCreationMillis;
+            this.retainedBytes = retainedBytes;
+        }
+
+        /** @return a name of the scope of the bean */
+        public String getScope() {
+            return scope;
+        }
+
+        /** @return a name of the bean */
+        public String getName() {
+            return name;
+        }
+
+        /** @return {@code true} if the scope holds an instance of the bean */
+        public boolean isInstantiated() {
+            return instantiated;
+        }
+
+        /** @return number of instances created since the monitor was registered or reset */
+        public long getCreated() {
+            return created;
+        }
+
+        /** @return number of failed creations since the monitor was registered or reset */
+        public long getFailed() {
+            return failed;
+        }
+
+        /** @return average time of creation */
+        public double getAverageCreationMillis() {
+            return averageCreationMillis;
+        }
+
+        /** @return the longest time of creation */
+        public double getMaxCreationMillis() {
+            return maxCreationMillis;
+        }
+
+        /** @return an estimated retained size of the instance or {@code -1} if it was not estimated */
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+    }
+
+    /** Timing of a single method of a bean. */
+    final class MethodInfo {
+
+        private final String scope;
+        private final String bean;
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final double averageMillis;
+        private final double medianMillis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        @ConstructorProperties({"scope", "bean", "method", "calls", "errors", "averageMillis", "medianMillis", "p99Millis", "maxMillis"})
+        public MethodInfo(String scope, String bean, String method, long calls, long errors, double averageMillis, double medianMillis, double p99Millis, double maxMillis) {
+            this.scope = scope;
+            this.bean = bean;
+            this.method = method;
+            this.calls = calls;
+            this.errors = errors;
+            this.averageMillis = averageMillis;
+            this.medianMillis = medianMillis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        /** @return a name of the scope of the bean */
+        public String getScope() {
+            return scope;
+        }
+
+        /** @return a name of the bean */
+        public String getBean() {
+            return bean;
+        }
+
+        /** @return a signature of the method */
+        public String getMethod() {
+            return method;
+        }
+
+        /** @return number of calls */
+        public long getCalls() {
+            return calls;
+        }
+
+        /** @return number of calls that threw an exception */
+        public long getErrors() {
+            return errors;
+        }
+
+        /** @return average time of a call */
+        public double getAverageMillis() {
+            return averageMillis;
+        }
+
+        /** @return a time within which half of the calls completed */
+        public double getMedianMillis() {
+            return medianMillis;
+        }
+
+        /** @return a time within which 99% of the calls completed */
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        /** @return the longest time of a call */
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
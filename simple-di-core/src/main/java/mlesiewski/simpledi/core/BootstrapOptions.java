@@ -0,0 +1,156 @@
+package mlesiewski.simpledi.core;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Options for bootstrapping a registry. The global {@link BeanRegistry} reads them from system properties
+ * prefixed with {@value #PROPERTY_PREFIX} - see {@link #fromSystemProperties()}.
+ */
+public final class BootstrapOptions {
+
+    /** a prefix of system properties read by {@link #fromSystemProperties()} */
+    public static final String PROPERTY_PREFIX = "mlesiewski.simpledi.";
+
+    private int preloadThreads = 0;
+    private Path recordProfile;
+    private int recordSeconds = 60;
+    private Path replayProfile;
+    private int replayThreads = Runtime.getRuntime().availableProcessors();
+    private int warmerThreads = 0;
+
+    /** @return options with default values */
+    public static BootstrapOptions defaults() {
+        return new BootstrapOptions();
+    }
+
+    /**
+     * Reads options from system properties:
+     * <ul>
+     * <li>{@code mlesiewski.simpledi.preloadThreads} - see {@link #withPreloadThreads(int)}</li>
+     * <li>{@code mlesiewski.simpledi.profile.record} and {@code mlesiewski.simpledi.profile.recordSeconds} - see {@link #withProfileRecording(Path, int)}</li>
+     * <li>{@code mlesiewski.simpledi.profile.replay} and {@code mlesiewski.simpledi.profile.replayThreads} - see {@link #withProfileReplay(Path, int)}</li>
+     * <li>{@code mlesiewski.simpledi.warmerThreads} - see {@link #withWarmerThreads(int)}</li>
+     * </ul>
+     *
+     * @return options with values from system properties or defaults
+     * @throws SimpleDiException if a property has an invalid value
+     */
+    public static BootstrapOptions fromSystemProperties() {
+        BootstrapOptions options = defaults();
+        options.withPreloadThreads(intProperty("preloadThreads", options.preloadThreads));
+        String record = System.getProperty(PROPERTY_PREFIX + "profile.record");
+        if (record != null) {
+            options.withProfileRecording(Paths.get(record), intProperty("profile.recordSeconds", options.recordSeconds));
+        }
+        String replay = System.getProperty(PROPERTY_PREFIX + "profile.replay");
+        if (replay != null) {
+            options.withProfileReplay(Paths.get(replay), intProperty("profile.replayThreads", options.replayThreads));
+        }
+        options.withWarmerThreads(intProperty("warmerThreads", options.warmerThreads));
+        return options;
+    }
+
+    /**
+     * Provider and {@link mlesiewski.simpledi.core.annotations.Registerable} classes will be loaded and initialized up front
+     * on a pool of that many threads. Registration still happens in the original order on the bootstrapping thread.
+     *
+     * @param preloadThreads number of threads - 0 (the default) disables preloading
+     * @return this
+     * @throws SimpleDiException if the number is negative
+     */
+    public BootstrapOptions withPreloadThreads(int preloadThreads) {
+        if (preloadThreads < 0) {
+            throw new SimpleDiException("preloadThreads cannot be negative but was " + preloadThreads);
+        }
+        this.preloadThreads = preloadThreads;
+        return this;
+    }
+
+    /**
+     * Beans created during bootstrap and the given number of seconds afterwards will be written, in order of their creation, to a file.
+     * That file can later be used with {@link #withProfileReplay(Path, int)}.
+     *
+     * @param file    a file to write the profile to
+     * @param seconds how long to record after bootstrap
+     * @return this
+     * @throws SimpleDiException if the number of seconds is negative
+     */
+    public BootstrapOptions withProfileRecording(Path file, int seconds) {
+        if (seconds < 0) {
+            throw new SimpleDiException("recordSeconds cannot be negative but was " + seconds);
+        }
+        this.recordProfile = file;
+        this.recordSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * Beans listed in a profile recorded with {@link #withProfileRecording(Path, int)} will be created in parallel at the end of bootstrap.
+     * Entries of beans that no longer exist are ignored.
+     *
+     * @param file    a recorded profile
+     * @param threads how many threads should create beans
+     * @return this
+     * @throws SimpleDiException if the number of threads is not positive
+     */
+    public BootstrapOptions withProfileReplay(Path file, int threads) {
+        if (threads < 1) {
+            throw new SimpleDiException("replayThreads has to be positive but was " + threads);
+        }
+        this.replayProfile = file;
+        this.replayThreads = threads;
+        return this;
+    }
+
+    /**
+     * After bootstrap a {@link BackgroundWarmer} will create the remaining singletons on that many low priority threads.
+     *
+     * @param warmerThreads number of threads - 0 (the default) disables the warmer
+     * @return this
+     * @throws SimpleDiException if the number is negative
+     */
+    public BootstrapOptions withWarmerThreads(int warmerThreads) {
+        if (warmerThreads < 0) {
+            throw new SimpleDiException("warmerThreads cannot be negative but was " + warmerThreads);
+        }
+        this.warmerThreads = warmerThreads;
+        return this;
+    }
+
+    int preloadThreads() {
+        return preloadThreads;
+    }
+
+    Path recordProfile() {
+        return recordProfile;
+    }
+
+    int recordSeconds() {
+        return recordSeconds;
+    }
+
+    Path replayProfile() {
+        return replayProfile;
+    }
+
+    int replayThreads() {
+        return replayThreads;
+    }
+
+    int warmerThreads() {
+        return warmerThreads;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new SimpleDiException("System property '" + PROPERTY_PREFIX + name + "' is not a number: '" + value + "'", e);
+        }
+    }
+}
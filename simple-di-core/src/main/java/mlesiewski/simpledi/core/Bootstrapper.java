@@ -5,15 +5,20 @@ import mlesiewski.simpledi.core.scopes.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.Future;
 
 /**
  * This class bootstraps {@link Registerable} discovery and registration.
+ * Providers listed in {@link ProviderManifest ProviderManifests} are registered as {@link LazyBeanProvider placeholders}
+ * so that their classes are not loaded until they are needed.
  */
 final class Bootstrapper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Bootstrapper.class);
-    static boolean bootstrapped = false;
 
     /**
      * no you can't
@@ -22,10 +27,24 @@ final class Bootstrapper {
     }
 
     /**
-     * Bootstraps {@link BeanProvider} registration.
+     * Bootstraps {@link BeanProvider} registration. The registry is bound to the current thread while {@link Registerable Registerables}
+     * are called, so their calls to the {@link BeanRegistry} register providers with it.
+     *
+     * @param registry a registry to register custom scopes and providers with
      */
-    static void bootstrap() {
-        if (bootstrapped) {
+    static void bootstrap(BeanRegistryImpl registry) {
+        bootstrap(registry, BootstrapOptions.defaults());
+    }
+
+    /**
+     * Bootstraps {@link BeanProvider} registration - see {@link #bootstrap(BeanRegistryImpl)}.
+     * If preloading is enabled then classes of providers and {@link Registerable Registerables} are loaded by a {@link ClassPreloader}.
+     *
+     * @param registry a registry to register custom scopes and providers with
+     * @param options  bootstrap options
+     */
+    static void bootstrap(BeanRegistryImpl registry, BootstrapOptions options) {
+        if (registry.bootstrapped) {
             LOGGER.warn("already bootstrapped - skipping");
             return;
         }
@@ -33,19 +52,71 @@ final class Bootstrapper {
         ServiceLoader<Scope> scopes = ServiceLoader.load(Scope.class);
         int scopeCount = 0;
         for (Scope scope : scopes) {
-            BeanRegistry.register(scope);
+            registry.register(scope);
             LOGGER.trace("registered {}", scope.getClass().getName());
             scopeCount++;
         }
-        LOGGER.trace("bootstrapping registrable classes");
-        ServiceLoader<Registerable> registered = ServiceLoader.load(Registerable.class);
-        int registeredCount = 0;
-        for (Registerable registerable : registered) {
-            registerable.register();
-            LOGGER.trace("registered {}", registerable.getClass().getName());
-            registeredCount++;
+        ClassLoader classLoader = classLoader();
+        ClassPreloader preloader = options.preloadThreads() > 0 ? new ClassPreloader(options.preloadThreads(), classLoader) : null;
+        try {
+            LOGGER.trace("bootstrapping provider manifests");
+            List<ProviderManifest.Entry> entries = ProviderManifest.read(classLoader);
+            List<String> registerableNames = null;
+            List<Future<Class<?>>> registerableClasses = null;
+            if (preloader != null) {
+                registerableNames = ClassPreloader.serviceClassNames(classLoader, Registerable.class);
+                registerableClasses = preloader.preload(registerableNames);
+            }
+            for (ProviderManifest.Entry entry : entries) {
+                LazyBeanProvider<?> placeholder = new LazyBeanProvider<>(entry, classLoader);
+                if (preloader != null) {
+                    preloader.preload(placeholder);
+                }
+                registry.register(placeholder, entry.beanName, entry.scopeName);
+                LOGGER.trace("registered a placeholder for {}", entry.providerClassName);
+            }
+            LOGGER.trace("bootstrapping registrable classes");
+            Iterable<Registerable> registered = preloader != null
+                    ? instantiate(registerableNames, registerableClasses)
+                    : ServiceLoader.load(Registerable.class);
+            int registeredCount = registry.bound(() -> {
+                int count = 0;
+                for (Registerable registerable : registered) {
+                    registerable.register();
+                    LOGGER.trace("registered {}", registerable.getClass().getName());
+                    count++;
+                }
+                return count;
+            });
+            LOGGER.debug("bootstrapping completed, loaded {} scopes, registered {} manifest entries and {} classes", scopeCount, entries.size(), registeredCount);
+        } finally {
+            if (preloader != null) {
+                preloader.shutdown();
+            }
         }
-        LOGGER.debug("bootstrapping completed, loaded {} scopes and registered {} classes", scopeCount, registeredCount);
-        bootstrapped = true;
+        registry.bootstrapped = true;
+    }
+
+    /** @return {@link Registerable Registerables} instantiated in order of service files from preloaded classes */
+    private static List<Registerable> instantiate(List<String> classNames, List<Future<Class<?>>> classes) {
+        List<Registerable> registerables = new ArrayList<>(classNames.size());
+        for (int i = 0; i < classNames.size(); i++) {
+            String className = classNames.get(i);
+            Class<?> aClass = ClassPreloader.get(classes.get(i), className);
+            try {
+                registerables.add((Registerable) aClass.getDeclaredConstructor().newInstance());
+            } catch (InvocationTargetException e) {
+                throw new SimpleDiException("Could not instantiate Registerable '" + className + "'", e.getCause());
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new SimpleDiException("Could not instantiate Registerable '" + className + "'", e);
+            }
+        }
+        return registerables;
+    }
+
+    /** @return the same class loader that the {@link ServiceLoader} would use */
+    private static ClassLoader classLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : Bootstrapper.class.getClassLoader();
     }
 }
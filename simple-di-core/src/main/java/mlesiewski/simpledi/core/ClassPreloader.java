@@ -0,0 +1,110 @@
+package mlesiewski.simpledi.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and initializes classes on a bounded pool of daemon threads so that class loading and verification
+ * overlap with the rest of bootstrapping. Results are consumed in the original order.
+ */
+class ClassPreloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassPreloader.class);
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ClassLoader classLoader;
+    private final ExecutorService executor;
+
+    ClassPreloader(int threads, ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        int pool = POOL_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simple-di-preload-" + pool + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads service files the same way as the {@link java.util.ServiceLoader} does - without loading any classes.
+     *
+     * @return names of classes listed for the service in order and without duplicates
+     */
+    static List<String> serviceClassNames(ClassLoader classLoader, Class<?> service) {
+        String location = "META-INF/services/" + service.getName();
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(location);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String name = (comment == -1 ? line : line.substring(0, comment)).trim();
+                        if (!name.isEmpty()) {
+                            names.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new SimpleDiException("Could not read service files '" + location + "'", e);
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** @return futures of loaded and initialized classes - in the same order as the names */
+    List<Future<Class<?>>> preload(List<String> classNames) {
+        List<Future<Class<?>>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            classes.add(executor.submit(() -> Class.forName(className, true, classLoader)));
+        }
+        return classes;
+    }
+
+    /** Loads the provider behind a placeholder. A failure is ignored here - it will be reported on the first use of the bean. */
+    void preload(LazyBeanProvider<?> provider) {
+        executor.execute(() -> {
+            try {
+                provider.delegate();
+            } catch (SimpleDiException e) {
+                LOGGER.debug("preloading failed - {}", e.getMessage());
+            }
+        });
+    }
+
+    /** @return a preloaded class - waits for it if needed */
+    static Class<?> get(Future<Class<?>> preloaded, String className) {
+        try {
+            return preloaded.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SimpleDiException("Interrupted while preloading class '" + className + "'", e);
+        } catch (ExecutionException e) {
+            throw new SimpleDiException("Could not load class '" + className + "'", e.getCause());
+        }
+    }
+
+    /** Lets already submitted tasks finish and stops the threads afterwards. */
+    void shutdown() {
+        executor.shutdown();
+    }
+}
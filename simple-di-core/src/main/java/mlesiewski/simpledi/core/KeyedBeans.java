@@ -0,0 +1,317 @@
+package mlesiewski.simpledi.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Beans produced by a {@link mlesiewski.simpledi.core.annotations.Produce} method with parameters - one per distinct key (the arguments).
+ * The generated provider registers it as a bean named {@link #factoryName(String)} and {@link BeanRegistry#produce(Class, Object...)} asks it for beans.
+ * Up to {@code maximumCached} produced beans are kept - least recently used ones are evicted (and disposed) first. Concurrent calls
+ * with the same key wait for a single bean being produced. With no beans kept every call produces a new bean. Beans are produced
+ * with the registry that created this factory bound to the calling thread - the producer's dependencies come from it.
+ *
+ * @param <T> a type of the produced beans
+ */
+public final class KeyedBeans<T> {
+
+    /** appended to a name of the produced bean to get a name of this factory bean - no bean name can contain it */
+    public static final String FACTORY_NAME_SUFFIX = "#keyed";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedBeans.class);
+
+    private final String beanName;
+    private final int maximumCached;
+    private final Factory<T> factory;
+    private final Consumer<T> disposer;
+    /** a registry in use when the factory was created - {@code null} if there was none */
+    private final BeanRegistryImpl registry = BeanRegistry.delegate();
+    private final ReentrantLock lock = new ReentrantLock();
+    /** beans by their keys in the least recently used order - guarded by the lock */
+    private final LinkedHashMap<List<Object>, CompletableFuture<T>> beans = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<EvictionListener<T>> evictionListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param beanName      a name of the produced bean
+     * @param maximumCached the most beans kept - {@code 0} keeps none
+     * @param factory       calls the producer method
+     * @param disposer      disposes an evicted bean
+     */
+    public KeyedBeans(String beanName, int maximumCached, Factory<T> factory, Consumer<T> disposer) {
+        if (maximumCached < 0) {
+            throw new SimpleDiException("Keyed beans '" + beanName + "' need a non-negative maximum number of cached beans");
+        }
+        this.beanName = beanName;
+        this.maximumCached = maximumCached;
+        this.factory = factory;
+        this.disposer = disposer;
+    }
+
+    /**
+     * @param beanName a name of the produced bean
+     * @return a name under which the factory of the beans is registered
+     */
+    public static String factoryName(String beanName) {
+        return beanName + FACTORY_NAME_SUFFIX;
+    }
+
+    /**
+     * Checks an argument of a key before a generated provider casts it to a parameter type of the producer method.
+     *
+     * @param beanName a name of the produced bean
+     * @param key      arguments of the producer method
+     * @param index    an index of the checked argument
+     * @param type     an erasure of the parameter type
+     * @return the argument
+     * @throws SimpleDiException if the argument is not of the type - or is {@code null} and the type is a primitive one
+     */
+    public static Object keyArgument(String beanName, Object[] key, int index, Class<?> type) {
+        Object argument = key[index];
+        boolean valid = argument == null ? !type.isPrimitive() : boxed(type).isInstance(argument);
+        if (!valid) {
+            String actual = argument == null ? "null" : argument.getClass().getName();
+            throw new SimpleDiException("bean '" + beanName + "' needs a key argument " + index + " of type " + type.getName() + " but got " + actual);
+        }
+        return argument;
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == short.class) {
+            return Short.class;
+        }
+        return Byte.class;
+    }
+
+    /**
+     * @param key arguments of the producer method
+     * @return a bean produced for the key - a kept one if there is any
+     * @throws SimpleDiException if the producer method fails or does not take such arguments
+     */
+    public T get(Object... key) {
+        if (maximumCached == 0) {
+            produced.increment();
+            return create(key);
+        }
+        List<Object> list = Collections.unmodifiableList(Arrays.asList(key.clone()));
+        CompletableFuture<T> bean;
+        CompletableFuture<T> created = null;
+        List<Map.Entry<List<Object>, CompletableFuture<T>>> evicted = Collections.emptyList();
+        lock.lock();
+        try {
+            bean = beans.get(list);
+            if (bean == null) {
+                created = new CompletableFuture<>();
+                beans.put(list, created);
+                bean = created;
+                evicted = evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(entry -> evicted(entry.getKey(), entry.getValue()));
+        if (created == null) {
+            hits.increment();
+            return join(bean);
+        }
+        produced.increment();
+        try {
+            created.complete(create(list.toArray()));
+        } catch (RuntimeException | Error e) {
+            remove(list, created);
+            created.completeExceptionally(e);
+        }
+        return join(created);
+    }
+
+    /**
+     * @param key arguments of the producer method
+     * @return {@code true} if a bean of the key was kept - it is disposed
+     */
+    public boolean evict(Object... key) {
+        List<Object> list = Arrays.asList(key);
+        CompletableFuture<T> bean;
+        lock.lock();
+        try {
+            bean = beans.remove(list);
+        } finally {
+            lock.unlock();
+        }
+        if (bean != null) {
+            evicted(list, bean);
+        }
+        return bean != null;
+    }
+
+    /** Evicts and disposes all kept beans - called when the factory bean is disposed. */
+    public void clear() {
+        List<Map.Entry<List<Object>, CompletableFuture<T>>> evicted;
+        lock.lock();
+        try {
+            evicted = new ArrayList<>(beans.entrySet());
+            beans.clear();
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(entry -> evicted(entry.getKey(), entry.getValue()));
+    }
+
+    /** @param listener called with every evicted bean before it is disposed */
+    public void addEvictionListener(EvictionListener<T> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /** @return a name of the produced bean */
+    public String beanName() {
+        return beanName;
+    }
+
+    /** @return the most beans kept */
+    public int maximumCached() {
+        return maximumCached;
+    }
+
+    /** @return number of kept beans */
+    public int size() {
+        lock.lock();
+        try {
+            return beans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return number of calls of the producer method */
+    public long producedCount() {
+        return produced.sum();
+    }
+
+    /** @return number of calls answered with a kept bean */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return number of beans evicted */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedBeans{" + beanName + ", size=" + size() + "}";
+    }
+
+    /** @return the least recently used entries over the limit - removed; called with the lock held */
+    private List<Map.Entry<List<Object>, CompletableFuture<T>>> evictOverflow() {
+        if (beans.size() <= maximumCached) {
+            return Collections.emptyList();
+        }
+        List<Map.Entry<List<Object>, CompletableFuture<T>>> evicted = new ArrayList<>();
+        Iterator<Map.Entry<List<Object>, CompletableFuture<T>>> eldest = beans.entrySet().iterator();
+        while (beans.size() > maximumCached) {
+            Map.Entry<List<Object>, CompletableFuture<T>> entry = eldest.next();
+            evicted.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    /** notifies listeners and disposes the bean once it is produced - a bean that failed to be produced is skipped */
+    private void evicted(List<Object> key, CompletableFuture<T> bean) {
+        bean.thenAccept(instance -> {
+            evictions.increment();
+            for (EvictionListener<T> listener : evictionListeners) {
+                try {
+                    listener.evicted(key, instance);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("an eviction listener of '{}' failed", beanName, e);
+                }
+            }
+            try {
+                disposer.accept(instance);
+            } catch (RuntimeException e) {
+                LOGGER.warn("could not dispose an evicted bean '{}'", beanName, e);
+            }
+        });
+    }
+
+    private T create(Object[] key) {
+        return registry != null ? registry.bound(() -> factory.create(key)) : factory.create(key);
+    }
+
+    private void remove(List<Object> key, CompletableFuture<T> bean) {
+        lock.lock();
+        try {
+            beans.remove(key, bean);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> bean) {
+        try {
+            return bean.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Calls a producer method. */
+    @FunctionalInterface
+    public interface Factory<T> {
+
+        /**
+         * @param key arguments of the producer method
+         * @return a produced bean
+         */
+        T create(Object[] key);
+    }
+
+    /** Notified of evicted beans. */
+    @FunctionalInterface
+    public interface EvictionListener<T> {
+
+        /**
+         * @param key  arguments the bean was produced with
+         * @param bean an evicted bean - it is disposed after all listeners are notified
+         */
+        void evicted(List<Object> key, T bean);
+    }
+}
@@ -0,0 +1,81 @@
+package mlesiewski.simpledi.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+/**
+ * A placeholder registered for a {@link ProviderManifest} entry.
+ * The provider class is loaded, initialized and instantiated on the first call - a failure is reported with the bean name.
+ */
+class LazyBeanProvider<T> implements BeanProvider<T> {
+
+    private final ProviderManifest.Entry entry;
+    private final ClassLoader classLoader;
+    private volatile BeanProvider<T> delegate;
+
+    LazyBeanProvider(ProviderManifest.Entry entry, ClassLoader classLoader) {
+        this.entry = entry;
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public T provide() {
+        return delegate().provide();
+    }
+
+    @Override
+    public void setSoftDependencies(T newInstance) {
+        delegate().setSoftDependencies(newInstance);
+    }
+
+    @Override
+    public void dispose(T bean) {
+        delegate().dispose(bean);
+    }
+
+    @Override
+    public List<BeanHandle> dependencies() {
+        return delegate().dependencies();
+    }
+
+    /** @return {@code true} if the provider class was already loaded */
+    boolean isLoaded() {
+        return delegate != null;
+    }
+
+    /** @return a provider instance - loads it if needed */
+    BeanProvider<T> delegate() {
+        BeanProvider<T> provider = delegate;
+        if (provider == null) {
+            synchronized (this) {
+                provider = delegate;
+                if (provider == null) {
+                    provider = load();
+                    delegate = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BeanProvider<T> load() {
+        try {
+            Class<?> providerClass = Class.forName(entry.providerClassName, true, classLoader);
+            return (BeanProvider<T>) providerClass.getConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw failure(e.getCause());
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            throw failure(e);
+        }
+    }
+
+    private SimpleDiException failure(Throwable cause) {
+        return new SimpleDiException("Could not load BeanProvider '" + entry.providerClassName + "' for bean '" + entry.beanName + "' in scope '" + entry.scopeName + "'", cause);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyBeanProvider{" + entry.providerClassName + "}";
+    }
+}
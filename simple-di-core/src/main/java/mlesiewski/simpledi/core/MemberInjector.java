@@ -6,20 +6,40 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import static java.lang.reflect.Modifier.isFinal;
 import static java.lang.reflect.Modifier.isStatic;
 
 /**
  * Static utility that can inject members (soft dependencies) annotated with {@link Inject}.
+ * A {@link MembersInjector} generated by the annotation processor is used when one exists for the class of the bean,
+ * reflection is used otherwise.
  */
 public final class MemberInjector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemberInjector.class);
 
+    /** injects members by reflection */
+    private static final MembersInjector<Object> REFLECTIVE = MemberInjector::injectByReflection;
+
+    /** an injector resolved once per class */
+    private static final ClassValue<MembersInjector<Object>> INJECTORS = new ClassValue<MembersInjector<Object>>() {
+        @Override
+        protected MembersInjector<Object> computeValue(Class<?> type) {
+            return resolveInjector(type);
+        }
+    };
+
+    /** members injector indexes by class loaders */
+    private static final Map<ClassLoader, Map<String, String>> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
     /** please use static methods instead */
     private MemberInjector() {
     }
@@ -27,14 +47,47 @@ public final class MemberInjector {
     /**
      * Injects members (instance fields) that were annotated with {@link Inject} annotation.
      * Members might not be {@code public} but cannot be {@code final}.
-     * Setters will not be called.
+     * Setters will not be called by reflection - generated injectors call them for {@code private} and {@code protected} members.
      * @param bean a bean that members should be injected into
      * @return the bean that was provided
      * @throws SimpleDiException if the field was final or if the required dependency could not be acquired
      */
     public static <T> T injectMembersInto(T bean) {
+        LOGGER.debug("injecting members into instance of class '{}'", bean.getClass());
+        INJECTORS.get(bean.getClass()).injectMembers(bean);
+        return bean;
+    }
+
+    /** @return true if a generated {@link MembersInjector} is used for instances of the class */
+    static boolean hasGeneratedInjector(Class<?> aClass) {
+        return INJECTORS.get(aClass) != REFLECTIVE;
+    }
+
+    /** @return a generated injector listed in the index visible to the class' loader or the reflective one */
+    @SuppressWarnings("unchecked")
+    private static MembersInjector<Object> resolveInjector(Class<?> aClass) {
+        ClassLoader classLoader = aClass.getClassLoader();
+        if (classLoader == null) {
+            return REFLECTIVE;
+        }
+        String injectorClassName = INDEXES.computeIfAbsent(classLoader, MembersInjectorIndex::read).get(aClass.getName());
+        if (injectorClassName == null) {
+            LOGGER.trace("no generated members injector for class '{}'", aClass);
+            return REFLECTIVE;
+        }
+        try {
+            LOGGER.trace("using generated members injector '{}' for class '{}'", injectorClassName, aClass);
+            return (MembersInjector<Object>) Class.forName(injectorClassName, true, classLoader).getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw new SimpleDiException("Could not load MembersInjector '" + injectorClassName + "' for class '" + aClass.getName() + "'", e.getCause());
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new SimpleDiException("Could not load MembersInjector '" + injectorClassName + "' for class '" + aClass.getName() + "'", e);
+        }
+    }
+
+    /** injects members by reflection - traverses the whole class hierarchy. A field without a scope is resolved from any scope, like in generated injectors. */
+    private static void injectByReflection(Object bean) {
         Class<?> aClass = bean.getClass();
-        LOGGER.debug("injecting members into instance of class '{}'", aClass);
         fieldsOf(aClass).stream()
                 .map(InjectedField::new)
                 .filter(InjectedField::isNotStatic)
@@ -42,10 +95,9 @@ public final class MemberInjector {
                 .peek(InjectedField::assureAccessibility)
                 .forEach(field -> {
                     LOGGER.trace("setting dependency for a field '{}'", field.name());
-                    Object dependency = BeanRegistry.getBean(field.beanName(), field.scope());
+                    Object dependency = field.scope() == null ? BeanRegistry.getBean(field.beanName()) : BeanRegistry.getBean(field.beanName(), field.scope());
                     field.value(bean, dependency);
                 });
-        return bean;
     }
 
     /** a recursive way to traverse class hierarchy in search for declared fields */
@@ -99,9 +151,10 @@ public final class MemberInjector {
             return _Default.VALUE.equals(beanName) ? field.getType().getTypeName() : beanName;
         }
 
+        /** @return a name of the scope or {@code null} if any scope will do */
         private String scope() {
             String scopeName = annotation.scope();
-            return _Default.VALUE.equals(scopeName) ? field.getType().getTypeName() : scopeName;
+            return _Default.VALUE.equals(scopeName) ? null : scopeName;
         }
 
         private void value(Object bean, Object dependency) {
@@ -0,0 +1,19 @@
+package mlesiewski.simpledi.core;
+
+/**
+ * Injects soft dependencies into an existing instance of a class. Implementations are generated by the annotation
+ * processor for every class with {@link mlesiewski.simpledi.core.annotations.Inject} annotated fields and used by
+ * {@link MemberInjector} instead of reflection.
+ *
+ * @param <T> type of the instances
+ */
+@FunctionalInterface
+public interface MembersInjector<T> {
+
+    /**
+     * Injects members annotated with {@link mlesiewski.simpledi.core.annotations.Inject} - directly or by setters.
+     *
+     * @param instance an instance that members should be injected into
+     */
+    void injectMembers(T instance);
+}
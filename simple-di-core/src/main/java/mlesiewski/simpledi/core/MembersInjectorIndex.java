@@ -0,0 +1,78 @@
+package mlesiewski.simpledi.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An index of generated {@link MembersInjector MembersInjectors} written by the annotation processor.
+ * Each line holds a name of the injected class and a name of its injector class separated by a tab.
+ */
+public final class MembersInjectorIndex {
+
+    /** a location of index files on the class path */
+    public static final String LOCATION = "META-INF/simple-di/injectors";
+
+    /** separates values in a line */
+    public static final char SEPARATOR = '\t';
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MembersInjectorIndex.class);
+
+    /** no you can't */
+    private MembersInjectorIndex() {
+    }
+
+    /**
+     * @param injectedClassName a binary name of the class that members are injected into
+     * @param injectorClassName a binary name of the injector class
+     * @return an index line (without a line separator)
+     */
+    public static String line(String injectedClassName, String injectorClassName) {
+        return injectedClassName + SEPARATOR + injectorClassName;
+    }
+
+    /** @return injector class names by injected class names from all index files visible to the class loader */
+    static Map<String, String> read(ClassLoader classLoader) {
+        Map<String, String> index = new HashMap<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(LOCATION);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                LOGGER.trace("reading members injector index {}", url);
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                    index.putAll(parse(reader));
+                }
+            }
+        } catch (IOException e) {
+            throw new SimpleDiException("Could not read members injector indexes '" + LOCATION + "'", e);
+        }
+        return index;
+    }
+
+    /** @return injector class names by injected class names from a single index - empty lines are skipped */
+    static Map<String, String> parse(Reader reader) throws IOException {
+        Map<String, String> index = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            int separator = line.indexOf(SEPARATOR);
+            if (separator == -1 || separator != line.lastIndexOf(SEPARATOR)) {
+                throw new SimpleDiException("Malformed members injector index line '" + line + "'");
+            }
+            index.put(line.substring(0, separator), line.substring(separator + 1).trim());
+        }
+        return index;
+    }
+}
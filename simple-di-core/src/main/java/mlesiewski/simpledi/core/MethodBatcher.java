@@ -0,0 +1,221 @@
+package mlesiewski.simpledi.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces concurrent calls of a {@link mlesiewski.simpledi.core.annotations.Batched} single-key method into calls of its bulk method
+ * - generated decorators keep one per method. The first caller of a batch waits for a short window (or until the batch is full),
+ * calls the bulk method with distinct keys of all calls collected meanwhile and completes them. No extra threads are involved - other
+ * callers just wait for their results. A failure of the bulk method is thrown to every caller of the batch.
+ *
+ * @param <K> a type of the keys
+ * @param <V> a type of the values
+ */
+public final class MethodBatcher<K, V> {
+
+    private final String method;
+    private final int maximumBatchSize;
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    /** a batch collecting calls - {@code null} if there is none; guarded by the lock */
+    private Batch<K, V> current;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator longestWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param method           a signature of the single-key method
+     * @param maximumBatchSize the most distinct keys passed to the bulk method at once
+     * @param windowMicros     a time the first call of a batch waits for other calls
+     */
+    public MethodBatcher(String method, int maximumBatchSize, long windowMicros) {
+        if (maximumBatchSize < 1 || windowMicros < 0) {
+            throw new SimpleDiException("A batcher of '" + method + "' needs a positive maximum batch size and a non-negative window");
+        }
+        this.method = method;
+        this.maximumBatchSize = maximumBatchSize;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+    }
+
+    /**
+     * @param key  an argument of the single-key method
+     * @param bulk calls the bulk method - only the one of the first call of a batch is used
+     * @return a value the bulk method returned for the key or {@code null} if it did not return any
+     * @throws X thrown by the bulk method
+     */
+    public <X extends Throwable> V get(K key, BulkLoader<K, V, X> bulk) throws X {
+        long start = System.nanoTime();
+        Batch<K, V> batch;
+        CompletableFuture<V> result;
+        boolean first;
+        lock.lock();
+        try {
+            first = current == null;
+            if (first) {
+                current = new Batch<>(lock.newCondition());
+            }
+            batch = current;
+            result = batch.calls.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.calls.size() >= maximumBatchSize) {
+                close(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+        calls.increment();
+        if (first) {
+            awaitWindow(batch, start);
+            run(batch, bulk);
+        }
+        try {
+            return MethodBatcher.<V, X>join(result);
+        } finally {
+            long waited = System.nanoTime() - start;
+            waitNanos.add(waited);
+            longestWaitNanos.accumulate(waited);
+        }
+    }
+
+    /** @return a signature of the single-key method */
+    public String method() {
+        return method;
+    }
+
+    /** @return the most distinct keys passed to the bulk method at once */
+    public int maximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    /** @return number of calls of the single-key method */
+    public long callCount() {
+        return calls.sum();
+    }
+
+    /** @return number of calls of the bulk method */
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    /** @return an average number of single-key calls answered by one bulk call - {@code 0} if there were none */
+    public double averageBatchSize() {
+        long batchCount = batchCount();
+        return batchCount == 0 ? 0 : (double) callCount() / batchCount;
+    }
+
+    /** @return the most distinct keys passed to the bulk method at once so far */
+    public long largestBatchSize() {
+        return largestBatch.get();
+    }
+
+    /** @return an average time a call waited for its value, the bulk call included - {@code 0} if there were none */
+    public double averageWaitMillis() {
+        long callCount = callCount();
+        return callCount == 0 ? 0 : waitNanos.sum() / 1_000_000d / callCount;
+    }
+
+    /** @return the longest time a call waited for its value so far */
+    public double longestWaitMillis() {
+        return longestWaitNanos.get() / 1_000_000d;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodBatcher{" + method + ", calls=" + callCount() + ", batches=" + batchCount() + "}";
+    }
+
+    /** the first caller waits until the window passes or the batch is full */
+    private void awaitWindow(Batch<K, V> batch, long start) {
+        lock.lock();
+        try {
+            long remaining = windowNanos - (System.nanoTime() - start);
+            while (!batch.closed && remaining > 0) {
+                remaining = batch.full.awaitNanos(remaining);
+            }
+            close(batch);
+        } catch (InterruptedException e) {
+            close(batch);
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** stops collecting calls into the batch - called with the lock held */
+    private void close(Batch<K, V> batch) {
+        if (current == batch) {
+            current = null;
+        }
+        batch.closed = true;
+        batch.full.signal();
+    }
+
+    /** calls the bulk method and completes calls of the batch */
+    private <X extends Throwable> void run(Batch<K, V> batch, BulkLoader<K, V, X> bulk) {
+        batches.increment();
+        largestBatch.accumulate(batch.calls.size());
+        try {
+            Map<K, V> values = bulk.load(new ArrayList<>(batch.calls.keySet()));
+            batch.calls.forEach((key, call) -> call.complete(values != null ? values.get(key) : null));
+        } catch (Throwable e) {
+            batch.calls.values().forEach(call -> call.completeExceptionally(e));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, X extends Throwable> V join(CompletableFuture<V> result) throws X {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+                    throw (X) cause;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Calls a bulk method. */
+    @FunctionalInterface
+    public interface BulkLoader<K, V, X extends Throwable> {
+
+        /**
+         * @param keys distinct keys of a batch
+         * @return values by their keys
+         */
+        Map<K, V> load(Collection<K> keys) throws X;
+    }
+
+    private static final class Batch<K, V> {
+
+        /** calls by their keys - calls with the same key share a result */
+        final LinkedHashMap<K, CompletableFuture<V>> calls = new LinkedHashMap<>();
+        /** signalled when the batch is closed */
+        final Condition full;
+        boolean closed;
+
+        Batch(Condition full) {
+            this.full = full;
+        }
+    }
+}
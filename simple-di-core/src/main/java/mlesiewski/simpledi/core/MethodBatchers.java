@@ -0,0 +1,10 @@
+package mlesiewski.simpledi.core;
+
+import java.util.Map;
+
+/** Implemented by generated decorators of beans with {@link mlesiewski.simpledi.core.annotations.Batched} methods. */
+public interface MethodBatchers {
+
+    /** @return batchers of the decorated methods by a method signature, e.g. {@code get(java.lang.String)} */
+    Map<String, MethodBatcher<?, ?>> methodBatchers();
+}
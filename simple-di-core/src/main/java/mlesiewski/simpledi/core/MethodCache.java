@@ -0,0 +1,271 @@
+package mlesiewski.simpledi.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, concurrent memo of results of a {@link mlesiewski.simpledi.core.annotations.Cached} method - generated decorators
+ * keep one per method. A hit does not lock, though making its key may allocate - a boxed argument, a packed {@code Long}, a pair
+ * or an array of arguments. A miss computes the result without blocking other keys - two threads missing the same key at once
+ * may both compute it, which is harmless for a pure method. When the cache grows past its maximum size it evicts expired and
+ * least recently used results in a batch, so an insert costs a constant time on average.
+ * <p>
+ * Keys of one argument are the argument itself, two {@code int} arguments are packed into a single {@code Long}, other arguments
+ * are compared with {@link Object#equals(Object)} - arrays by identity.
+ *
+ * @param <V> a type of the results
+ */
+public final class MethodCache<V> {
+
+    /** a key of a method without arguments */
+    public static final Object NO_ARGUMENTS = new Marker("NO_ARGUMENTS");
+
+    /** a key of a single {@code null} argument */
+    private static final Object NULL = new Marker("NULL");
+    /** evicting that share of the maximum size at once */
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+    /** the least recently used order does not have to be more precise than that */
+    private static final long ACCESS_PRECISION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String method;
+    private final int maximumSize;
+    private final long expireAfterNanos;
+    private final ConcurrentHashMap<Object, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param method            a signature of the cached method
+     * @param maximumSize       the most results kept
+     * @param expireAfterMillis a time after which a result is computed again - {@code 0} if results never expire
+     */
+    public MethodCache(String method, int maximumSize, long expireAfterMillis) {
+        if (maximumSize < 1 || expireAfterMillis < 0) {
+            throw new SimpleDiException("A cache of '" + method + "' needs a positive maximum size and a non-negative expiration time");
+        }
+        this.method = method;
+        this.maximumSize = maximumSize;
+        this.expireAfterNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterMillis);
+    }
+
+    /**
+     * @param key    a key made of the method's arguments by one of the {@code key} methods
+     * @param loader calls the cached method
+     * @return a cached result or a result of the loader
+     * @throws X thrown by the loader - its result is not cached then
+     */
+    public <X extends Throwable> V get(Object key, Loader<V, X> loader) throws X {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            hits.increment();
+            entry.touch(now);
+            return entry.value;
+        }
+        misses.increment();
+        V value = loader.load();
+        long loaded = System.nanoTime();
+        entries.put(key, new Entry<>(value, loaded, expireAfterNanos == 0 ? 0 : loaded + expireAfterNanos));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        return value;
+    }
+
+    /** @return a key of a single argument */
+    public static Object key(Object argument) {
+        return argument != null ? argument : NULL;
+    }
+
+    /** @return a key of two {@code int} arguments - packed into one {@code long} */
+    public static Object key(int first, int second) {
+        return ((long) first << Integer.SIZE) | (second & 0xffffffffL);
+    }
+
+    /** @return a key of two arguments */
+    public static Object key(Object first, Object second) {
+        return new Pair(first, second);
+    }
+
+    /** @return a key of more arguments - the array is not copied */
+    public static Object keyOf(Object[] arguments) {
+        return new Arguments(arguments);
+    }
+
+    /** @return a signature of the cached method */
+    public String method() {
+        return method;
+    }
+
+    /** @return the most results kept */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /** @return number of results kept - expired ones included until they are evicted */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return number of calls answered with a cached result */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return number of calls that called the method */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /** @return number of results evicted because the cache was full */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return a share of calls answered with a cached result - {@code 0} if there were no calls */
+    public double hitRate() {
+        long hitCount = hitCount();
+        long calls = hitCount + missCount();
+        return calls == 0 ? 0 : (double) hitCount / calls;
+    }
+
+    /** Drops all results. */
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "MethodCache{" + method + ", size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount() + "}";
+    }
+
+    /** removes expired results and least recently used ones until there is room for a batch of new results - one thread at a time */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int target = maximumSize - maximumSize / EVICTION_BATCH_DIVISOR;
+            long now = System.nanoTime();
+            entries.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+            int excess = entries.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<Object, Entry<V>>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(entry -> entry.getValue().accessed - now));
+            for (int i = 0; i < excess && i < candidates.size(); i++) {
+                Map.Entry<Object, Entry<V>> candidate = candidates.get(i);
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Calls a cached method. */
+    @FunctionalInterface
+    public interface Loader<V, X extends Throwable> {
+
+        /** @return a result of the method */
+        V load() throws X;
+    }
+
+    private static final class Entry<V> {
+
+        final V value;
+        /** {@code 0} if it never expires */
+        final long expiresAt;
+        volatile long accessed;
+
+        Entry(V value, long accessed, long expiresAt) {
+            this.value = value;
+            this.accessed = accessed;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+
+        /** writes only if the access time changed noticeably so that hot entries do not bounce between caches of processors */
+        void touch(long now) {
+            if (now - accessed > ACCESS_PRECISION_NANOS) {
+                accessed = now;
+            }
+        }
+    }
+
+    private static final class Pair {
+
+        final Object first;
+        final Object second;
+
+        Pair(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Pair)) {
+                return false;
+            }
+            Pair that = (Pair) o;
+            return Objects.equals(first, that.first) && Objects.equals(second, that.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(first) + Objects.hashCode(second);
+        }
+    }
+
+    private static final class Arguments {
+
+        final Object[] values;
+
+        Arguments(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Arguments && Arrays.equals(values, ((Arguments) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    private static final class Marker {
+
+        final String name;
+
+        Marker(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package mlesiewski.simpledi.core;
+
+import java.util.Map;
+
+/** Implemented by generated decorators of beans with {@link mlesiewski.simpledi.core.annotations.Cached} methods. */
+public interface MethodCaches {
+
+    /** @return caches of the decorated methods by a method signature, e.g. {@code price(java.lang.String,int)} */
+    Map<String, MethodCache<?>> methodCaches();
+}
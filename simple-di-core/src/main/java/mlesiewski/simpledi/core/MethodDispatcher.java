@@ -0,0 +1,174 @@
+package mlesiewski.simpledi.core;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs calls of an {@link mlesiewski.simpledi.core.annotations.Async} method on an executor - generated decorators keep one per method.
+ * At most {@code maximumConcurrency} calls run at once; the rest wait in a queue (not on a thread) and are started as running ones complete.
+ * By default the calls run on threads shared by all dispatchers - started on demand and stopped after a minute of idleness, so
+ * blocking calls do not starve each other. A positive {@code poolSize} gives the method its own bounded pool instead.
+ */
+public final class MethodDispatcher {
+
+    /** threads shared by dispatchers without a pool of their own */
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(StartupProfile.daemonThreads("simple-di-async-"));
+
+    private final String method;
+    private final int maximumConcurrency;
+    private final ExecutorService executor;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param method             a signature of the method
+     * @param maximumConcurrency the most calls running at once
+     * @param poolSize           a size of a pool dedicated to the method - {@code 0} uses the shared threads
+     */
+    public MethodDispatcher(String method, int maximumConcurrency, int poolSize) {
+        if (maximumConcurrency < 1 || poolSize < 0) {
+            throw new SimpleDiException("A dispatcher of '" + method + "' needs a positive maximum concurrency and a non-negative pool size");
+        }
+        this.method = method;
+        this.maximumConcurrency = maximumConcurrency;
+        this.executor = poolSize == 0 ? SHARED : pool(method, poolSize);
+    }
+
+    /** a dispatcher running the calls on the executor */
+    MethodDispatcher(String method, int maximumConcurrency, ExecutorService executor) {
+        this.method = method;
+        this.maximumConcurrency = maximumConcurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * @param call calls the decorated method
+     * @return a future completed with a result of the future the call returns - or exceptionally if the call throws
+     */
+    public <T> CompletableFuture<T> submit(Call<T> call) {
+        submitted.increment();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        queue.add(() -> run(call, result));
+        drain();
+        return result;
+    }
+
+    /** @return a signature of the method */
+    public String method() {
+        return method;
+    }
+
+    /** @return the most calls running at once */
+    public int maximumConcurrency() {
+        return maximumConcurrency;
+    }
+
+    /** @return number of calls running at the moment */
+    public int runningCount() {
+        return running.get();
+    }
+
+    /** @return number of calls waiting for a running one to complete */
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    /** @return number of calls of the method */
+    public long submittedCount() {
+        return submitted.sum();
+    }
+
+    /** @return number of calls that completed normally */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /** @return number of calls that completed exceptionally */
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "MethodDispatcher{" + method + ", running=" + runningCount() + ", queued=" + queuedCount() + "}";
+    }
+
+    /** starts queued calls while there are free slots */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= maximumConcurrency) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                // a rejected call runs on the calling thread - it keeps the slot, run releases it once the call completes
+                task.run();
+            }
+        }
+    }
+
+    /** runs on an executor thread - the slot is released once the returned future completes */
+    private <T> void run(Call<T> call, CompletableFuture<T> result) {
+        CompletableFuture<T> returned;
+        try {
+            returned = call.call();
+            if (returned == null) {
+                throw new SimpleDiException("an async method '" + method + "' returned null");
+            }
+        } catch (Throwable e) {
+            returned = new CompletableFuture<>();
+            returned.completeExceptionally(e);
+        }
+        // the slot is free before the caller sees the result - calls it makes then are not queued behind it
+        returned.whenComplete((value, failure) -> {
+            if (failure == null) {
+                completed.increment();
+            } else {
+                failed.increment();
+            }
+            running.decrementAndGet();
+            drain();
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private static ExecutorService pool(String method, int poolSize) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                StartupProfile.daemonThreads("simple-di-async-" + method + "-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /** Calls an async method. */
+    @FunctionalInterface
+    public interface Call<T> {
+
+        /** @return a future returned by the method */
+        CompletableFuture<T> call() throws Exception;
+    }
+}
@@ -0,0 +1,10 @@
+package mlesiewski.simpledi.core;
+
+import java.util.Map;
+
+/** Implemented by generated decorators of beans with {@link mlesiewski.simpledi.core.annotations.Async} methods. */
+public interface MethodDispatchers {
+
+    /** @return dispatchers of the decorated methods by a method signature, e.g. {@code fetch(java.lang.String)} */
+    Map<String, MethodDispatcher> methodDispatchers();
+}
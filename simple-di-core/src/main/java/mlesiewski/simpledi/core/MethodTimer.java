@@ -0,0 +1,154 @@
+package mlesiewski.simpledi.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records calls of a {@link mlesiewski.simpledi.core.annotations.Timed} method - generated decorators keep one per method.
+ * Latencies are counted in a log-linear histogram (four buckets per power of two, so a percentile is off by at most 25%)
+ * without locks - every thread writes to one of several stripes of the buckets and they are summed up when read.
+ * An {@link mlesiewski.simpledi.core.annotations.Async} method is timed until it returns its future.
+ */
+public final class MethodTimer {
+
+    /** buckets of values {@code 0-3} and four buckets per each power of two up to {@code 2^62} */
+    static final int BUCKETS = 4 + 61 * 4;
+    /** a number of longs between stripes - they do not share cache lines */
+    private static final int STRIPE_LENGTH = BUCKETS + 8;
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final String method;
+    private final AtomicLongArray buckets = new AtomicLongArray(STRIPES * STRIPE_LENGTH);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /** @param method a signature of the method */
+    public MethodTimer(String method) {
+        this.method = method;
+    }
+
+    /** @return a start of a call to pass to {@link #stop(long, boolean)} */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @param start  returned by {@link #start()}
+     * @param failed {@code true} if the call threw an exception
+     */
+    public void stop(long start, boolean failed) {
+        record(Math.max(0, System.nanoTime() - start), failed);
+    }
+
+    /** records a call that took the time provided */
+    void record(long nanos, boolean failed) {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        buckets.incrementAndGet(stripe * STRIPE_LENGTH + bucket(nanos));
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /** @return a signature of the method */
+    public String method() {
+        return method;
+    }
+
+    /** @return number of calls of the method */
+    public long callCount() {
+        long calls = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            calls += buckets.get(i);
+        }
+        return calls;
+    }
+
+    /** @return number of calls that threw an exception */
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    /** @return an average time of a call - {@code 0} if there were none */
+    public double averageMillis() {
+        long calls = callCount();
+        return calls == 0 ? 0 : totalNanos.sum() / NANOS_PER_MILLI / calls;
+    }
+
+    /** @return the longest time of a call */
+    public double maxMillis() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @param percentile e.g. {@code 99.0}
+     * @return a time within which the percentile of calls completed - an upper bound of its bucket; {@code 0} if there were no calls
+     */
+    public double percentileMillis(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new SimpleDiException("A percentile has to be within (0, 100] but was " + percentile);
+        }
+        long[] counts = new long[BUCKETS];
+        long calls = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long count = buckets.get(stripe * STRIPE_LENGTH + bucket);
+                counts[bucket] += count;
+                calls += count;
+            }
+        }
+        long rank = (long) Math.ceil(calls * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(bucket), maxNanos.get()) / NANOS_PER_MILLI;
+            }
+        }
+        return 0;
+    }
+
+    /** Resets all the counters - calls in progress are counted once they complete. */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "MethodTimer{" + method + ", calls=" + callCount() + ", errors=" + errorCount() + "}";
+    }
+
+    /** @return an index of a bucket of the value - values below 4 have their own buckets, the rest by their two bits after the highest one */
+    static int bucket(long nanos) {
+        if (nanos < 4) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - 2)) & 3;
+        return 4 + (exponent - 2) * 4 + sub;
+    }
+
+    /** @return the greatest value of the bucket */
+    static long upperBound(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = (bucket - 4) / 4 + 2;
+        int sub = (bucket - 4) % 4;
+        long lower = (1L << exponent) + ((long) sub << (exponent - 2));
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+
+    private static int stripes(int processors) {
+        return Integer.highestOneBit(Math.max(1, Math.min(processors, 16)) * 2 - 1);
+    }
+}
@@ -0,0 +1,10 @@
+package mlesiewski.simpledi.core;
+
+import java.util.Map;
+
+/** Implemented by generated decorators of beans with {@link mlesiewski.simpledi.core.annotations.Timed} methods. */
+public interface MethodTimers {
+
+    /** @return timers of the decorated methods by a method signature, e.g. {@code find(java.lang.String)} */
+    Map<String, MethodTimer> methodTimers();
+}
@@ -0,0 +1,155 @@
+package mlesiewski.simpledi.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates a heap size of an object graph by walking its instance fields. Sizes assume a 64-bit JVM with compressed
+ * references (12 bytes of an object header, 16 of an array header, 4 per reference and 8 byte alignment) - it is an estimate
+ * for the operations staff, not a measurement.
+ */
+final class ObjectGraphSize {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    /** instance fields by class - walking the same classes over and over again is common */
+    private static final ClassValue<List<InstanceField>> FIELDS = new ClassValue<List<InstanceField>>() {
+        @Override
+        protected List<InstanceField> computeValue(Class<?> type) {
+            return instanceFields(type);
+        }
+    };
+
+    /** no you can't */
+    private ObjectGraphSize() {
+    }
+
+    /**
+     * @param root       an object to start from
+     * @param boundaries objects that are not counted and not walked - other beans for example
+     * @param maxObjects a limit of visited objects so that a huge graph does not stall the caller
+     * @return estimated size in bytes of objects reachable from the root (including it) that are not behind a boundary
+     */
+    static long estimate(Object root, Set<Object> boundaries, int maxObjects) {
+        Map<Object, Boolean> visited = new IdentityHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long size = 0;
+        while (!pending.isEmpty() && visited.size() < maxObjects) {
+            Object current = pending.pop();
+            if (visited.put(current, Boolean.TRUE) != null) {
+                continue;
+            }
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                size += arraySize(current, type.getComponentType(), boundaries, pending);
+            } else {
+                size += objectSize(current, type, boundaries, pending);
+            }
+        }
+        return size;
+    }
+
+    private static long objectSize(Object object, Class<?> type, Set<Object> boundaries, Deque<Object> pending) {
+        long size = OBJECT_HEADER;
+        for (InstanceField field : FIELDS.get(type)) {
+            Class<?> fieldType = field.field.getType();
+            if (fieldType.isPrimitive()) {
+                size += primitiveSize(fieldType);
+            } else {
+                size += REFERENCE;
+                if (!field.accessible) {
+                    continue;
+                }
+                try {
+                    follow(field.field.get(object), boundaries, pending);
+                } catch (IllegalAccessException e) {
+                    // not accessible - counted as a reference only
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static long arraySize(Object array, Class<?> componentType, Set<Object> boundaries, Deque<Object> pending) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+        }
+        Object[] elements = (Object[]) array;
+        for (Object element : elements) {
+            follow(element, boundaries, pending);
+        }
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /** does not walk into classes, class loaders and threads - they are not owned by anything */
+    private static void follow(Object value, Set<Object> boundaries, Deque<Object> pending) {
+        if (value == null || boundaries.contains(value)
+                || value instanceof Class || value instanceof ClassLoader || value instanceof Thread) {
+            return;
+        }
+        pending.push(value);
+    }
+
+    private static List<InstanceField> instanceFields(Class<?> type) {
+        List<InstanceField> fields = new ArrayList<>();
+        for (Class<?> aClass = type; aClass != null; aClass = aClass.getSuperclass()) {
+            for (Field field : aClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                boolean accessible;
+                try {
+                    field.setAccessible(true);
+                    accessible = true;
+                } catch (RuntimeException e) {
+                    // a security manager or a module (InaccessibleObjectException on JDK 9+) - the field is sized but not walked
+                    accessible = false;
+                }
+                fields.add(new InstanceField(field, accessible));
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /** a field with a result of making it accessible */
+    private static final class InstanceField {
+
+        final Field field;
+        final boolean accessible;
+
+        InstanceField(Field field, boolean accessible) {
+            this.field = field;
+            this.accessible = accessible;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package mlesiewski.simpledi.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * A manifest of generated {@link BeanProvider BeanProviders} written by the annotation processor.
+ * Each line holds a bean name, a scope name and a provider class name separated by tabs.
+ * Lines are in the order in which providers should be registered.
+ */
+public final class ProviderManifest {
+
+    /** a location of manifest files on the class path */
+    public static final String LOCATION = "META-INF/simple-di/providers";
+
+    /** separates values in a line */
+    public static final char SEPARATOR = '\t';
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProviderManifest.class);
+
+    /** no you can't */
+    private ProviderManifest() {
+    }
+
+    /**
+     * @param beanName          a name of the bean
+     * @param scopeName         a name of the scope the bean belongs to
+     * @param providerClassName a binary name of the provider class
+     * @return a manifest line (without a line separator)
+     */
+    public static String line(String beanName, String scopeName, String providerClassName) {
+        return beanName + SEPARATOR + scopeName + SEPARATOR + providerClassName;
+    }
+
+    /** @return entries from all manifest files visible to the class loader */
+    static List<Entry> read(ClassLoader classLoader) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(LOCATION);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                LOGGER.trace("reading provider manifest {}", url);
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                    entries.addAll(parse(reader));
+                }
+            }
+        } catch (IOException e) {
+            throw new SimpleDiException("Could not read provider manifests '" + LOCATION + "'", e);
+        }
+        return entries;
+    }
+
+    /** @return entries from a single manifest - empty lines are skipped */
+    static List<Entry> parse(Reader reader) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            int first = line.indexOf(SEPARATOR);
+            int last = line.lastIndexOf(SEPARATOR);
+            if (first == -1 || first == last) {
+                throw new SimpleDiException("Malformed provider manifest line '" + line + "'");
+            }
+            entries.add(new Entry(line.substring(0, first), line.substring(first + 1, last), line.substring(last + 1).trim()));
+        }
+        return entries;
+    }
+
+    /** A single line of a manifest. */
+    static final class Entry {
+
+        final String beanName;
+        final String scopeName;
+        final String providerClassName;
+
+        Entry(String beanName, String scopeName, String providerClassName) {
+            this.beanName = beanName;
+            this.scopeName = scopeName;
+            this.providerClassName = providerClassName;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.annotations.Dispose;
+import mlesiewski.simpledi.core.annotations.Inject;
+import mlesiewski.simpledi.core.annotations._Default;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BeanProvider} for classes that were not processed by the annotation processor - plugins loaded at runtime for example.
+ * The {@link Inject} annotated constructor (or a no-args one) and {@link Inject} annotated fields are discovered once per class
+ * and turned into method handles, so {@link #provide()} does not use reflection. So is a {@link Dispose} annotated method.
+ * <pre>{@code BeanRegistry.register(ReflectiveBeanProvider.of(Plugin.class), Plugin.class);}</pre>
+ *
+ * @param <T> type of the provided bean
+ */
+public final class ReflectiveBeanProvider<T> implements BeanProvider<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReflectiveBeanProvider.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** factories discovered once per class */
+    private static final ClassValue<Factory> FACTORIES = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> type) {
+            return new Factory(type);
+        }
+    };
+
+    private final Factory factory;
+
+    private ReflectiveBeanProvider(Factory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param beanClass a class of the bean - it needs a constructor annotated with {@link Inject}, with all parameters annotated
+     *                  with {@link Inject} or with no parameters
+     * @return a provider of new instances of the class
+     * @throws SimpleDiException if the class cannot be instantiated
+     */
+    public static <T> ReflectiveBeanProvider<T> of(Class<T> beanClass) {
+        return new ReflectiveBeanProvider<>(FACTORIES.get(beanClass));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T provide() {
+        return (T) factory.newInstance();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setSoftDependencies(T newInstance) {
+        factory.injectFields(newInstance);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void dispose(T bean) {
+        factory.dispose(bean);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<BeanHandle> dependencies() {
+        return factory.dependencies;
+    }
+
+    /** a constructor handle and field setter handles of a class, with handles of their dependencies */
+    private static final class Factory {
+
+        private final Class<?> beanClass;
+        /** set only for a no-args constructor */
+        private final Supplier<Object> noArgs;
+        /** a constructor taking an {@code Object[]} of arguments */
+        private final MethodHandle constructor;
+        private final BeanHandle[] arguments;
+        /** setters taking {@code (Object bean, Object value)} */
+        private final MethodHandle[] setters;
+        private final BeanHandle[] fields;
+        /** a dispose method taking {@code (Object bean)} - {@code null} if there is none */
+        private final MethodHandle dispose;
+        private final List<BeanHandle> dependencies;
+
+        private Factory(Class<?> beanClass) {
+            LOGGER.debug("discovering injection points of class '{}'", beanClass);
+            if (beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers())) {
+                throw new SimpleDiException("Cannot provide instances of an abstract class or an interface '" + beanClass.getName() + "'");
+            }
+            this.beanClass = beanClass;
+            Constructor<?> injectionConstructor = injectionConstructor(beanClass);
+            Parameter[] parameters = injectionConstructor.getParameters();
+            this.arguments = new BeanHandle[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                arguments[i] = handle(parameters[i].getAnnotation(Inject.class), parameters[i].getType());
+            }
+            MethodHandle constructorHandle = unreflect(injectionConstructor);
+            this.noArgs = parameters.length == 0 ? supplier(injectionConstructor, constructorHandle) : null;
+            this.constructor = constructorHandle
+                    .asType(constructorHandle.type().generic())
+                    .asSpreader(Object[].class, parameters.length);
+            List<Field> injectedFields = injectedFields(beanClass);
+            this.setters = new MethodHandle[injectedFields.size()];
+            this.fields = new BeanHandle[injectedFields.size()];
+            for (int i = 0; i < setters.length; i++) {
+                Field field = injectedFields.get(i);
+                setters[i] = unreflectSetter(field);
+                fields[i] = handle(field.getAnnotation(Inject.class), field.getType());
+            }
+            Method disposeMethod = disposeMethod(beanClass);
+            this.dispose = disposeMethod != null ? unreflect(disposeMethod) : null;
+            List<BeanHandle> handles = new ArrayList<>(Arrays.asList(arguments));
+            handles.addAll(Arrays.asList(fields));
+            this.dependencies = Collections.unmodifiableList(handles);
+        }
+
+        private Object newInstance() {
+            if (noArgs != null) {
+                return noArgs.get();
+            }
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].get();
+            }
+            try {
+                return constructor.invokeExact(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new SimpleDiException("Could not create an instance of class '" + beanClass.getName() + "'", e);
+            }
+        }
+
+        private void injectFields(Object bean) {
+            for (int i = 0; i < setters.length; i++) {
+                Object value = fields[i].get();
+                try {
+                    setters[i].invokeExact(bean, value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new SimpleDiException("Could not inject a field of class '" + beanClass.getName() + "'", e);
+                }
+            }
+        }
+
+        private void dispose(Object bean) {
+            if (dispose == null) {
+                return;
+            }
+            try {
+                dispose.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new SimpleDiException("Could not dispose an instance of class '" + beanClass.getName() + "'", e);
+            }
+        }
+
+        /** @return a no-args, non-static method annotated with {@link Dispose} from the whole class hierarchy or {@code null} */
+        private static Method disposeMethod(Class<?> beanClass) {
+            for (Class<?> aClass = beanClass; aClass != null && aClass != Object.class; aClass = aClass.getSuperclass()) {
+                for (Method method : aClass.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(Dispose.class)) {
+                        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0) {
+                            throw new SimpleDiException("Dispose method '" + method.getName() + "' of class '" + aClass.getName() + "' has to be a no-args instance method");
+                        }
+                        return method;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** @return a constructor annotated with {@link Inject}, one with all parameters annotated or a no-args one */
+        private static Constructor<?> injectionConstructor(Class<?> beanClass) {
+            Constructor<?> noArgs = null;
+            for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+                if (constructor.isAnnotationPresent(Inject.class) || allParametersAnnotated(constructor)) {
+                    return constructor;
+                }
+                if (constructor.getParameterCount() == 0) {
+                    noArgs = constructor;
+                }
+            }
+            if (noArgs == null) {
+                throw new SimpleDiException("Class '" + beanClass.getName() + "' has neither an " + Inject.class.getSimpleName() + " annotated constructor nor a no-args one");
+            }
+            return noArgs;
+        }
+
+        private static boolean allParametersAnnotated(Constructor<?> constructor) {
+            return constructor.getParameterCount() > 0 && Arrays.stream(constructor.getParameters()).allMatch(parameter -> parameter.isAnnotationPresent(Inject.class));
+        }
+
+        /** @return non-static fields annotated with {@link Inject} from the whole class hierarchy */
+        private static List<Field> injectedFields(Class<?> beanClass) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> aClass = beanClass; aClass != null && aClass != Object.class; aClass = aClass.getSuperclass()) {
+                for (Field field : aClass.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Inject.class) && !Modifier.isStatic(field.getModifiers())) {
+                        if (Modifier.isFinal(field.getModifiers())) {
+                            throw new SimpleDiException("Cannot inject the final field '" + field.getName() + "' of class '" + aClass.getName() + "'");
+                        }
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+
+        /** @return a handle of a dependency - named after its type by default */
+        private static BeanHandle handle(Inject annotation, Class<?> type) {
+            String name = annotation == null || _Default.VALUE.equals(annotation.name()) ? type.getName() : annotation.name();
+            String scope = annotation == null ? _Default.VALUE : annotation.scope();
+            return _Default.VALUE.equals(scope) ? new BeanHandle(name) : new BeanHandle(name, scope);
+        }
+
+        private static MethodHandle unreflect(Constructor<?> constructor) {
+            try {
+                constructor.setAccessible(true);
+                return LOOKUP.unreflectConstructor(constructor);
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new SimpleDiException("Could not access constructor of class '" + constructor.getDeclaringClass().getName() + "'", e);
+            }
+        }
+
+        private static MethodHandle unreflect(Method method) {
+            try {
+                method.setAccessible(true);
+                return LOOKUP.unreflect(method).asType(MethodType.methodType(void.class, Object.class));
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new SimpleDiException("Could not access method '" + method.getName() + "' of class '" + method.getDeclaringClass().getName() + "'", e);
+            }
+        }
+
+        private static MethodHandle unreflectSetter(Field field) {
+            try {
+                field.setAccessible(true);
+                MethodHandle setter = LOOKUP.unreflectSetter(field);
+                return setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new SimpleDiException("Could not access field '" + field.getName() + "' of class '" + field.getDeclaringClass().getName() + "'", e);
+            }
+        }
+
+        /**
+         * @return a lambda calling a no-args constructor - as fast as {@code new} in generated code,
+         * or one invoking the method handle when the metafactory cannot link the constructor
+         */
+        @SuppressWarnings("unchecked")
+        private static Supplier<Object> supplier(Constructor<?> constructor, MethodHandle constructorHandle) {
+            Class<?> beanClass = constructor.getDeclaringClass();
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookupIn(beanClass), "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), constructorHandle, MethodType.methodType(beanClass));
+                return (Supplier<Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                LOGGER.debug("could not link a lambda for the constructor of class '{}' - falling back to a method handle", beanClass, e);
+            }
+            MethodHandle generic = constructorHandle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new SimpleDiException("Could not create an instance of class '" + beanClass.getName() + "'", e);
+                }
+            };
+        }
+
+        /**
+         * A lambda class is defined by the loader of its caller's class, so the caller is the bean class itself - a plugin class
+         * might not be visible to the loader of this library. Java 9+ has {@code MethodHandles.privateLookupIn} and Java 8
+         * has a private constructor for that. Java 14+ does not let such a lookup define a lambda - the method handle is used then.
+         *
+         * @return a lookup with private access to the bean class
+         */
+        private static MethodHandles.Lookup lookupIn(Class<?> beanClass) throws ReflectiveOperationException {
+            try {
+                Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+                return (MethodHandles.Lookup) privateLookupIn.invoke(null, beanClass, LOOKUP);
+            } catch (NoSuchMethodException e) {
+                Constructor<MethodHandles.Lookup> lookup = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+                lookup.setAccessible(true);
+                return lookup.newInstance(beanClass, MethodHandles.Lookup.PUBLIC | MethodHandles.Lookup.PRIVATE
+                        | MethodHandles.Lookup.PROTECTED | MethodHandles.Lookup.PACKAGE);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package mlesiewski.simpledi.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/** An outcome of {@link BeanRegistry#shutdown()} - how disposing of every bean ended and how long it took. */
+public final class ShutdownReport {
+
+    /** how disposing of a bean ended */
+    public enum Outcome {
+        /** the bean was disposed */
+        DISPOSED,
+        /** its dispose method threw an exception */
+        FAILED,
+        /** its dispose method did not return in time - it was interrupted and its dependencies were disposed anyway */
+        TIMED_OUT
+    }
+
+    private final List<Disposal> disposals;
+    private final Duration elapsed;
+
+    ShutdownReport(List<Disposal> disposals, Duration elapsed) {
+        this.disposals = Collections.unmodifiableList(new ArrayList<>(disposals));
+        this.elapsed = elapsed;
+    }
+
+    /** @return disposals of beans in the order they ended */
+    public List<Disposal> disposals() {
+        return disposals;
+    }
+
+    /** @return a time the whole shutdown took */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /** @return number of beans whose disposing ended the given way */
+    public int count(Outcome outcome) {
+        return (int) disposals.stream().filter(disposal -> disposal.outcome == outcome).count();
+    }
+
+    /** @return {@code true} if all beans were disposed */
+    public boolean isClean() {
+        return count(Outcome.DISPOSED) == disposals.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("shutdown took %d ms - %d disposed, %d failed, %d timed out%n",
+                elapsed.toMillis(), count(Outcome.DISPOSED), count(Outcome.FAILED), count(Outcome.TIMED_OUT)));
+        for (Disposal disposal : disposals) {
+            report.append(String.format("%-40s %-60s %-9s %10.3f ms%s%n", disposal.scope, disposal.bean, disposal.outcome, disposal.nanos / 1_000_000d,
+                    disposal.failure != null ? " " + disposal.failure : ""));
+        }
+        return report.toString();
+    }
+
+    /** disposing of a single bean */
+    public static final class Disposal {
+
+        private final String scope;
+        private final String bean;
+        private final Outcome outcome;
+        private final long nanos;
+        private final Throwable failure;
+
+        Disposal(String scope, String bean, Outcome outcome, long nanos, Throwable failure) {
+            this.scope = scope;
+            this.bean = bean;
+            this.outcome = outcome;
+            this.nanos = nanos;
+            this.failure = failure;
+        }
+
+        /** @return a name of the bean's scope */
+        public String scope() {
+            return scope;
+        }
+
+        /** @return a name of the bean */
+        public String bean() {
+            return bean;
+        }
+
+        /** @return how disposing of the bean ended */
+        public Outcome outcome() {
+            return outcome;
+        }
+
+        /** @return a time disposing took (or was given before it timed out) */
+        public Duration duration() {
+            return Duration.ofNanos(nanos);
+        }
+
+        /** @return an exception thrown by the dispose method */
+        public Optional<Throwable> failure() {
+            return Optional.ofNullable(failure);
+        }
+
+        @Override
+        public String toString() {
+            return "Disposal{" + scope + ", " + bean + ", " + outcome + "}";
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+import mlesiewski.simpledi.core.scopes.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A list of beans in order of their creation. Each line of a profile file holds a scope name and a bean name separated by a tab.
+ * {@link Recorder} writes such a file and {@link #replay(BeanRegistryImpl, Path, int)} creates the beans listed in it.
+ */
+final class StartupProfile {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupProfile.class);
+    private static final String HEADER = "# simple-di startup profile";
+    private static final char SEPARATOR = '\t';
+
+    /** no you can't */
+    private StartupProfile() {
+    }
+
+    /**
+     * Creates (in parallel) all beans from the profile that the registry still has. {@link NewInstanceScope} entries are skipped.
+     * Returns after all beans were created. Failures are logged - they will happen again when the bean is requested.
+     *
+     * @return number of beans created
+     */
+    static int replay(BeanRegistryImpl registry, Path file, int threads) {
+        List<String[]> entries = read(file);
+        List<String[]> valid = new ArrayList<>(entries.size());
+        for (String[] entry : entries) {
+            Scope scope = registry.scopes.get(entry[0]);
+            if (scope == null || !scope.hasBean(entry[1]) || NewInstanceScope.NAME.equals(entry[0])) {
+                LOGGER.debug("ignoring stale or non-singleton profile entry {} in {}", entry[1], entry[0]);
+            } else {
+                valid.add(entry);
+            }
+        }
+        LOGGER.debug("replaying {} of {} profile entries from {}", valid.size(), entries.size(), file);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, daemonThreads("simple-di-replay-"));
+        try {
+            List<Future<?>> creations = new ArrayList<>(valid.size());
+            for (String[] entry : valid) {
+                creations.add(executor.submit(() -> registry.bound(() -> registry.scopes.get(entry[0]).getBean(entry[1]))));
+            }
+            int created = 0;
+            for (int i = 0; i < creations.size(); i++) {
+                try {
+                    creations.get(i).get();
+                    created++;
+                } catch (ExecutionException e) {
+                    LOGGER.warn("could not create bean '{}' from a profile", valid.get(i)[1], e.getCause());
+                }
+            }
+            return created;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SimpleDiException("Interrupted while replaying profile " + file, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** @return entries from the file - an empty list if there is no such file */
+    static List<String[]> read(Path file) {
+        if (!Files.exists(file)) {
+            LOGGER.warn("profile {} does not exist - nothing to replay", file);
+            return new ArrayList<>();
+        }
+        try {
+            List<String[]> entries = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf(SEPARATOR);
+                if (line.startsWith("#") || separator == -1) {
+                    continue;
+                }
+                entries.add(new String[]{line.substring(0, separator), line.substring(separator + 1)});
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new SimpleDiException("Could not read profile " + file, e);
+        }
+    }
+
+    /** @return a factory of daemon threads named with the prefix and a number */
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Records bean creations until it is stopped and then writes them to a file. */
+    static final class Recorder implements BeanCreationListener {
+
+        private final BeanRegistryImpl registry;
+        private final Path file;
+        private final Set<String> lines = new LinkedHashSet<>();
+
+        Recorder(BeanRegistryImpl registry, Path file) {
+            this.registry = registry;
+            this.file = file;
+        }
+
+        /** @return a recorder that was added to the registry */
+        static Recorder start(BeanRegistryImpl registry, Path file) {
+            Recorder recorder = new Recorder(registry, file);
+            registry.creationListeners.add(recorder);
+            return recorder;
+        }
+
+        @Override
+        public void created(String scopeName, String beanName, long nanos) {
+            synchronized (lines) {
+                lines.add(scopeName + SEPARATOR + beanName);
+            }
+        }
+
+        /** Stops recording after the given number of seconds on a daemon thread. */
+        void stopAfter(int seconds) {
+            if (seconds == 0) {
+                stop();
+                return;
+            }
+            Thread thread = daemonThreads("simple-di-profile-recorder-").newThread(() -> {
+                try {
+                    TimeUnit.SECONDS.sleep(seconds);
+                    stop();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+        }
+
+        /** Stops recording and writes the profile. */
+        void stop() {
+            registry.creationListeners.remove(this);
+            List<String> profile = new ArrayList<>();
+            profile.add(HEADER);
+            synchronized (lines) {
+                profile.addAll(lines);
+            }
+            try {
+                Files.write(file, profile, StandardCharsets.UTF_8);
+                LOGGER.debug("wrote {} profile entries to {}", profile.size() - 1, file);
+            } catch (IOException e) {
+                LOGGER.error("could not write profile " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.ShutdownReport.Disposal;
+import mlesiewski.simpledi.core.ShutdownReport.Outcome;
+import mlesiewski.simpledi.core.scopes.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disposes bean instances of a registry in a reverse dependency order - a bean is disposed once all beans that depend on it were.
+ * Beans that do not depend on each other are disposed in parallel, each of them within a timeout counted from the start of its dispose
+ * method. Dependencies are taken from {@link BeanProvider#dependencies()}; a cycle is broken by disposing one of its beans first.
+ * Scopes {@link Scope#drop(String, Object) drop} instances once they were disposed.
+ */
+class Teardown {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Teardown.class);
+
+    private final BeanRegistryImpl registry;
+    private final long timeoutNanos;
+    private final List<Node> nodes = new ArrayList<>();
+    private final Deque<Node> ready = new ArrayDeque<>();
+    private final Map<Future<Disposal>, Node> running = new HashMap<>();
+    private final List<Disposal> disposals = new ArrayList<>();
+
+    Teardown(BeanRegistryImpl registry, Duration timeout) {
+        this.registry = registry;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * @param threads a number of beans disposed at once
+     * @return a report of disposing of all instances
+     */
+    ShutdownReport run(int threads) {
+        long start = System.nanoTime();
+        collect();
+        LOGGER.debug("disposing {} beans", nodes.size());
+        if (!nodes.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, StartupProfile.daemonThreads("simple-di-teardown-"));
+            try {
+                dispose(new ExecutorCompletionService<>(executor));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SimpleDiException("Interrupted while disposing beans", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return new ShutdownReport(disposals, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /** creates a node for every instance and links it with instances it depends on */
+    private void collect() {
+        Map<String, Node> byName = new HashMap<>();
+        Set<Object> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Scope scope : registry.scopes.values()) {
+            for (String beanName : scope.beanNames()) {
+                Object bean = scope.instance(beanName);
+                BeanProvider<?> provider = scope.provider(beanName);
+                if (bean != null && provider != null && collected.add(bean)) {
+                    Node node = new Node(scope.getName(), beanName, bean, provider);
+                    nodes.add(node);
+                    byName.put(key(scope.getName(), beanName), node);
+                }
+            }
+        }
+        for (Node node : nodes) {
+            for (BeanHandle handle : node.provider.dependencies()) {
+                Scope scope = handle.scopeName() == null ? registry.findScopeWith(handle.beanName()).orElse(null) : registry.getScope(handle.scopeName(), true);
+                Node dependency = scope != null ? byName.get(key(scope.getName(), handle.beanName())) : null;
+                if (dependency != null && dependency != node && !node.dependencies.containsKey(dependency)) {
+                    node.dependencies.put(dependency, dependency);
+                    dependency.dependents++;
+                }
+            }
+        }
+        nodes.stream().filter(node -> node.dependents == 0).forEach(ready::add);
+    }
+
+    private void dispose(CompletionService<Disposal> disposing) throws InterruptedException {
+        int ended = 0;
+        while (ended < nodes.size()) {
+            while (!ready.isEmpty()) {
+                Node node = ready.poll();
+                running.put(disposing.submit(() -> dispose(node)), node);
+            }
+            if (running.isEmpty()) {
+                breakCycle();
+                continue;
+            }
+            long now = System.nanoTime();
+            long wait = running.values().stream().mapToLong(node -> node.started ? node.deadline - now : timeoutNanos).min().getAsLong();
+            Future<Disposal> done = disposing.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+            if (done != null) {
+                Node node = running.remove(done);
+                if (node != null) {
+                    disposals.add(result(done));
+                    drop(node);
+                    release(node);
+                    ended++;
+                }
+            } else {
+                ended += timeOut();
+            }
+        }
+    }
+
+    /** called on a disposing thread - the deadline of the node starts now */
+    private Disposal dispose(Node node) {
+        LOGGER.trace("disposing bean '{}' of scope '{}'", node.beanName, node.scopeName);
+        long start = System.nanoTime();
+        node.deadline = start + timeoutNanos;
+        node.started = true;
+        try {
+            registry.bound(() -> node.dispose());
+            return new Disposal(node.scopeName, node.beanName, Outcome.DISPOSED, System.nanoTime() - start, null);
+        } catch (RuntimeException | Error e) {
+            LOGGER.warn("could not dispose bean '{}' of scope '{}'", node.beanName, node.scopeName, e);
+            return new Disposal(node.scopeName, node.beanName, Outcome.FAILED, System.nanoTime() - start, e);
+        }
+    }
+
+    /** @return number of started nodes whose disposing was interrupted after their deadline */
+    private int timeOut() {
+        long now = System.nanoTime();
+        List<Future<Disposal>> late = new ArrayList<>();
+        running.forEach((future, node) -> {
+            if (node.started && node.deadline - now <= 0) {
+                late.add(future);
+            }
+        });
+        for (Future<Disposal> future : late) {
+            future.cancel(true);
+            Node node = running.remove(future);
+            LOGGER.warn("disposing bean '{}' of scope '{}' timed out", node.beanName, node.scopeName);
+            disposals.add(new Disposal(node.scopeName, node.beanName, Outcome.TIMED_OUT, timeoutNanos, null));
+            drop(node);
+            release(node);
+        }
+        return late.size();
+    }
+
+    /** the instance is not handed out any more - whatever the outcome of its disposing was */
+    private void drop(Node node) {
+        Scope scope = registry.scopes.get(node.scopeName);
+        if (scope != null) {
+            scope.drop(node.beanName, node.bean);
+        }
+    }
+
+    /** lets dependencies of a node go once it was disposed */
+    private void release(Node node) {
+        node.released = true;
+        for (Node dependency : node.dependencies.keySet()) {
+            if (--dependency.dependents == 0) {
+                ready.add(dependency);
+            }
+        }
+    }
+
+    /** nothing is ready nor running so the rest of the nodes depend on each other - the one with the fewest dependents goes first */
+    private void breakCycle() {
+        Node first = nodes.stream()
+                .filter(node -> !node.released && node.dependents > 0)
+                .min((one, other) -> Integer.compare(one.dependents, other.dependents))
+                .orElseThrow(() -> new IllegalStateException("no beans left to dispose"));
+        LOGGER.warn("bean '{}' of scope '{}' is in a dependency cycle - disposing it before {} beans that depend on it", first.beanName, first.scopeName, first.dependents);
+        first.dependents = 0;
+        ready.add(first);
+    }
+
+    private static Disposal result(Future<Disposal> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            throw new SimpleDiException("Disposing failed unexpectedly", e.getCause());
+        }
+    }
+
+    private static String key(String scopeName, String beanName) {
+        return scopeName + '\t' + beanName;
+    }
+
+    /** a bean instance to dispose */
+    private static final class Node {
+
+        final String scopeName;
+        final String beanName;
+        final Object bean;
+        final BeanProvider<?> provider;
+        /** nodes this one depends on - an identity map used as a set */
+        final Map<Node, Node> dependencies = new IdentityHashMap<>();
+        /** number of nodes that depend on this one and were not disposed yet */
+        int dependents;
+        /** set by a disposing thread before {@link #started} */
+        long deadline;
+        volatile boolean started;
+        boolean released;
+
+        Node(String scopeName, String beanName, Object bean, BeanProvider<?> provider) {
+            this.scopeName = scopeName;
+            this.beanName = beanName;
+            this.bean = bean;
+            this.provider = provider;
+        }
+
+        @SuppressWarnings("unchecked")
+        void dispose() {
+            ((BeanProvider<Object>) provider).dispose(bean);
+        }
+    }
+}
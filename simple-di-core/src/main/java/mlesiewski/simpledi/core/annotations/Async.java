@@ -0,0 +1,22 @@
+package mlesiewski.simpledi.core.annotations;
+
+import mlesiewski.simpledi.core.MethodDispatcher;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs calls of a bean method returning a {@code CompletableFuture} on a container-managed executor - the caller gets a future
+ * at once. The processor generates a decorator subclass of the bean that dispatches calls through a {@link MethodDispatcher}
+ * - the method has to be non-final and not private, and its bean has to be created by its provider (not produced).
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Async {
+
+    /** The most calls of the method running at once for a bean instance - the rest wait in a queue without holding a thread. */
+    int maximumConcurrency() default 64;
+
+    /** A size of a bounded pool of threads dedicated to the method - {@code 0} uses threads shared by all dispatchers. */
+    int poolSize() default 0;
+}
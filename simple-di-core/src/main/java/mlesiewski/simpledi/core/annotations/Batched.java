@@ -0,0 +1,26 @@
+package mlesiewski.simpledi.core.annotations;
+
+import mlesiewski.simpledi.core.MethodBatcher;
+
+import java.lang.annotation.*;
+
+/**
+ * Coalesces concurrent calls of a single-key bean method into calls of a bulk method of the same bean - e.g. {@code V get(K key)}
+ * and {@code Map<K, V> getAll(Collection<K> keys)}. The bulk method takes a {@code Collection}, {@code List}, {@code Set}
+ * or {@code Iterable} of keys. The processor generates a decorator subclass of the bean that collects calls in a {@link MethodBatcher}
+ * - the single-key method has to be non-final and not private, and its bean has to be created by its provider (not produced).
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Batched {
+
+    /** A name of the bulk method. */
+    String bulk();
+
+    /** The most distinct keys passed to the bulk method at once. */
+    int maximumBatchSize() default 100;
+
+    /** A time the first call of a batch waits for other calls. */
+    long windowMicros() default 500;
+}
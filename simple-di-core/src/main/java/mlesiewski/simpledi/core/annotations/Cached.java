@@ -0,0 +1,22 @@
+package mlesiewski.simpledi.core.annotations;
+
+import mlesiewski.simpledi.core.MethodCache;
+
+import java.lang.annotation.*;
+
+/**
+ * Memoizes results of a bean method by its arguments. The processor generates a decorator subclass of the bean that keeps
+ * the results in a {@link MethodCache} - the method has to be pure, non-final and not private, and its bean has to be created
+ * by its provider (not produced).
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Cached {
+
+    /** The most results kept - least recently used ones are evicted first. */
+    int maximumSize() default 1024;
+
+    /** A time after which a result is computed again. Results do not expire by default. */
+    long expireAfterMillis() default 0;
+}
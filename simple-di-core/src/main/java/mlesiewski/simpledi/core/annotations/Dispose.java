@@ -0,0 +1,15 @@
+package mlesiewski.simpledi.core.annotations;
+
+import mlesiewski.simpledi.core.BeanRegistry;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a public or friendly, no-args instance method of a bean that releases its resources - threads, sockets or off-heap memory.
+ * It is called once by {@link BeanRegistry#shutdown()} after all beans that depend on the bean were disposed.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Dispose {
+}
@@ -4,7 +4,10 @@ import mlesiewski.simpledi.core.scopes.Scope;
 
 import java.lang.annotation.*;
 
-/** Marks a method as a bean producer. */
+/**
+ * Marks a method as a bean producer. A static method is called directly - its class does not become a bean.
+ * A method with parameters produces a bean per key (its arguments) - see {@link mlesiewski.simpledi.core.KeyedBeans}.
+ */
 @Retention(RetentionPolicy.SOURCE)
 @Target({ElementType.METHOD})
 @Documented
@@ -18,4 +21,7 @@ public @interface Produce {
 
     /** A name of {@link Bean} that is being produced. */
     String name() default _Default.VALUE;
+
+    /** The most beans produced by a method with parameters that are kept (one per key) - none by default. */
+    int maximumCached() default 0;
 }
@@ -0,0 +1,16 @@
+package mlesiewski.simpledi.core.annotations;
+
+import mlesiewski.simpledi.core.MethodTimer;
+
+import java.lang.annotation.*;
+
+/**
+ * Records calls, failures and latency of a bean method. The processor generates a decorator subclass of the bean that times calls
+ * with a {@link MethodTimer} - the method has to be non-final and not private, and its bean has to be created by its provider (not produced).
+ * The timers of beans held by scopes are shown by a {@link mlesiewski.simpledi.core.BeanRegistryMonitor}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Timed {
+}
@@ -6,8 +6,11 @@ import mlesiewski.simpledi.core.annotations.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Global application scope - beans will be created eagerly after this scope was started.
@@ -17,14 +20,11 @@ public class ApplicationScope extends BaseScopeImpl {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationScope.class);
 
-    /** {@link BeanProvider BeanProviders} waiting for {@link #start()}. */
-    private LinkedHashMap<String, BeanProvider> waitingProviders = new LinkedHashMap<>();
-
     /** Ties a {@link Bean} to the application scope. */
     public static final String NAME = "mlesiewski.simpledi.Scope.APP_SCOPE";
 
-    /** Strongly referenced eager bean cache. */
-    final HashMap<String, Object> eagerBeanCache = new HashMap<>();
+    /** Strongly referenced eager bean cache - a bean is available as soon as it is put here. */
+    final ConcurrentHashMap<String, Object> eagerBeanCache = new ConcurrentHashMap<>();
 
     /**
      * Creates new Application Scope. Can now register new {@link BeanProvider BeanProvider's} that won't be called
@@ -35,15 +35,19 @@ public class ApplicationScope extends BaseScopeImpl {
     }
 
     /**
-     * Calls all previously registered {@link BeanProvider BeanProvider's}.
-     * Any new {@link BeanProvider BeanProvider's} will be called eagerly and discarded.
+     * Calls all previously registered {@link BeanProvider BeanProvider's} in order of their registration.
+     * Any new {@link BeanProvider BeanProvider's} will be called eagerly.
      */
     @Override
     public void start() {
         super.start();
-        waitingProviders.forEach(this::cacheBeanInstance);
-        waitingProviders.forEach(this::setSoftDependencies);
-        waitingProviders = null;
+        List<Map.Entry<String, BeanProvider<?>>> registered;
+        Map<String, BeanProvider<?>> current = providers;
+        synchronized (current) {
+            registered = new ArrayList<>(current.entrySet());
+        }
+        registered.forEach(entry -> cacheBeanInstance(entry.getKey(), entry.getValue()));
+        registered.forEach(entry -> setSoftDependencies(entry.getKey(), entry.getValue()));
     }
 
     private <T> void setSoftDependencies(String name, BeanProvider<T> beanProvider) {
@@ -64,20 +68,24 @@ public class ApplicationScope extends BaseScopeImpl {
      */
     @Override
     public <T> void register(BeanProvider<T> beanProvider, String name) {
-        LOGGER.trace("register({}, {})", beanProvider, name);
+        super.register(beanProvider, name);
         if (started) {
             T bean = cacheBeanInstance(name, beanProvider);
             beanProvider.setSoftDependencies(bean);
-        } else {
-            waitingProviders.put(name, beanProvider);
         }
     }
 
+    /** {@inheritDoc} The fork is not started - its beans will be created when it is. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        return new ApplicationScope();
+    }
+
     private <T> T cacheBeanInstance(String name, BeanProvider<T> beanProvider) {
         if (eagerBeanCache.containsKey(name)) {
             throw new SimpleDiException("Scope '" + getName() + "' already has a Bean instance registered under the name '" + name + "'");
         }
-        T bean = beanProvider.provide();
+        T bean = provide(name, beanProvider);
         if (bean == null) {
             throw new SimpleDiException("In Scope '" + getName() + "' BeanProvider '" + name + "' produced a null value");
         }
@@ -85,23 +93,54 @@ public class ApplicationScope extends BaseScopeImpl {
         return bean;
     }
 
-    /** Gets {@link Bean} from the eager bean cache. */
+    /** Gets {@link Bean} from the eager bean cache - a {@link #drop(String, Object) dropped} one is created again. */
     @Override
     @SuppressWarnings("unchecked")
     public <T> T getBean(String name) {
         LOGGER.trace("getBean({})", name);
-        if (!eagerBeanCache.containsKey(name)) {
-            throw new SimpleDiException("Scope '" + getName() + "' does not have a BeanProvider instance registered under the name '" + name + "'");
+        Object bean = eagerBeanCache.get(name);
+        if (bean == null) {
+            if (!started || !providers.containsKey(name)) {
+                throw new SimpleDiException("Scope '" + getName() + "' does not have a BeanProvider instance registered under the name '" + name + "'");
+            }
+            bean = lockedLookup(name, () -> eagerBeanCache.get(name), generation -> {
+                Object created = provideBean(name);
+                eagerBeanCache.put(name, created);
+                return created;
+            });
         }
         try {
-            return (T) eagerBeanCache.get(name);
+            return (T) bean;
         } catch (ClassCastException ccs) {
             throw new SimpleDiException("In Scope '" + getName() + "' bean '" + name + "' has a different type to requested", ccs);
         }
     }
 
+    /** {@inheritDoc} The link keeps the bean once it was created. */
+    @Override
+    public <T> Supplier<T> link(String name) {
+        return keepingLink(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void drop(String name, Object instance) {
+        eagerBeanCache.remove(name, instance);
+        super.drop(name, instance);
+    }
+
     @Override
     public boolean hasBean(String name) {
         return eagerBeanCache.containsKey(name);
     }
+
+    @Override
+    public boolean hasInstance(String name) {
+        return eagerBeanCache.containsKey(name);
+    }
+
+    @Override
+    public Object instance(String name) {
+        return eagerBeanCache.get(name);
+    }
 }
@@ -1,25 +1,60 @@
 package mlesiewski.simpledi.core.scopes;
 
+import mlesiewski.simpledi.core.BeanCreationListener;
 import mlesiewski.simpledi.core.BeanProvider;
 import mlesiewski.simpledi.core.SimpleDiException;
 import mlesiewski.simpledi.core.annotations.Bean;
 import org.slf4j.Logger;
 
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
 
 /**
  * Base {@link Scope} implementation. When a {@link #getBean(String)} is called a {@link WeakHashMap} is checked
  * first to see if it contains a {@link Bean} under the name provided. If the value is
  * {@code null} then a registered {@link BeanProvider} is asked for a new instance.
+ * <p>
+ * Every {@link #end()} starts a new generation of beans. Beans of previous generations are invalidated at once
+ * and dropped from the cache when it is used next, and a bean created while the scope was ended is never cached.
  */
 public class BaseScopeImpl implements Scope {
 
     private final Logger logger;
     protected final String name;
-    protected final HashMap<String, BeanProvider> providers = new HashMap<>();
+    /**
+     * registered providers in order of registration - might be shared with a fork so they are modified only by {@link #register(BeanProvider, String)}.
+     * Synchronized since beans can be requested while other providers are still being registered.
+     */
+    protected volatile Map<String, BeanProvider<?>> providers = synchronizedProviders(Collections.emptyMap());
+    /** beans of the {@link #cacheGeneration} - use it through {@link #cachedBean(String)} and {@link #cacheBean(String, Object, long)} */
     protected final WeakHashMap<String, Object> beanCache = new WeakHashMap<>();
-    protected boolean started = false;
+    protected volatile boolean started = false;
+    /** incremented by every {@link #end()} */
+    private final AtomicLong generation = new AtomicLong();
+    /** a generation of beans in the {@link #beanCache} - guarded by it */
+    private long cacheGeneration = 0;
+    /** {@code true} if {@link #providers} are shared with a fork and have to be copied before they are modified - guarded by {@link #providersLock} */
+    private boolean providersShared = false;
+    /** held while {@link #providers} are modified or shared with a fork */
+    private final Object providersLock = new Object();
+    /** one lock per bean name - held while the bean is being created */
+    private final ConcurrentHashMap<String, Object> creationLocks = new ConcurrentHashMap<>();
+    /** incremented by every {@link #drop(String, Object)} - links made by {@link #keepingLink(String)} check it */
+    private final AtomicLong drops = new AtomicLong();
+    /** listeners of a registry this scope is registered with */
+    private volatile List<BeanCreationListener> creationListeners = Collections.emptyList();
 
     protected BaseScopeImpl(String name, Logger logger) {
         this.logger = logger;
@@ -31,14 +66,19 @@ public class BaseScopeImpl implements Scope {
     @Override
     public <T> T getBean(String name) {
         logger.trace("getBean({})", name);
+        requireBean(name);
+        @SuppressWarnings("unchecked") T bean = getBeanFromBeans(name);
+        return bean;
+    }
+
+    /** @throws SimpleDiException if the scope is not started or has no {@link BeanProvider} registered under the name */
+    protected void requireBean(String name) {
         if (!started) {
             throw new SimpleDiException("Scope '" + getName() + "' is not started");
         }
         if (!providers.containsKey(name)) {
             throw new SimpleDiException("Scope '" + getName() + "' does not have a BeanProvider instance registered under the name '" + name + "'");
         }
-        @SuppressWarnings("unchecked") T bean = getBeanFromBeans(name);
-        return bean;
     }
 
     /**
@@ -47,24 +87,123 @@ public class BaseScopeImpl implements Scope {
      */
     protected <T> T getBeanFromBeans(String name) {
         logger.trace("getBeanFromBeans({})", name);
-        @SuppressWarnings("unchecked")
-        T bean = (T) beanCache.get(name);
+        long generation = startedGeneration();
+        T bean = cachedBean(name);
         if (bean == null) {
             logger.trace("bean not in cache, asking provider");
             bean = provideBean(name);
-            beanCache.put(name, bean);
+            cacheBean(name, bean, generation);
         }
         return bean;
     }
 
+    /**
+     * Returns a {@link Bean} from the {@link #beanCache} or creates and caches it - only a creation of the same bean is blocking.
+     *
+     * @param creation creates the bean - called with the bean's lock held
+     */
+    protected final <T> T cachedOrCreatedBean(String name, Supplier<T> creation) {
+        return lockedLookup(name, () -> cachedBean(name), generation -> {
+            T bean = creation.get();
+            cacheBean(name, bean, generation);
+            return bean;
+        });
+    }
+
+    /**
+     * Looks a {@link Bean} up and creates it if it was not found - only a creation of the same bean is blocking.
+     *
+     * @param lookup   returns the bean or {@code null} - called again with the bean's lock held before it is created
+     * @param creation creates the bean with its lock held - gets the {@link #startedGeneration()} read before the second lookup
+     */
+    protected final <T> T lockedLookup(String name, Supplier<T> lookup, LongFunction<T> creation) {
+        return lockedLookup(creationLocks, name, lookup, creation);
+    }
+
+    /**
+     * Same as {@link #lockedLookup(String, Supplier, LongFunction)} but it uses locks of the map provided - beans kept apart
+     * (by a key for example) are then created concurrently.
+     */
+    protected final <T> T lockedLookup(ConcurrentMap<String, Object> locks, String name, Supplier<T> lookup, LongFunction<T> creation) {
+        T bean = lookup.get();
+        if (bean != null) {
+            return bean;
+        }
+        synchronized (locks.computeIfAbsent(name, key -> new Object())) {
+            long generation = startedGeneration();
+            bean = lookup.get();
+            if (bean == null) {
+                logger.trace("bean '{}' not created yet, asking provider", name);
+                bean = creation.apply(generation);
+            }
+            return bean;
+        }
+    }
+
+    /** @return a cached {@link Bean} of the current generation or {@code null} */
+    protected <T> T cachedBean(String name) {
+        synchronized (beanCache) {
+            dropStaleBeans();
+            @SuppressWarnings("unchecked") T bean = (T) beanCache.get(name);
+            return bean;
+        }
+    }
+
+    /**
+     * Caches a {@link Bean} unless the scope was ended since its creation began.
+     *
+     * @param generation the {@link #startedGeneration()} read before the bean was created
+     * @return {@code true} if the bean was cached
+     */
+    protected boolean cacheBean(String name, Object bean, long generation) {
+        synchronized (beanCache) {
+            dropStaleBeans();
+            if (!isCurrent(generation)) {
+                logger.trace("scope '{}' was ended while bean '{}' was created - not caching it", this.name, name);
+                return false;
+            }
+            beanCache.put(name, bean);
+            return true;
+        }
+    }
+
+    /**
+     * Read it before a {@link Bean} is created and pass it to {@link #cacheBean(String, Object, long)} (or check it with
+     * {@link #isCurrent(long)}) so that a bean created while the scope was ended and started again is not kept.
+     *
+     * @return a generation of beans created now
+     * @throws SimpleDiException if the scope is not started
+     */
+    protected final long startedGeneration() {
+        long current = generation.get();
+        if (!started) {
+            throw new SimpleDiException("Scope '" + getName() + "' is not started");
+        }
+        return current;
+    }
+
+    /** @return {@code true} if the scope is started and was not ended since the generation was read */
+    protected final boolean isCurrent(long generation) {
+        return started && this.generation.get() == generation;
+    }
+
+    /** must be called with the {@link #beanCache} lock held */
+    private void dropStaleBeans() {
+        long current = generation.get();
+        if (cacheGeneration != current) {
+            beanCache.clear();
+            cacheGeneration = current;
+        }
+    }
+
     /** Calls a provider for a {@link Bean} instance. */
     protected <T> T provideBean(String name) {
         logger.trace("provideBean({})", name);
         T bean;
         try {
             @SuppressWarnings("unchecked")
-            BeanProvider<T> provider = providers.get(name);
-            bean = provider.provide();
+            BeanProvider<T> provider = (BeanProvider<T>) providers.get(name);
+            bean = provide(name, provider);
             provider.setSoftDependencies(bean);
         } catch (ClassCastException ccs) {
             throw new SimpleDiException("In Scope '" + getName() + "' BeanProvider '" + name + "' produced a value with a wrong type", ccs);
@@ -75,12 +214,90 @@ public class BaseScopeImpl implements Scope {
         return bean;
     }
 
+    /** Calls a provider for a {@link Bean} instance and notifies the {@link #setCreationListeners(List) creation listeners}. */
+    protected final <T> T provide(String name, BeanProvider<T> provider) {
+        return BeanCreationListener.provide(creationListeners, getName(), name, provider);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setCreationListeners(List<BeanCreationListener> listeners) {
+        creationListeners = listeners;
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasBean(String name) {
         return started && providers.containsKey(name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> beanNames() {
+        Map<String, BeanProvider<?>> current = providers;
+        synchronized (current) {
+            return new ArrayList<>(current.keySet());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasInstance(String name) {
+        return cachedBean(name) != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object instance(String name) {
+        return cachedBean(name);
+    }
+
+    /** {@inheritDoc} Subclasses that keep instances elsewhere than in the {@link #beanCache} drop them and call this method. */
+    @Override
+    public void drop(String name, Object instance) {
+        synchronized (beanCache) {
+            if (beanCache.get(name) == instance) {
+                beanCache.remove(name);
+            }
+        }
+        drops.incrementAndGet();
+    }
+
+    /**
+     * A link for scopes that keep their beans - it holds the bean as weakly as the scope does
+     * and looks it up again once the scope {@link #drop(String, Object) dropped} any instance.
+     */
+    protected final <T> Supplier<T> keepingLink(String name) {
+        return new Supplier<T>() {
+
+            private volatile Linked<T> linked;
+
+            @Override
+            public T get() {
+                Linked<T> current = linked;
+                T bean = current != null && current.drops == drops.get() ? current.get() : null;
+                if (bean == null) {
+                    long dropsBefore = drops.get();
+                    bean = getBean(name);
+                    linked = new Linked<>(bean, dropsBefore);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BeanProvider<?> provider(String name) {
+        return providers.get(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getName() {
@@ -91,10 +308,51 @@ public class BaseScopeImpl implements Scope {
     @Override
     public <T> void register(BeanProvider<T> beanProvider, String name) {
         logger.trace("register({}, {})", beanProvider, name);
-        if (providers.containsKey(name)) {
-            throw new SimpleDiException("Scope '" + getName() + "' already has a BeanProvider instance registered under the name '" + name + "'");
+        synchronized (providersLock) {
+            if (providersShared) {
+                providers = synchronizedProviders(providers);
+                providersShared = false;
+            }
+            if (providers.putIfAbsent(name, beanProvider) != null) {
+                throw new SimpleDiException("Scope '" + getName() + "' already has a BeanProvider instance registered under the name '" + name + "'");
+            }
+        }
+    }
+
+    private static Map<String, BeanProvider<?>> synchronizedProviders(Map<String, BeanProvider<?>> content) {
+        synchronized (content) {
+            return Collections.synchronizedMap(new LinkedHashMap<>(content));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The fork is created with {@link #newInstance()} and shares {@link #providers} with this scope until either of them registers a new one.
+     */
+    @Override
+    public Scope fork() {
+        logger.trace("fork() on scope '{}'", name);
+        BaseScopeImpl fork = newInstance();
+        synchronized (providersLock) {
+            fork.providers = providers;
+            fork.providersShared = true;
+            providersShared = true;
+        }
+        return fork;
+    }
+
+    /**
+     * Creates a new instance of this scope's class with its no-args constructor (custom scopes need one anyway for the ServiceLoader).
+     * Subclasses without such a constructor should override this method.
+     */
+    protected BaseScopeImpl newInstance() {
+        try {
+            return getClass().getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw new SimpleDiException("Scope '" + getName() + "' cannot be forked because its no-args constructor failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SimpleDiException("Scope '" + getName() + "' cannot be forked because it has no accessible no-args constructor", e);
         }
-        providers.put(name, beanProvider);
     }
 
     /** {@inheritDoc} */
@@ -104,10 +362,22 @@ public class BaseScopeImpl implements Scope {
         started = true;
     }
 
-    /** {@inheritDoc} */
+    /** {@inheritDoc} Cached beans are invalidated in constant time - by starting a new generation. */
     @Override
     public void end() {
         logger.trace("end() on scope '{}'", name);
         started = false;
+        generation.incrementAndGet();
+    }
+
+    /** a linked bean with a number of drops made before it was looked up */
+    private static final class Linked<T> extends WeakReference<T> {
+
+        final long drops;
+
+        Linked(T bean, long drops) {
+            super(bean);
+            this.drops = drops;
+        }
     }
 }
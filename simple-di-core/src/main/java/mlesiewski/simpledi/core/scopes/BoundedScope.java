@@ -0,0 +1,454 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BeanProvider;
+import mlesiewski.simpledi.core.SimpleDiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A scope that keeps at most a given number (or a total weight) of beans - per-tenant model objects for example.
+ * Beans are created lazily and evicted with the W-TinyLFU policy: a new bean enters a small LRU window and then has to be
+ * used more often than the least recently used bean of the main space (as estimated by a {@link FrequencySketch}) to
+ * take its place. The main space is a segmented LRU - beans used again are protected from eviction.
+ * <p>
+ * Lookups of cached beans do not lock - their use is recorded in a buffer and applied to the policy later.
+ * Evicted beans are passed to {@link #onEviction(BiConsumer) a callback} and hits, misses and evictions are counted.
+ */
+public class BoundedScope extends BaseScopeImpl {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedScope.class);
+    /** a percent of the capacity given to the window */
+    private static final int WINDOW_PERCENT = 1;
+    /** a percent of the main space given to the protected segment */
+    private static final int PROTECTED_PERCENT = 80;
+    /** recorded reads are applied when there is that many of them */
+    private static final int DRAIN_THRESHOLD = 32;
+    /** recorded reads above that are dropped - the policy does not need every one of them */
+    private static final int MAX_PENDING_READS = 1024;
+
+    private final long maximum;
+    private final ToIntBiFunction<String, Object> weigher;
+    private volatile BiConsumer<String, Object> evictionListener = (name, bean) -> { };
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final Queue<Node> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingReads = new AtomicInteger();
+
+    /** guards the policy - everything below */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder probation = new AccessOrder();
+    private final AccessOrder protectedSegment = new AccessOrder();
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictedWeight = new LongAdder();
+
+    /**
+     * Creates new, started Bounded Scope that keeps at most a given number of beans.
+     *
+     * @param name        a name of the scope
+     * @param maximumSize a maximum number of beans
+     * @throws SimpleDiException if the maximum is not positive
+     */
+    public BoundedScope(String name, long maximumSize) {
+        this(name, maximumSize, (beanName, bean) -> 1, maximumSize);
+    }
+
+    /**
+     * Creates new, started Bounded Scope that keeps beans of at most a given total weight.
+     *
+     * @param name          a name of the scope
+     * @param maximumWeight a maximum total weight of beans
+     * @param weigher       gives a weight of a bean - it is called once, when the bean is cached
+     * @throws SimpleDiException if the maximum is not positive
+     */
+    public BoundedScope(String name, long maximumWeight, ToIntBiFunction<String, Object> weigher) {
+        this(name, maximumWeight, weigher, Math.min(maximumWeight, Integer.MAX_VALUE));
+    }
+
+    private BoundedScope(String name, long maximum, ToIntBiFunction<String, Object> weigher, long expectedBeans) {
+        super(name, LOGGER);
+        if (maximum <= 0) {
+            throw new SimpleDiException("Scope '" + name + "' maximum has to be positive but was " + maximum);
+        }
+        this.maximum = maximum;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedBeans);
+        this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximum - windowMaximum) * PROTECTED_PERCENT / 100;
+        start();
+    }
+
+    /**
+     * @param listener called with a name and an instance of every bean removed from this scope (outside of any lock)
+     * @return this scope
+     */
+    public BoundedScope onEviction(BiConsumer<String, Object> listener) {
+        this.evictionListener = listener;
+        return this;
+    }
+
+    /** {@inheritDoc} A cached instance is returned without locking. */
+    @Override
+    public <T> T getBean(String name) {
+        Node node = started ? data.get(name) : null;
+        if (node != null) {
+            hits.increment();
+            recordRead(node);
+            @SuppressWarnings("unchecked") T bean = (T) node.bean;
+            return bean;
+        }
+        return super.getBean(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        Node node = data.get(name);
+        if (node == null) {
+            node = lockedLookup(name, () -> data.get(name), generation -> {
+                misses.increment();
+                Object bean = provideBean(name);
+                Node created = new Node(name, bean, weigher.applyAsInt(name, bean));
+                afterWrite(created, generation);
+                return created;
+            });
+        } else {
+            hits.increment();
+            recordRead(node);
+        }
+        @SuppressWarnings("unchecked") T bean = (T) node.bean;
+        return bean;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasInstance(String name) {
+        return data.containsKey(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object instance(String name) {
+        Node node = data.get(name);
+        return node != null ? node.bean : null;
+    }
+
+    /** {@inheritDoc} All beans are removed (and passed to the eviction callback). */
+    @Override
+    public void end() {
+        super.end();
+        List<Node> removed = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            for (Node node : data.values()) {
+                if (data.remove(node.name, node)) {
+                    unlink(node);
+                    removed.add(node);
+                }
+            }
+            readBuffer.clear();
+            pendingReads.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(removed);
+    }
+
+    /** {@inheritDoc} It is not passed to the eviction callback. */
+    @Override
+    public void drop(String name, Object instance) {
+        evictionLock.lock();
+        try {
+            Node node = data.get(name);
+            if (node != null && node.bean == instance && data.remove(name, node)) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        super.drop(name, instance);
+    }
+
+    /** @return number of cached beans */
+    public long size() {
+        return data.size();
+    }
+
+    /** @return a total weight of cached beans */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** @return number of lookups that found a cached bean */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return number of lookups that created a bean */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /** @return a ratio of hits to all lookups or {@code 1} if there were none */
+    public double hitRatio() {
+        long hitCount = hitCount();
+        long requests = hitCount + missCount();
+        return requests == 0 ? 1 : (double) hitCount / requests;
+    }
+
+    /** @return number of evicted beans */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return a total weight of evicted beans */
+    public long evictionWeight() {
+        return evictedWeight.sum();
+    }
+
+    /** {@inheritDoc} The fork has the same bounds, weigher and eviction callback. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        BoundedScope fork = getClass() == BoundedScope.class
+                ? new BoundedScope(name, maximum, weigher, sketchCapacity())
+                : (BoundedScope) super.newInstance();
+        fork.evictionListener = evictionListener;
+        return fork;
+    }
+
+    /** applies recorded reads if nobody else does - never waits for the lock */
+    private void recordRead(Node node) {
+        if (pendingReads.incrementAndGet() > MAX_PENDING_READS) {
+            pendingReads.decrementAndGet();
+        } else {
+            readBuffer.offer(node);
+        }
+        if (pendingReads.get() >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /** adds the node unless the scope was ended since it was created - {@link #end()} takes the lock after it starts a new generation */
+    private void afterWrite(Node node, long generation) {
+        List<Node> evicted;
+        evictionLock.lock();
+        try {
+            if (!isCurrent(generation)) {
+                LOGGER.trace("scope '{}' was ended while bean '{}' was created - not caching it", getName(), node.name);
+                return;
+            }
+            data.put(node.name, node);
+            drainReads();
+            sketch.increment(node.name);
+            window.addLast(node);
+            node.queue = Node.WINDOW;
+            windowWeight += node.weight;
+            totalWeight += node.weight;
+            while (windowWeight > windowMaximum && window.first() != null) {
+                Node candidate = window.first();
+                window.remove(candidate);
+                windowWeight -= candidate.weight;
+                probation.addLast(candidate);
+                candidate.queue = Node.PROBATION;
+            }
+            evicted = evict();
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /** @return nodes evicted until the total weight fits - the newest probation node competes with the oldest one */
+    private List<Node> evict() {
+        List<Node> evicted = new ArrayList<>();
+        while (totalWeight > maximum) {
+            Node victim = probation.first();
+            Node candidate = probation.last();
+            Node evict;
+            if (victim == null) {
+                evict = protectedSegment.first() != null ? protectedSegment.first() : window.first();
+            } else if (victim == candidate) {
+                evict = victim;
+            } else {
+                evict = sketch.frequency(candidate.name) > sketch.frequency(victim.name) ? victim : candidate;
+            }
+            if (evict == null) {
+                break;
+            }
+            unlink(evict);
+            data.remove(evict.name, evict);
+            evictions.increment();
+            evictedWeight.add(evict.weight);
+            evicted.add(evict);
+        }
+        return evicted;
+    }
+
+    private void drainReads() {
+        Node node;
+        while ((node = readBuffer.poll()) != null) {
+            pendingReads.decrementAndGet();
+            onAccess(node);
+        }
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == Node.DEAD) {
+            return;
+        }
+        sketch.increment(node.name);
+        if (node.queue == Node.WINDOW) {
+            window.moveToEnd(node);
+        } else if (node.queue == Node.PROBATION) {
+            probation.remove(node);
+            protectedSegment.addLast(node);
+            node.queue = Node.PROTECTED;
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMaximum && protectedSegment.first() != null) {
+                Node demoted = protectedSegment.first();
+                protectedSegment.remove(demoted);
+                protectedWeight -= demoted.weight;
+                probation.addLast(demoted);
+                demoted.queue = Node.PROBATION;
+            }
+        } else {
+            protectedSegment.moveToEnd(node);
+        }
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedSegment.remove(node);
+                protectedWeight -= node.weight;
+                break;
+            default:
+                return;
+        }
+        totalWeight -= node.weight;
+        node.queue = Node.DEAD;
+    }
+
+    private void notifyEvicted(List<Node> evicted) {
+        BiConsumer<String, Object> listener = evictionListener;
+        for (Node node : evicted) {
+            LOGGER.trace("evicted bean '{}' from scope '{}'", node.name, name);
+            try {
+                listener.accept(node.name, node.bean);
+            } catch (RuntimeException e) {
+                LOGGER.warn("eviction callback failed for bean '{}' in scope '{}'", node.name, name, e);
+            }
+        }
+    }
+
+    private long sketchCapacity() {
+        return Math.min(maximum, Integer.MAX_VALUE);
+    }
+
+    /** a cached bean and its place in the policy */
+    private static final class Node {
+
+        static final int WINDOW = 0;
+        static final int PROBATION = 1;
+        static final int PROTECTED = 2;
+        static final int DEAD = 3;
+
+        final String name;
+        final Object bean;
+        final int weight;
+        /** guarded by the eviction lock */
+        int queue = DEAD;
+        Node previous;
+        Node next;
+
+        Node(String name, Object bean, int weight) {
+            this.name = name;
+            this.bean = bean;
+            this.weight = Math.max(0, weight);
+        }
+    }
+
+    /** an intrusive doubly linked list from the least to the most recently used node */
+    private static final class AccessOrder {
+
+        private Node first;
+        private Node last;
+
+        Node first() {
+            return first;
+        }
+
+        Node last() {
+            return last;
+        }
+
+        void addLast(Node node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToEnd(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
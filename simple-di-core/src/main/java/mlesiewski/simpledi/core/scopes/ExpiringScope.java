@@ -0,0 +1,284 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BeanProvider;
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.annotations.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A scope of beans that wrap periodically reloaded data - feature flags or routing tables for example.
+ * Every bean has a time to live. A bean is created lazily and then a background refresher asks its {@link BeanProvider} for a new one
+ * before the old one expires and swaps it in atomically. Lookups never wait for a refresh - they return the current instance.
+ * If a refresh fails the old instance is kept, the failure is counted and the refresh is retried.
+ * An instance that was not looked up since its last refresh is not refreshed again - it expires and the next lookup creates a new one.
+ */
+public class ExpiringScope extends BaseScopeImpl {
+
+    /** Ties a {@link Bean} to the expiring scope. */
+    public static final String NAME = "mlesiewski.simpledi.Scope.EXPIRING_SCOPE";
+
+    /** a time to live of beans that were not given one */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpiringScope.class);
+    /** a bean is refreshed when this part of its time to live is left - and retried after that long if the refresh failed */
+    private static final int REFRESH_AHEAD_DIVISOR = 5;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(daemonThreads("simple-di-expiring-scheduler-"));
+    /** providers can be slow so they are not called by the scheduler itself */
+    private static final ExecutorService REFRESHERS = Executors.newCachedThreadPool(daemonThreads("simple-di-expiring-refresher-"));
+
+    private final Duration defaultTimeToLive;
+    private final ConcurrentHashMap<String, Duration> timesToLive = new ConcurrentHashMap<>();
+    /** current instances - an entry is replaced as a whole so a lookup never sees a half refreshed bean */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Throwable> lastRefreshFailures = new ConcurrentHashMap<>();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    /** Creates new, started Expiring Scope with the {@link #DEFAULT_TIME_TO_LIVE}. */
+    public ExpiringScope() {
+        this(NAME, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates new, started Expiring Scope.
+     *
+     * @param name              a name of the scope
+     * @param defaultTimeToLive a time to live of beans that were not given one with {@link #timeToLive(String, Duration)}
+     * @throws SimpleDiException if the time to live is not positive
+     */
+    public ExpiringScope(String name, Duration defaultTimeToLive) {
+        super(name, LOGGER);
+        this.defaultTimeToLive = validTimeToLive(defaultTimeToLive);
+        start();
+    }
+
+    /**
+     * Sets a time to live of a bean - it is used for instances created afterwards.
+     *
+     * @param beanName   a name under which a {@link BeanProvider} is (or will be) registered
+     * @param timeToLive a time after which an instance of the bean expires
+     * @return this scope
+     * @throws SimpleDiException if the time to live is not positive
+     */
+    public ExpiringScope timeToLive(String beanName, Duration timeToLive) {
+        timesToLive.put(beanName, validTimeToLive(timeToLive));
+        return this;
+    }
+
+    /**
+     * Registers a {@link BeanProvider} with a time to live of its beans.
+     *
+     * @see #register(BeanProvider, String)
+     * @see #timeToLive(String, Duration)
+     */
+    public <T> void register(BeanProvider<T> beanProvider, String name, Duration timeToLive) {
+        timeToLive(name, timeToLive);
+        register(beanProvider, name);
+    }
+
+    /** {@inheritDoc} A current instance is returned without waiting even if it is being refreshed. */
+    @Override
+    public <T> T getBean(String name) {
+        Entry entry = currentEntry(name);
+        if (entry != null) {
+            entry.markRead();
+            @SuppressWarnings("unchecked") T bean = (T) entry.bean;
+            return bean;
+        }
+        return super.getBean(name);
+    }
+
+    /** {@inheritDoc} Only the first creation of the same bean is blocking. An instance from before the scope was ended is replaced. */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        Entry entry = lockedLookup(name, () -> currentEntry(name), generation -> {
+            Entry created = new Entry(provideBean(name), BeanRegistryContext.current(), timeToLiveOf(name), generation, true);
+            Entry stale = entries.put(name, created);
+            if (stale != null) {
+                stale.cancelRefresh();
+            }
+            scheduleRefresh(name, created, created.refreshDelayMillis());
+            return created;
+        });
+        @SuppressWarnings("unchecked") T bean = (T) entry.bean;
+        return bean;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasInstance(String name) {
+        return instance(name) != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object instance(String name) {
+        Entry entry = currentEntry(name);
+        return entry != null ? entry.bean : null;
+    }
+
+    /** {@inheritDoc} Its refresh is cancelled. */
+    @Override
+    public void drop(String name, Object instance) {
+        Entry entry = entries.get(name);
+        if (entry != null && entry.bean == instance && entries.remove(name, entry)) {
+            entry.cancelRefresh();
+        }
+        super.drop(name, instance);
+    }
+
+    /** @return an entry of the bean if it belongs to the current generation */
+    private Entry currentEntry(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && isCurrent(entry.generation) ? entry : null;
+    }
+
+    /** @return number of successful refreshes */
+    public long refreshCount() {
+        return refreshes.sum();
+    }
+
+    /** @return number of failed refreshes */
+    public long refreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    /**
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return a cause of the last refresh of the bean if it failed
+     */
+    public Optional<Throwable> lastRefreshFailure(String name) {
+        return Optional.ofNullable(lastRefreshFailures.get(name));
+    }
+
+    /** {@inheritDoc} The fork has the same times to live. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        ExpiringScope fork = getClass() == ExpiringScope.class ? new ExpiringScope(name, defaultTimeToLive) : (ExpiringScope) super.newInstance();
+        fork.timesToLive.putAll(timesToLive);
+        return fork;
+    }
+
+    /** {@inheritDoc} Refreshes of all instances are cancelled. */
+    @Override
+    public void end() {
+        super.end();
+        entries.forEach((name, entry) -> {
+            if (entries.remove(name, entry)) {
+                entry.cancelRefresh();
+            }
+        });
+    }
+
+    /**
+     * Refreshes the bean if the entry is still the current one - the new instance is created in the registry the old one was.
+     * An entry that was not read since the last refresh, or one from before the scope was ended, is removed instead.
+     */
+    void refresh(String name, Entry entry) {
+        if (entries.get(name) != entry) {
+            return;
+        }
+        if (!isCurrent(entry.generation) || !entry.read) {
+            LOGGER.trace("letting bean '{}' of scope '{}' expire", name, getName());
+            entries.remove(name, entry);
+            return;
+        }
+        LOGGER.trace("refreshing bean '{}'", name);
+        try {
+            Object bean = entry.context.call(() -> provideBean(name));
+            Entry refreshed = new Entry(bean, entry.context, timeToLiveOf(name), entry.generation, false);
+            if (entries.replace(name, entry, refreshed)) {
+                refreshes.increment();
+                lastRefreshFailures.remove(name);
+                scheduleRefresh(name, refreshed, refreshed.refreshDelayMillis());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("could not refresh bean '{}' in scope '{}' - keeping the old instance", name, getName(), e);
+            refreshFailures.increment();
+            lastRefreshFailures.put(name, e);
+            if (entries.get(name) == entry) {
+                scheduleRefresh(name, entry, entry.retryDelayMillis());
+            }
+        }
+    }
+
+    private void scheduleRefresh(String name, Entry entry, long delayMillis) {
+        entry.refresh = SCHEDULER.schedule(() -> REFRESHERS.execute(() -> refresh(name, entry)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private Duration timeToLiveOf(String name) {
+        return timesToLive.getOrDefault(name, defaultTimeToLive);
+    }
+
+    private static Duration validTimeToLive(Duration timeToLive) {
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new SimpleDiException("Time to live has to be positive but was " + timeToLive);
+        }
+        return timeToLive;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** an instance of a bean with a registry it was created in */
+    static final class Entry {
+
+        final Object bean;
+        final BeanRegistryContext context;
+        final long timeToLiveMillis;
+        final long generation;
+        volatile ScheduledFuture<?> refresh;
+        /** {@code true} once the instance was looked up (a created one was) - only such instances are refreshed */
+        volatile boolean read;
+
+        Entry(Object bean, BeanRegistryContext context, Duration timeToLive, long generation, boolean read) {
+            this.bean = bean;
+            this.read = read;
+            this.context = context;
+            this.timeToLiveMillis = Math.max(1, timeToLive.toMillis());
+            this.generation = generation;
+        }
+
+        void markRead() {
+            if (!read) {
+                read = true;
+            }
+        }
+
+        long refreshDelayMillis() {
+            return timeToLiveMillis - retryDelayMillis();
+        }
+
+        long retryDelayMillis() {
+            return Math.max(1, timeToLiveMillis / REFRESH_AHEAD_DIVISOR);
+        }
+
+        void cancelRefresh() {
+            ScheduledFuture<?> scheduled = refresh;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
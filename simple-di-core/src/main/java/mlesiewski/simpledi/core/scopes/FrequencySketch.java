@@ -0,0 +1,81 @@
+package mlesiewski.simpledi.core.scopes;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys were used lately - the TinyLFU part of {@link BoundedScope}.
+ * Every key has a counter in each of four rows and its frequency is the smallest of them. All counters are halved
+ * once enough increments were made so that the history fades. It is not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    /** clears the highest bit of every counter after the table was shifted right */
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private static final int COUNTERS_PER_LONG = 16;
+    private static final int MAX_TABLE_LENGTH = 1 << 24;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    /** @param expectedKeys a number of keys that should be told apart - the table is sized after it */
+    FrequencySketch(long expectedKeys) {
+        int length = (int) Math.min(MAX_TABLE_LENGTH, Long.highestOneBit(Math.max(16, expectedKeys) - 1) << 1);
+        this.table = new long[length];
+        this.counterMask = length * COUNTERS_PER_LONG - 1;
+        this.sampleSize = 10 * length;
+    }
+
+    /** @return an estimated number of times the key was counted (at most 15) */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            frequency = Math.min(frequency, counter(indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    /** counts the key once */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            if (counter(index) < MAX_COUNT) {
+                table[index >>> 4] += 1L << shift(index);
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /** halves all counters */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counter(int index) {
+        return (int) ((table[index >>> 4] >>> shift(index)) & MAX_COUNT);
+    }
+
+    private int indexOf(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (mixed >>> 32) & counterMask;
+    }
+
+    private static int shift(int index) {
+        return (index & (COUNTERS_PER_LONG - 1)) << 2;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
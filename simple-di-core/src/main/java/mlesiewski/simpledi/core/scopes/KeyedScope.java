@@ -0,0 +1,316 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BeanProvider;
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.annotations.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A scope of beans kept per key - a tenant, a customer or a region for example. Every key has its own table of beans.
+ * The key of a lookup is resolved by a key source ({@link #CURRENT_KEY a thread-local one} by default) or given explicitly
+ * with {@link #getBean(Object, String)}. The number of keys is bounded - the least recently used key is evicted with all its beans
+ * when a new one does not fit, and {@link #drop(Object)} removes a key on demand. Lookups of created beans do not lock.
+ */
+public class KeyedScope extends BaseScopeImpl {
+
+    /** Ties a {@link Bean} to the keyed scope. */
+    public static final String NAME = "mlesiewski.simpledi.Scope.KEYED_SCOPE";
+
+    /** a number of keys of a scope created with the no-args constructor */
+    public static final int DEFAULT_MAXIMUM_KEYS = 1024;
+
+    /** a default key source - set a key of the current thread in it */
+    public static final ThreadLocalKey CURRENT_KEY = new ThreadLocalKey();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedScope.class);
+    /** a key's last access time is not updated more often than this - so lookups of a warm key do not write shared memory */
+    private static final long ACCESS_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<?> keySource;
+    private final int maximumKeys;
+    private final ConcurrentHashMap<Object, Table> tables = new ConcurrentHashMap<>();
+    /** held while a key is added or evicted - never by lookups of existing keys */
+    private final Object keysLock = new Object();
+    private volatile BiConsumer<Object, Map<String, Object>> removalListener = (key, beans) -> {
+    };
+
+    /** Creates new, started Keyed Scope with keys from {@link #CURRENT_KEY} and at most {@link #DEFAULT_MAXIMUM_KEYS} of them. */
+    public KeyedScope() {
+        this(NAME, CURRENT_KEY, DEFAULT_MAXIMUM_KEYS);
+    }
+
+    /**
+     * Creates new, started Keyed Scope.
+     *
+     * @param name        a name of the scope
+     * @param keySource   gives a key of the current lookup - {@code null} if there is none
+     * @param maximumKeys a number of keys kept at most
+     * @throws SimpleDiException if the number is not positive
+     */
+    public KeyedScope(String name, Supplier<?> keySource, int maximumKeys) {
+        super(name, LOGGER);
+        if (maximumKeys <= 0) {
+            throw new SimpleDiException("Scope '" + name + "' maximum number of keys has to be positive but was " + maximumKeys);
+        }
+        this.keySource = keySource;
+        this.maximumKeys = maximumKeys;
+        start();
+    }
+
+    /**
+     * @param listener called with a key and its beans whenever a key is evicted or dropped (outside of any lock)
+     * @return this scope
+     */
+    public KeyedScope onRemoval(BiConsumer<Object, Map<String, Object>> listener) {
+        this.removalListener = listener;
+        return this;
+    }
+
+    /** {@inheritDoc} The bean of the key given by the key source. */
+    @Override
+    public <T> T getBean(String name) {
+        return getBean(currentKey(), name);
+    }
+
+    /**
+     * @param key  a key whose bean is requested
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return the bean of the key
+     * @throws SimpleDiException if the key is {@code null}, the scope is not started or it has no such provider
+     */
+    public <T> T getBean(Object key, String name) {
+        Table table = key != null ? tables.get(key) : null;
+        if (table != null && isCurrent(table.generation)) {
+            Object bean = table.beans.get(name);
+            if (bean != null) {
+                table.touch();
+                @SuppressWarnings("unchecked") T typed = (T) bean;
+                return typed;
+            }
+        }
+        requireKey(key);
+        requireBean(name);
+        return createBean(key, name);
+    }
+
+    /** {@inheritDoc} The bean of the key given by the key source. */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        Object key = currentKey();
+        requireKey(key);
+        return createBean(key, name);
+    }
+
+    /**
+     * Removes all beans of the key.
+     *
+     * @param key a key to remove
+     * @return {@code true} if the key had beans
+     */
+    public boolean drop(Object key) {
+        Table removed;
+        synchronized (keysLock) {
+            removed = tables.remove(key);
+        }
+        if (removed != null) {
+            LOGGER.trace("dropped key '{}' from scope '{}'", key, getName());
+            notifyRemoved(key, removed);
+        }
+        return removed != null;
+    }
+
+    /** {@inheritDoc} Of whichever key it belongs to. */
+    @Override
+    public void drop(String name, Object instance) {
+        tables.values().forEach(table -> table.beans.remove(name, instance));
+        super.drop(name, instance);
+    }
+
+    /** @return keys that have beans (in no particular order) */
+    public List<Object> keys() {
+        List<Object> keys = new ArrayList<>();
+        tables.forEach((key, table) -> {
+            if (isCurrent(table.generation)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    /** @return a number of keys kept at most */
+    public int maximumKeys() {
+        return maximumKeys;
+    }
+
+    /** {@inheritDoc} Of the key given by the key source. */
+    @Override
+    public boolean hasInstance(String name) {
+        return instance(name) != null;
+    }
+
+    /** {@inheritDoc} Of the key given by the key source. */
+    @Override
+    public Object instance(String name) {
+        Object key = currentKey();
+        Table table = key != null ? tables.get(key) : null;
+        return table != null && isCurrent(table.generation) ? table.beans.get(name) : null;
+    }
+
+    /** {@inheritDoc} The fork has the same key source, bound and removal listener. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        KeyedScope fork = getClass() == KeyedScope.class ? new KeyedScope(name, keySource, maximumKeys) : (KeyedScope) super.newInstance();
+        fork.removalListener = removalListener;
+        return fork;
+    }
+
+    private <T> T createBean(Object key, String name) {
+        long generation = startedGeneration();
+        Table table = tableOf(key, generation);
+        Object bean = lockedLookup(table.creationLocks, name, () -> table.beans.get(name), ignored -> {
+            LOGGER.trace("creating bean '{}' of key '{}'", name, key);
+            Object created = provideBean(name);
+            table.beans.put(name, created);
+            return created;
+        });
+        @SuppressWarnings("unchecked") T typed = (T) bean;
+        return typed;
+    }
+
+    /** @return a table of the key in the generation - a table of an older generation is replaced, the least recently used key evicted */
+    private Table tableOf(Object key, long generation) {
+        Table table = tables.get(key);
+        if (table != null && table.generation == generation) {
+            table.touch();
+            return table;
+        }
+        Map<Object, Table> evicted = Collections.emptyMap();
+        synchronized (keysLock) {
+            table = tables.get(key);
+            if (table == null || table.generation != generation) {
+                table = new Table(generation);
+                Table stale = tables.put(key, table);
+                if (stale == null) {
+                    evicted = evictKeys();
+                }
+            }
+        }
+        evicted.forEach(this::notifyRemoved);
+        return table;
+    }
+
+    /** evicts least recently used keys until they fit - stale tables go first, they are older than any access */
+    private Map<Object, Table> evictKeys() {
+        Map<Object, Table> evicted = new HashMap<>();
+        while (tables.size() > maximumKeys) {
+            Object victim = null;
+            long oldest = 0;
+            for (Map.Entry<Object, Table> entry : tables.entrySet()) {
+                Table table = entry.getValue();
+                if (!isCurrent(table.generation)) {
+                    victim = entry.getKey();
+                    break;
+                }
+                if (victim == null || table.lastAccess - oldest < 0) {
+                    victim = entry.getKey();
+                    oldest = table.lastAccess;
+                }
+            }
+            LOGGER.trace("evicting key '{}' from scope '{}'", victim, getName());
+            evicted.put(victim, tables.remove(victim));
+        }
+        return evicted;
+    }
+
+    private void notifyRemoved(Object key, Table table) {
+        if (!table.beans.isEmpty()) {
+            removalListener.accept(key, Collections.unmodifiableMap(table.beans));
+        }
+    }
+
+    private Object currentKey() {
+        return keySource.get();
+    }
+
+    private void requireKey(Object key) {
+        if (key == null) {
+            throw new SimpleDiException("Scope '" + getName() + "' has no key for the current lookup");
+        }
+    }
+
+    /** beans of one key in one generation */
+    private static final class Table {
+
+        final long generation;
+        final ConcurrentHashMap<String, Object> beans = new ConcurrentHashMap<>();
+        /** creation locks of beans of the key - beans of other keys are created concurrently */
+        final ConcurrentHashMap<String, Object> creationLocks = new ConcurrentHashMap<>();
+        volatile long lastAccess = System.nanoTime();
+
+        Table(long generation) {
+            this.generation = generation;
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            if (now - lastAccess > ACCESS_RESOLUTION_NANOS) {
+                lastAccess = now;
+            }
+        }
+    }
+
+    /** A key source keeping a key per thread. */
+    public static final class ThreadLocalKey implements Supplier<Object> {
+
+        private final ThreadLocal<Object> key = new ThreadLocal<>();
+
+        /** @return a key of the current thread or {@code null} */
+        @Override
+        public Object get() {
+            return key.get();
+        }
+
+        /** @param key a key of the current thread - {@code null} clears it */
+        public void set(Object key) {
+            if (key == null) {
+                this.key.remove();
+            } else {
+                this.key.set(key);
+            }
+        }
+
+        /**
+         * Runs the task with the key set on the current thread - the previous one is restored afterwards.
+         *
+         * @return a result of the task
+         */
+        public <T> T call(Object key, Supplier<T> task) {
+            Object previous = get();
+            set(key);
+            try {
+                return task.get();
+            } finally {
+                set(previous);
+            }
+        }
+
+        /** Runs the task with the key set on the current thread - the previous one is restored afterwards. */
+        public void run(Object key, Runnable task) {
+            call(key, () -> {
+                task.run();
+                return null;
+            });
+        }
+    }
+}
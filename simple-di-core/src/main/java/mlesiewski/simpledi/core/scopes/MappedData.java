@@ -0,0 +1,144 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only content of a memory-mapped file - shared by all processes that mapped the file and kept outside of the heap.
+ * A single {@link ByteBuffer} cannot address more than 2 GB so a bigger file is mapped in {@link #segments() segments}.
+ * Absolute reads are zero-copy and safe to use from many threads. Values are read in the big-endian byte order.
+ * Created by {@link MappedScope#data(MappedScope.Writer)}.
+ */
+public final class MappedData {
+
+    /** a size of segments of big files - a power of two so that a position is split into a segment and an offset cheaply */
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final Path file;
+    private final long size;
+    private final int segmentShift;
+    private final long offsetMask;
+    private final MappedByteBuffer[] segments;
+
+    private MappedData(Path file, long size, int segmentSize, MappedByteBuffer[] segments) {
+        this.file = file;
+        this.size = size;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.offsetMask = segmentSize - 1;
+        this.segments = segments;
+    }
+
+    /** maps the whole file read-only in segments of the given size (a power of two) */
+    static MappedData map(Path file, int segmentSize) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + segmentSize - 1) / segmentSize);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i * segmentSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+            }
+            return new MappedData(file, size, segmentSize, segments);
+        } catch (IOException e) {
+            throw new SimpleDiException("Could not map file '" + file + "'", e);
+        }
+    }
+
+    /** @return the mapped file */
+    public Path file() {
+        return file;
+    }
+
+    /** @return a size of the content in bytes */
+    public long size() {
+        return size;
+    }
+
+    /** @return a byte at the position */
+    public byte get(long position) {
+        checkIndex(position, Byte.BYTES);
+        return segments[segment(position)].get(offset(position));
+    }
+
+    /** @return an int at the position */
+    public int getInt(long position) {
+        checkIndex(position, Integer.BYTES);
+        int offset = offset(position);
+        MappedByteBuffer segment = segments[segment(position)];
+        if (offset + Integer.BYTES <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        return (int) readAcrossSegments(position, Integer.BYTES);
+    }
+
+    /** @return a long at the position */
+    public long getLong(long position) {
+        checkIndex(position, Long.BYTES);
+        int offset = offset(position);
+        MappedByteBuffer segment = segments[segment(position)];
+        if (offset + Long.BYTES <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+        return readAcrossSegments(position, Long.BYTES);
+    }
+
+    /**
+     * A zero-copy view of a part of the content.
+     *
+     * @return a read-only buffer of the given length starting at the position
+     * @throws SimpleDiException if the part crosses a border of two segments - a view would have to be copied
+     */
+    public ByteBuffer slice(long position, int length) {
+        checkIndex(position, length);
+        int offset = offset(position);
+        ByteBuffer view = segments[segment(position)].duplicate();
+        if (offset + length > view.limit()) {
+            throw new SimpleDiException("Bytes " + position + "-" + (position + length) + " of '" + file + "' cross a border of mapped segments");
+        }
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    /** @return read-only views of consecutive segments of the content - each of them has its own position */
+    public ByteBuffer[] segments() {
+        ByteBuffer[] views = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            views[i] = segments[i].duplicate();
+        }
+        return views;
+    }
+
+    private long readAcrossSegments(long position, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (get(position + i) & 0xff);
+        }
+        return value;
+    }
+
+    private int segment(long position) {
+        return (int) (position >>> segmentShift);
+    }
+
+    private int offset(long position) {
+        return (int) (position & offsetMask);
+    }
+
+    private void checkIndex(long position, int length) {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new IndexOutOfBoundsException("Bytes " + position + "-" + (position + length) + " are out of " + size + " bytes of '" + file + "'");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedData{" + file + ", " + size + " bytes}";
+    }
+}
@@ -0,0 +1,197 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BootstrapOptions;
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.annotations.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A scope of large read-only beans backed by memory-mapped files shared by all processes on a host.
+ * A producer of such a bean calls {@link #data(Writer)} while the bean is created - the first process builds the file
+ * with the given {@link Writer}, the others (and later runs) just map it. The bean keeps the returned {@link MappedData}
+ * and reads it without copying it to the heap. Beans are created lazily, once, like in the {@link SingletonScope}.
+ * <p>
+ * Files are kept in a directory given to the constructor - {@code mlesiewski.simpledi.mapped.dir} system property or
+ * {@code simple-di-mapped} in the temporary directory by default. A file is never rebuilt - delete it or use a new file name
+ * when its content changes.
+ */
+public class MappedScope extends BaseScopeImpl {
+
+    /** Ties a {@link Bean} to the mapped scope. */
+    public static final String NAME = "mlesiewski.simpledi.Scope.MAPPED_SCOPE";
+
+    /** a system property with a directory of files of a scope created with the no-args constructor */
+    public static final String DIRECTORY_PROPERTY = BootstrapOptions.PROPERTY_PREFIX + "mapped.dir";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedScope.class);
+    /** a scope and a name of a bean being created on the current thread */
+    private static final ThreadLocal<Creation> CREATION = new ThreadLocal<>();
+    /** file locks are held by a process so threads of one process have to be kept apart by other means */
+    private static final ConcurrentHashMap<Path, Object> BUILD_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    /** Creates new, started Mapped Scope with files in the default directory. */
+    public MappedScope() {
+        this(NAME, defaultDirectory());
+    }
+
+    /**
+     * Creates new, started Mapped Scope.
+     *
+     * @param name      a name of the scope
+     * @param directory a directory of mapped files - created if it does not exist
+     */
+    public MappedScope(String name, Path directory) {
+        super(name, LOGGER);
+        this.directory = directory;
+        start();
+    }
+
+    /**
+     * Maps content of the bean being created - a file named after the bean.
+     *
+     * @see #data(String, Writer)
+     */
+    public static MappedData data(Writer writer) {
+        Creation creation = currentCreation();
+        return creation.scope.map(creation.scope.fileName(creation.beanName), writer);
+    }
+
+    /**
+     * Maps content of the bean being created - the file is built with the writer if nobody has built it yet.
+     * It can be called only by a provider (or a producer) of a bean of a Mapped Scope while the bean is created.
+     *
+     * @param fileName a name of the file in the scope's directory
+     * @param writer   writes the content if the file does not exist
+     * @return read-only content of the file
+     * @throws SimpleDiException if no bean of a Mapped Scope is being created or the file could not be built or mapped
+     */
+    public static MappedData data(String fileName, Writer writer) {
+        return currentCreation().scope.map(fileName, writer);
+    }
+
+    /** @return a directory of mapped files */
+    public Path directory() {
+        return directory;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        return cachedOrCreatedBean(name, () -> provideBean(name));
+    }
+
+    /** {@inheritDoc} Its provider can call {@link #data(Writer)}. */
+    @Override
+    protected <T> T provideBean(String name) {
+        Creation previous = CREATION.get();
+        CREATION.set(new Creation(this, name));
+        try {
+            return super.provideBean(name);
+        } finally {
+            if (previous == null) {
+                CREATION.remove();
+            } else {
+                CREATION.set(previous);
+            }
+        }
+    }
+
+    /** {@inheritDoc} The fork uses the same directory. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        return getClass() == MappedScope.class ? new MappedScope(name, directory) : super.newInstance();
+    }
+
+    /** maps the file - builds it first under a lock of the file shared with other processes if it does not exist */
+    MappedData map(String fileName, Writer writer) {
+        Path file = directory.resolve(fileName);
+        if (!Files.exists(file)) {
+            synchronized (BUILD_LOCKS.computeIfAbsent(file.toAbsolutePath(), key -> new Object())) {
+                build(file, writer);
+            }
+        }
+        LOGGER.trace("mapping file '{}'", file);
+        return MappedData.map(file, MappedData.DEFAULT_SEGMENT_SIZE);
+    }
+
+    private void build(Path file, Writer writer) {
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    if (Files.exists(file)) {
+                        return;
+                    }
+                    LOGGER.debug("building mapped file '{}'", file);
+                    try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                        writer.write(out);
+                        out.force(true);
+                    }
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new SimpleDiException("Could not build mapped file '" + file + "'", e);
+        }
+    }
+
+    private String fileName(String beanName) {
+        return beanName.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin";
+    }
+
+    private static Creation currentCreation() {
+        Creation creation = CREATION.get();
+        if (creation == null) {
+            throw new SimpleDiException("Mapped data can be requested only while a bean of a " + MappedScope.class.getSimpleName() + " is created");
+        }
+        return creation;
+    }
+
+    private static Path defaultDirectory() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return directory != null ? Paths.get(directory) : Paths.get(System.getProperty("java.io.tmpdir"), "simple-di-mapped");
+    }
+
+    /** Writes content of a mapped file. */
+    @FunctionalInterface
+    public interface Writer {
+
+        /** @param out a channel of a new file - it is made visible to other processes only when this method returns */
+        void write(WritableByteChannel out) throws IOException;
+    }
+
+    private static final class Creation {
+
+        final MappedScope scope;
+        final String beanName;
+
+        Creation(MappedScope scope, String beanName) {
+            this.scope = scope;
+            this.beanName = beanName;
+        }
+    }
+}
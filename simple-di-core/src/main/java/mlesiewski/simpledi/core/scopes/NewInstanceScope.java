@@ -1,12 +1,18 @@
 package mlesiewski.simpledi.core.scopes;
 
+import mlesiewski.simpledi.core.BeanCreationListener;
 import mlesiewski.simpledi.core.BeanProvider;
 import mlesiewski.simpledi.core.SimpleDiException;
 import mlesiewski.simpledi.core.annotations.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /** A scope that always returns new instances - which translates into always calling the BeanProvider for a new instance. */
 public class NewInstanceScope implements Scope {
@@ -16,17 +22,23 @@ public class NewInstanceScope implements Scope {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NewInstanceScope.class);
 
-    private final HashMap<String, BeanProvider> providers = new HashMap<>();
+    private volatile ConcurrentHashMap<String, BeanProvider<?>> providers = new ConcurrentHashMap<>();
+    /** {@code true} if {@link #providers} are shared with a fork and have to be copied before they are modified - guarded by {@link #providersLock} */
+    private boolean providersShared = false;
+    /** held while {@link #providers} are modified or shared with a fork */
+    private final Object providersLock = new Object();
+    /** listeners of a registry this scope is registered with */
+    private volatile List<BeanCreationListener> creationListeners = Collections.emptyList();
 
     @Override
     public <T> T getBean(String name) {
         LOGGER.trace("getBean({})", name);
-        if (!providers.containsKey(name)) {
-            throw new SimpleDiException("Scope '" + NAME+ "' does not have a BeanProvider instance registered under the name '" + name + "'");
-        }
         @SuppressWarnings("unchecked")
         BeanProvider<T> provider = (BeanProvider<T>) providers.get(name);
-        T bean = provider.provide();
+        if (provider == null) {
+            throw new SimpleDiException("Scope '" + NAME+ "' does not have a BeanProvider instance registered under the name '" + name + "'");
+        }
+        T bean = BeanCreationListener.provide(creationListeners, NAME, name, provider);
         provider.setSoftDependencies(bean);
         return bean;
     }
@@ -45,10 +57,55 @@ public class NewInstanceScope implements Scope {
     @Override
     public <T> void register(BeanProvider<T> beanProvider, String name) {
         LOGGER.trace("register({}, {})", beanProvider, name);
-        if (providers.containsKey(name)) {
-            throw new SimpleDiException("Scope '" + NAME + "' already has a BeanProvider instance registered under the name '" + name + "'");
+        synchronized (providersLock) {
+            if (providersShared) {
+                providers = new ConcurrentHashMap<>(providers);
+                providersShared = false;
+            }
+            if (providers.putIfAbsent(name, beanProvider) != null) {
+                throw new SimpleDiException("Scope '" + NAME + "' already has a BeanProvider instance registered under the name '" + name + "'");
+            }
+        }
+    }
+
+    /** {@inheritDoc} The link calls the provider directly. */
+    @Override
+    public <T> Supplier<T> link(String name) {
+        LOGGER.trace("link({})", name);
+        @SuppressWarnings("unchecked")
+        BeanProvider<T> provider = (BeanProvider<T>) providers.get(name);
+        if (provider == null) {
+            throw new SimpleDiException("Scope '" + NAME + "' does not have a BeanProvider instance registered under the name '" + name + "'");
+        }
+        return () -> {
+            T bean = BeanCreationListener.provide(creationListeners, NAME, name, provider);
+            provider.setSoftDependencies(bean);
+            return bean;
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setCreationListeners(List<BeanCreationListener> listeners) {
+        creationListeners = listeners;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> beanNames() {
+        return new ArrayList<>(providers.keySet());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Scope fork() {
+        NewInstanceScope fork = new NewInstanceScope();
+        synchronized (providersLock) {
+            fork.providers = providers;
+            fork.providersShared = true;
+            providersShared = true;
         }
-        providers.put(name, beanProvider);
+        return fork;
     }
 
     /** @throws SimpleDiException always */
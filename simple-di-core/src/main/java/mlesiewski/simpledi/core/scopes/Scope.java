@@ -1,9 +1,15 @@
 package mlesiewski.simpledi.core.scopes;
 
+import mlesiewski.simpledi.core.BeanCreationListener;
 import mlesiewski.simpledi.core.BeanProvider;
 import mlesiewski.simpledi.core.SimpleDiException;
 import mlesiewski.simpledi.core.annotations.Bean;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * A Scope has registered {@link BeanProvider}. It can be inquired for a {@link Bean} by its name.
  * Only a started Scope can have a {@link Bean}.
@@ -23,6 +29,70 @@ public interface Scope {
      */
     boolean hasBean(String name);
 
+    /**
+     * Links a {@link Bean} so that it can be obtained repeatedly without looking it up by its name.
+     * Scopes that keep their instances can return them directly from the link.
+     *
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return a supplier that behaves like {@link #getBean(String)} called with the name provided
+     */
+    default <T> Supplier<T> link(String name) {
+        return () -> getBean(name);
+    }
+
+    /** @return names under which {@link BeanProvider BeanProviders} were registered - in order of registration if this Scope keeps one */
+    default Collection<String> beanNames() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return {@code true} if this Scope currently holds a {@link Bean} instance created under the name provided
+     */
+    default boolean hasInstance(String name) {
+        return false;
+    }
+
+    /**
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return a {@link Bean} instance this Scope currently holds under the name provided or {@code null} - one is never created
+     */
+    default Object instance(String name) {
+        return null;
+    }
+
+    /**
+     * Drops a {@link Bean} instance held under the name provided if it is still the instance provided - a later lookup creates a new one.
+     * Called once the instance was disposed so that it is not handed out again.
+     *
+     * @param name     a name under which a {@link BeanProvider} was registered
+     * @param instance a disposed instance
+     */
+    default void drop(String name, Object instance) {
+    }
+
+    /**
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return the {@link BeanProvider} or {@code null} if this Scope does not expose its providers
+     */
+    default BeanProvider<?> provider(String name) {
+        return null;
+    }
+
+    /**
+     * Called by a registry this Scope is registered with. Scopes that create beans should do it with
+     * {@link BeanCreationListener#provide(List, String, String, BeanProvider)} so that the registry can profile and warm them.
+     *
+     * @param listeners listeners of the registry - they can be added and removed later
+     */
+    default void setCreationListeners(List<BeanCreationListener> listeners) {
+    }
+
+    /** @return {@code true} if this Scope is started - Scopes that do not have to be started are */
+    default boolean isStarted() {
+        return true;
+    }
+
     /** @return the name of this Scope */
     String getName();
 
@@ -39,4 +109,15 @@ public interface Scope {
 
     /** Ends this Scope. Will signal all {@link BeanProvider BeanProviders}. */
     void end();
+
+    /**
+     * Creates a new Scope of the same kind that shares {@link BeanProvider BeanProviders} registered with this one
+     * but none of its {@link Bean} instances. Providers registered afterwards with either of them are not visible to the other.
+     *
+     * @return a new Scope in the same state that a newly instantiated one would be in
+     * @throws SimpleDiException if this Scope cannot be forked
+     */
+    default Scope fork() {
+        throw new SimpleDiException("Scope '" + getName() + "' cannot be forked");
+    }
 }
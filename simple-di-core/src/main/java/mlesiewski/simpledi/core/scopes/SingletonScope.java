@@ -6,8 +6,11 @@ import mlesiewski.simpledi.core.annotations.Bean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Supplier;
+
 /**
  * Global singleton scope - beans will be created lazily after this scope was started.
+ * Different beans can be created concurrently but each of them only once.
  */
 public class SingletonScope extends BaseScopeImpl {
 
@@ -31,11 +34,15 @@ public class SingletonScope extends BaseScopeImpl {
         throw new SimpleDiException(NAME + " cannot be ended");
     }
 
-    /** {@inheritDoc} */
+    /** {@inheritDoc} Only a creation of the same bean is blocking. */
     @Override
     protected <T> T getBeanFromBeans(String name) {
-        synchronized (this) {
-            return super.getBeanFromBeans(name);
-        }
+        return cachedOrCreatedBean(name, () -> provideBean(name));
+    }
+
+    /** {@inheritDoc} The link holds the bean as weakly as the scope does. */
+    @Override
+    public <T> Supplier<T> link(String name) {
+        return keepingLink(name);
     }
 }
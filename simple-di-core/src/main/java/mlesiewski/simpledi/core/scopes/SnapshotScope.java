@@ -0,0 +1,251 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BeanProvider;
+import mlesiewski.simpledi.core.BootstrapOptions;
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.annotations.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * A scope of beans that are expensive to build from stable inputs - compiled rule sets or tries for example.
+ * A bean given a {@link #snapshot(String, String, Codec) fingerprint and a codec} is written to a snapshot file once it was built
+ * and later runs load it from the file instead of asking its {@link BeanProvider}. The file is memory-mapped for loading.
+ * A snapshot of a different fingerprint, a corrupt one or one the codec fails to read is ignored - the provider builds the bean again
+ * and the snapshot is replaced. Other beans are created lazily, once, like in the {@link SingletonScope}.
+ * <p>
+ * Snapshots are kept in a directory given to the constructor - {@code mlesiewski.simpledi.snapshot.dir} system property or
+ * {@code simple-di-snapshots} in the temporary directory by default.
+ */
+public class SnapshotScope extends BaseScopeImpl {
+
+    /** Ties a {@link Bean} to the snapshot scope. */
+    public static final String NAME = "mlesiewski.simpledi.Scope.SNAPSHOT_SCOPE";
+
+    /** a system property with a directory of snapshots of a scope created with the no-args constructor */
+    public static final String DIRECTORY_PROPERTY = BootstrapOptions.PROPERTY_PREFIX + "snapshot.dir";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotScope.class);
+    /** "SDSN" */
+    private static final int MAGIC = 0x5344534e;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+
+    /** Creates new, started Snapshot Scope with snapshots in the default directory. */
+    public SnapshotScope() {
+        this(NAME, defaultDirectory());
+    }
+
+    /**
+     * Creates new, started Snapshot Scope.
+     *
+     * @param name      a name of the scope
+     * @param directory a directory of snapshot files - created if it does not exist
+     */
+    public SnapshotScope(String name, Path directory) {
+        super(name, LOGGER);
+        this.directory = directory;
+        start();
+    }
+
+    /**
+     * Makes a bean persistent - it is used for instances created afterwards.
+     *
+     * @param beanName    a name under which a {@link BeanProvider} is (or will be) registered
+     * @param fingerprint a version of the bean or of inputs it is built from - a snapshot of another one is not loaded
+     * @param codec       writes and reads the bean
+     * @return this scope
+     */
+    public <T> SnapshotScope snapshot(String beanName, String fingerprint, Codec<T> codec) {
+        snapshots.put(beanName, new Snapshot<>(fingerprint, codec));
+        return this;
+    }
+
+    /**
+     * Registers a {@link BeanProvider} of a persistent bean.
+     *
+     * @see #register(BeanProvider, String)
+     * @see #snapshot(String, String, Codec)
+     */
+    public <T> void register(BeanProvider<T> beanProvider, String name, String fingerprint, Codec<T> codec) {
+        snapshot(name, fingerprint, codec);
+        register(beanProvider, name);
+    }
+
+    /** @return a directory of snapshot files */
+    public Path directory() {
+        return directory;
+    }
+
+    /** @return number of beans loaded from snapshots */
+    public long loadCount() {
+        return loads.sum();
+    }
+
+    /** @return number of persistent beans built by their providers */
+    public long buildCount() {
+        return builds.sum();
+    }
+
+    /** {@inheritDoc} A persistent bean is loaded from its snapshot file. */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        return cachedOrCreatedBean(name, () -> {
+            @SuppressWarnings("unchecked") Snapshot<T> snapshot = (Snapshot<T>) snapshots.get(name);
+            return snapshot != null ? loadOrBuild(name, snapshot) : provideBean(name);
+        });
+    }
+
+    /** {@inheritDoc} The fork uses the same directory and snapshots. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        SnapshotScope fork = getClass() == SnapshotScope.class ? new SnapshotScope(name, directory) : (SnapshotScope) super.newInstance();
+        fork.snapshots.putAll(snapshots);
+        return fork;
+    }
+
+    private <T> T loadOrBuild(String name, Snapshot<T> snapshot) {
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".snapshot");
+        if (Files.exists(file)) {
+            try {
+                T bean = load(file, snapshot);
+                if (bean != null) {
+                    LOGGER.debug("loaded bean '{}' from snapshot '{}'", name, file);
+                    loads.increment();
+                    @SuppressWarnings("unchecked") BeanProvider<T> provider = (BeanProvider<T>) providers.get(name);
+                    provider.setSoftDependencies(bean);
+                    return bean;
+                }
+                LOGGER.debug("snapshot '{}' has another fingerprint - building bean '{}'", file, name);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("could not load bean '{}' from snapshot '{}' - building it", name, file, e);
+            }
+        }
+        T bean = provideBean(name);
+        builds.increment();
+        try {
+            write(file, snapshot, bean);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("could not write a snapshot of bean '{}' to '{}'", name, file, e);
+        }
+        return bean;
+    }
+
+    /** @return a bean read from the file or {@code null} if the file has another fingerprint */
+    private <T> T load(Path file, Snapshot<T> snapshot) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("not a snapshot of format " + FORMAT_VERSION);
+        }
+        int fingerprintLength = buffer.getInt();
+        if (fingerprintLength < 0 || fingerprintLength > buffer.remaining() - 2 * Long.BYTES) {
+            throw new IOException("snapshot header is corrupt - a fingerprint of " + fingerprintLength + " bytes does not fit");
+        }
+        byte[] fingerprint = new byte[fingerprintLength];
+        buffer.get(fingerprint);
+        if (!snapshot.fingerprint.equals(new String(fingerprint, StandardCharsets.UTF_8))) {
+            return null;
+        }
+        long length = buffer.getLong();
+        long checksum = buffer.getLong();
+        if (length != buffer.remaining()) {
+            throw new IOException("snapshot is truncated - " + buffer.remaining() + " of " + length + " bytes");
+        }
+        ByteBuffer payload = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if (crc.getValue() != checksum) {
+            throw new IOException("snapshot checksum does not match");
+        }
+        T bean = snapshot.codec.read(payload);
+        if (bean == null) {
+            throw new IOException("codec read a null value");
+        }
+        return bean;
+    }
+
+    /** writes a header and the bean to a temporary file and moves it in place so that a half written snapshot is never read */
+    private <T> void write(Path file, Snapshot<T> snapshot, T bean) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            snapshot.codec.write(bean, out);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        byte[] fingerprint = snapshot.fingerprint.getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temporary); DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(fingerprint.length);
+                out.write(fingerprint);
+                out.writeLong(bytes.length);
+                out.writeLong(crc.getValue());
+                out.write(bytes);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static Path defaultDirectory() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return directory != null ? Paths.get(directory) : Paths.get(System.getProperty("java.io.tmpdir"), "simple-di-snapshots");
+    }
+
+    /** Writes and reads a persistent bean in a compact binary form. */
+    public interface Codec<T> {
+
+        /** @param out a stream of the bean's snapshot */
+        void write(T bean, DataOutput out) throws IOException;
+
+        /**
+         * @param in a read-only, memory-mapped content written by {@link #write(Object, DataOutput)}
+         * @return a bean read from the content - any exception makes the scope build the bean with its provider
+         */
+        T read(ByteBuffer in) throws IOException;
+    }
+
+    private static final class Snapshot<T> {
+
+        final String fingerprint;
+        final Codec<T> codec;
+
+        Snapshot(String fingerprint, Codec<T> codec) {
+            if (fingerprint == null || codec == null) {
+                throw new SimpleDiException("A snapshot needs a fingerprint and a codec");
+            }
+            this.fingerprint = fingerprint;
+            this.codec = codec;
+        }
+    }
+}
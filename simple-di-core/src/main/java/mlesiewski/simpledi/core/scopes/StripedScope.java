@@ -0,0 +1,199 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.BeanProvider;
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.annotations.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * A scope for shared beans that become contention hot spots - counters, id generators or small caches for example.
+ * It keeps a number of instances (stripes) of every bean, by default as many as there are available processors,
+ * and gives each thread one of them by its probe - a hash assigned to the thread once. Stripes are created lazily.
+ * {@link #aggregate(String, Function)} reads all stripes of a bean as one logical value.
+ */
+public class StripedScope extends BaseScopeImpl {
+
+    /** Ties a {@link Bean} to the striped scope. */
+    public static final String NAME = "mlesiewski.simpledi.Scope.STRIPED_SCOPE";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StripedScope.class);
+    private static final int PROBE_INCREMENT = 0x9e3779b9;
+    private static final AtomicInteger PROBE_SEED = new AtomicInteger();
+    /** consecutive threads get probes far apart */
+    private static final ThreadLocal<Integer> PROBE = ThreadLocal.withInitial(() -> {
+        int h = PROBE_SEED.getAndAdd(PROBE_INCREMENT);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & Integer.MAX_VALUE;
+    });
+
+    private final int stripeCount;
+    /** stripes of the latest generation - a table of an older one is dropped as a whole */
+    private final AtomicReference<Table> table = new AtomicReference<>(new Table(0));
+
+    /** Creates new, started Striped Scope with a stripe per available processor. */
+    public StripedScope() {
+        this(NAME, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates new, started Striped Scope.
+     *
+     * @param name        a name of the scope
+     * @param stripeCount a number of instances of every bean
+     * @throws SimpleDiException if the number is not positive
+     */
+    public StripedScope(String name, int stripeCount) {
+        super(name, LOGGER);
+        if (stripeCount <= 0) {
+            throw new SimpleDiException("Scope '" + name + "' stripe count has to be positive but was " + stripeCount);
+        }
+        this.stripeCount = stripeCount;
+        start();
+    }
+
+    /** {@inheritDoc} A stripe that was created is returned without locking. */
+    @Override
+    public <T> T getBean(String name) {
+        AtomicReferenceArray<Object> beans = currentStripes(name);
+        if (beans != null) {
+            Object bean = beans.get(stripe());
+            if (bean != null) {
+                @SuppressWarnings("unchecked") T typed = (T) bean;
+                return typed;
+            }
+        }
+        return super.getBean(name);
+    }
+
+    /** {@inheritDoc} Every stripe is created once. */
+    @Override
+    protected <T> T getBeanFromBeans(String name) {
+        long generation = startedGeneration();
+        Table current = tableOf(generation);
+        if (current == null) {
+            LOGGER.trace("scope '{}' was ended while bean '{}' was requested - not caching it", getName(), name);
+            return provideBean(name);
+        }
+        AtomicReferenceArray<Object> beans = current.stripes.computeIfAbsent(name, key -> new AtomicReferenceArray<>(stripeCount));
+        int stripe = stripe();
+        Object bean = lockedLookup(name, () -> beans.get(stripe), ignored -> {
+            LOGGER.trace("creating stripe {} of bean '{}'", stripe, name);
+            Object created = provideBean(name);
+            beans.set(stripe, created);
+            return created;
+        });
+        @SuppressWarnings("unchecked") T typed = (T) bean;
+        return typed;
+    }
+
+    /**
+     * @param name a name under which a {@link BeanProvider} was registered
+     * @return all created stripes of the bean (in stripe order)
+     */
+    public <T> List<T> stripes(String name) {
+        List<T> created = new ArrayList<>(stripeCount);
+        AtomicReferenceArray<Object> beans = currentStripes(name);
+        if (beans != null) {
+            for (int i = 0; i < beans.length(); i++) {
+                @SuppressWarnings("unchecked") T bean = (T) beans.get(i);
+                if (bean != null) {
+                    created.add(bean);
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Reads all stripes of a bean as one logical value - sums counters for example.
+     *
+     * @param name       a name under which a {@link BeanProvider} was registered
+     * @param aggregator combines created stripes
+     * @return a result of the aggregator
+     */
+    public <T, R> R aggregate(String name, Function<? super List<T>, R> aggregator) {
+        List<T> created = stripes(name);
+        return aggregator.apply(created);
+    }
+
+    /** @return a number of instances of every bean */
+    public int stripeCount() {
+        return stripeCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasInstance(String name) {
+        return !stripes(name).isEmpty();
+    }
+
+    /** {@inheritDoc} The stripe of the current thread. */
+    @Override
+    public Object instance(String name) {
+        AtomicReferenceArray<Object> beans = currentStripes(name);
+        return beans != null ? beans.get(stripe()) : null;
+    }
+
+    /** {@inheritDoc} The fork has the same number of stripes. */
+    @Override
+    protected BaseScopeImpl newInstance() {
+        return getClass() == StripedScope.class ? new StripedScope(name, stripeCount) : super.newInstance();
+    }
+
+    /** {@inheritDoc} Other stripes of the bean are kept. */
+    @Override
+    public void drop(String name, Object instance) {
+        AtomicReferenceArray<Object> beans = currentStripes(name);
+        if (beans != null) {
+            for (int i = 0; i < beans.length(); i++) {
+                beans.compareAndSet(i, instance, null);
+            }
+        }
+        super.drop(name, instance);
+    }
+
+    /** @return stripes of the bean if they belong to the current generation */
+    private AtomicReferenceArray<Object> currentStripes(String name) {
+        Table current = table.get();
+        return isCurrent(current.generation) ? current.stripes.get(name) : null;
+    }
+
+    /** @return a table of the generation - a new one if the generation has just started, {@code null} if it is already over */
+    private Table tableOf(long generation) {
+        Table current = table.get();
+        while (current.generation < generation) {
+            Table next = new Table(generation);
+            if (table.compareAndSet(current, next)) {
+                return next;
+            }
+            current = table.get();
+        }
+        return current.generation == generation ? current : null;
+    }
+
+    private int stripe() {
+        return PROBE.get() % stripeCount;
+    }
+
+    /** stripes of all beans created in one generation */
+    private static final class Table {
+
+        final long generation;
+        final ConcurrentHashMap<String, AtomicReferenceArray<Object>> stripes = new ConcurrentHashMap<>();
+
+        Table(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.SingletonScope;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BackgroundWarmerTest {
+
+    @Test
+    public void createsRemainingSingletonsOnce() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        NewObjectProvider first = new NewObjectProvider();
+        NewObjectProvider second = new NewObjectProvider();
+        registry.register(first, "first");
+        registry.register(second, "second");
+        registry.bound(() -> registry.getBean("first"));
+        // when
+        BackgroundWarmer warmer = BackgroundWarmer.start(registry, 2);
+        registry.bound(() -> registry.getBean("second"));
+        awaitDone(warmer);
+        // then
+        assertThat(first.counter.get(), is(1));
+        assertThat(second.counter.get(), is(1));
+        assertThat(warmer.total(), is(2));
+        assertThat(warmer.warmed() + warmer.alreadyCreated(), is(2));
+        assertThat(warmer.failed(), is(0));
+    }
+
+    @Test
+    public void pausesWhileForegroundCreationIsInFlight() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        NewObjectProvider lazy = new NewObjectProvider();
+        registry.register(lazy, "lazy");
+        BackgroundWarmer warmer = new BackgroundWarmer(registry);
+        warmer.foregroundTracker.creating(SingletonScope.NAME, "foreground");
+        // when
+        warmer.start(1);
+        Thread.sleep(100);
+        // then
+        assertThat(lazy.counter.get(), is(0));
+        assertThat(warmer.pauses(), is(1));
+        // when
+        warmer.foregroundTracker.created(SingletonScope.NAME, "foreground", 0);
+        awaitDone(warmer);
+        // then
+        assertThat(lazy.counter.get(), is(1));
+        assertThat(warmer.warmed(), is(1));
+    }
+
+    private void awaitDone(BackgroundWarmer warmer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!warmer.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(warmer.isDone(), is(true));
+    }
+}
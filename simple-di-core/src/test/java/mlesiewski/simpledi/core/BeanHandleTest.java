@@ -0,0 +1,126 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.ApplicationScope;
+import mlesiewski.simpledi.core.scopes.BaseScopeImpl;
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class BeanHandleTest {
+
+    @Test
+    public void singletonHandleReturnsTheSameInstance() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        NewObjectProvider provider = new NewObjectProvider();
+        context.register(provider, "singleton");
+        BeanHandle handle = new BeanHandle("singleton");
+        // when
+        Object first = context.call(handle::get);
+        Object second = context.call(handle::get);
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first, is(sameInstance(context.getBean("singleton"))));
+        assertThat(provider.counter.get(), is(1));
+    }
+
+    @Test
+    public void applicationScopeHandleReturnsTheEagerInstance() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        context.register(new NewObjectProvider(), "eager", ApplicationScope.NAME);
+        BeanHandle handle = new BeanHandle("eager", ApplicationScope.NAME);
+        // when
+        Object bean = context.call(handle::get);
+        // then
+        assertThat(bean, is(sameInstance(context.getBean("eager", ApplicationScope.NAME))));
+    }
+
+    @Test
+    public void newInstanceHandleCallsTheProviderEachTime() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        NewObjectProvider provider = new NewObjectProvider();
+        context.register(provider, "newInstance", NewInstanceScope.NAME);
+        BeanHandle handle = new BeanHandle("newInstance", NewInstanceScope.NAME);
+        // when
+        Object first = context.call(handle::get);
+        Object second = context.call(handle::get);
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(provider.counter.get(), is(2));
+    }
+
+    @Test
+    public void handleIsLinkedAgainInADifferentRegistry() throws Exception {
+        // given
+        BeanRegistryContext source = BeanRegistryContext.create();
+        source.register(new NewObjectProvider(), "singleton");
+        BeanRegistryContext fork = source.fork();
+        BeanHandle handle = new BeanHandle("singleton");
+        // when
+        Object inSource = source.call(handle::get);
+        Object inFork = fork.call(handle::get);
+        // then
+        assertThat(inFork, is(not(sameInstance(inSource))));
+        assertThat(inFork, is(sameInstance(fork.getBean("singleton"))));
+    }
+
+    @Test
+    public void handleFindsBeansOfAncestors() throws Exception {
+        // given
+        BeanRegistryContext parent = BeanRegistryContext.create();
+        parent.register(new NewObjectProvider(), "singleton");
+        BeanRegistryContext child = parent.child();
+        BeanHandle handle = new BeanHandle("singleton");
+        // when
+        Object bean = child.call(handle::get);
+        // then
+        assertThat(bean, is(sameInstance(parent.getBean("singleton"))));
+    }
+
+    @Test
+    public void handleKeepsALinkOfEveryRegistryItIsUsedWith() throws Exception {
+        // given
+        BeanRegistryContext source = BeanRegistryContext.create();
+        source.register(new LinkCountingScope());
+        source.register(new NewObjectProvider(), "counted", LinkCountingScope.NAME);
+        BeanRegistryContext fork = source.fork();
+        BeanHandle handle = new BeanHandle("counted", LinkCountingScope.NAME);
+        LinkCountingScope.LINKS.set(0);
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertThat(source.call(handle::get), is(sameInstance(source.getBean("counted", LinkCountingScope.NAME))));
+            assertThat(fork.call(handle::get), is(sameInstance(fork.getBean("counted", LinkCountingScope.NAME))));
+        }
+        // then
+        assertThat(LinkCountingScope.LINKS.get(), is(2));
+    }
+
+    /** counts links made by all of its forks */
+    public static class LinkCountingScope extends BaseScopeImpl {
+
+        static final String NAME = "link-counting";
+        static final AtomicInteger LINKS = new AtomicInteger();
+
+        public LinkCountingScope() {
+            super(NAME, LoggerFactory.getLogger(LinkCountingScope.class));
+            start();
+        }
+
+        @Override
+        public <T> Supplier<T> link(String name) {
+            LINKS.incrementAndGet();
+            return super.link(name);
+        }
+    }
+}
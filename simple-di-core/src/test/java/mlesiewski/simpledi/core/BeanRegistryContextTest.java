@@ -0,0 +1,124 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.ApplicationScope;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class BeanRegistryContextTest {
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void contextsAreIsolated() throws Exception {
+        // given
+        BeanRegistryContext first = BeanRegistryContext.create();
+        BeanRegistryContext second = BeanRegistryContext.create();
+        first.register(new NewObjectProvider(), "bean");
+        // when
+        second.getBean("bean");
+        // then - error
+    }
+
+    @Test
+    public void childGetsBeansFromItsParent() throws Exception {
+        // given
+        BeanRegistryContext parent = BeanRegistryContext.create();
+        parent.register(new NewObjectProvider(), "bean");
+        BeanRegistryContext child = parent.child().child();
+        // when
+        Object bean = child.getBean("bean");
+        // then
+        assertThat(bean, is(sameInstance(parent.getBean("bean"))));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void parentDoesNotSeeBeansOfItsChild() throws Exception {
+        // given
+        BeanRegistryContext parent = BeanRegistryContext.create();
+        BeanRegistryContext child = parent.child();
+        child.register(new NewObjectProvider(), "bean");
+        // when
+        parent.getBean("bean");
+        // then - error
+    }
+
+    @Test
+    public void childCanShadowBeansOfItsParent() throws Exception {
+        // given
+        BeanRegistryContext parent = BeanRegistryContext.create();
+        parent.register(new TestBeanProvider<>(() -> "parent"), "bean");
+        BeanRegistryContext child = parent.child();
+        child.register(new TestBeanProvider<>(() -> "child"), "bean");
+        // when
+        String bean = child.getBean("bean");
+        // then
+        assertThat(bean, is("child"));
+    }
+
+    @Test
+    public void forkSharesProvidersButNotBeans() throws Exception {
+        // given
+        BeanRegistryContext source = BeanRegistryContext.create();
+        NewObjectProvider provider = new NewObjectProvider();
+        source.register(provider, "bean");
+        Object sourceBean = source.getBean("bean");
+        // when
+        BeanRegistryContext fork = source.fork();
+        Object forkBean = fork.getBean("bean");
+        // then
+        assertThat(forkBean, is(not(sameInstance(sourceBean))));
+        assertThat(provider.counter.get(), is(2));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void registrationsInForkAreNotVisibleInSource() throws Exception {
+        // given
+        BeanRegistryContext source = BeanRegistryContext.create();
+        source.register(new NewObjectProvider(), "shared");
+        BeanRegistryContext fork = source.fork();
+        // when
+        fork.register(new NewObjectProvider(), "forked");
+        // then
+        assertThat(fork.getBean("shared"), is(not(sameInstance(source.getBean("shared")))));
+        source.getBean("forked");
+    }
+
+    @Test
+    public void forkStartsEagerScopesIfSourceStartedThem() throws Exception {
+        // given
+        BeanRegistryContext source = BeanRegistryContext.create();
+        NewObjectProvider provider = new NewObjectProvider();
+        source.register(provider, "eager", ApplicationScope.NAME);
+        // when
+        source.fork();
+        // then
+        assertThat(provider.counter.get(), is(2));
+    }
+
+    @Test
+    public void providersResolveDependenciesWithTheirContext() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        context.register(new TestBeanProvider<>(() -> "dependency"), "dependency");
+        context.register(new TestBeanProvider<>(() -> BeanRegistry.getBean("dependency") + " user"), "user");
+        // when
+        String user = context.getBean("user");
+        // then
+        assertThat(user, is("dependency user"));
+    }
+
+    @Test
+    public void callBindsContextToCurrentThread() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        context.register(new NewObjectProvider(), "bean");
+        // when
+        Object bean = context.call(() -> BeanRegistry.getBean("bean"));
+        // then
+        assertThat(bean, is(sameInstance(context.getBean("bean"))));
+    }
+}
@@ -0,0 +1,146 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.ApplicationScope;
+import mlesiewski.simpledi.core.scopes.SingletonScope;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class BeanRegistryImplTest {
+
+    @Test
+    public void getBeanWaitsForABeanThatIsNotRegisteredYet() throws Exception {
+        // given
+        BeanRegistryImpl registry = startingRegistry();
+        CompletableFuture<Object> bean = CompletableFuture.supplyAsync(() -> registry.getBean("late"));
+        Thread.sleep(50);
+        assertThat(bean.isDone(), is(false));
+        // when
+        registry.register(new NewObjectProvider(), "late");
+        // then
+        assertThat(bean.get(5, TimeUnit.SECONDS), is(notNullValue()));
+    }
+
+    @Test
+    public void getBeanDoesNotWaitForOtherBeans() throws Exception {
+        // given
+        BeanRegistryImpl registry = startingRegistry();
+        registry.register(new NewObjectProvider(), "early");
+        // when
+        Object bean = CompletableFuture.supplyAsync(() -> registry.getBean("early")).get(5, TimeUnit.SECONDS);
+        // then
+        assertThat(bean, is(notNullValue()));
+    }
+
+    @Test
+    public void getBeanWaitsForAnEagerBeanToBeCreated() throws Exception {
+        // given
+        BeanRegistryImpl registry = startingRegistry();
+        registry.register(new NewObjectProvider(), "eager", ApplicationScope.NAME);
+        CompletableFuture<Object> bean = CompletableFuture.supplyAsync(() -> registry.getBean("eager", ApplicationScope.NAME));
+        Thread.sleep(50);
+        assertThat(bean.isDone(), is(false));
+        // when
+        registry.startEagerScopes();
+        // then
+        assertThat(bean.get(5, TimeUnit.SECONDS), is(notNullValue()));
+    }
+
+    @Test
+    public void getBeanDoesNotWaitForEagerBeansCreatedAfterIt() throws Exception {
+        // given
+        BeanRegistryImpl registry = startingRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(new NewObjectProvider(), "first", ApplicationScope.NAME);
+        registry.register(new TestBeanProvider<>(() -> {
+            awaitQuietly(release);
+            return new Object();
+        }), "second", ApplicationScope.NAME);
+        CompletableFuture<Object> bean = CompletableFuture.supplyAsync(() -> registry.getBean("first", ApplicationScope.NAME));
+        // when
+        Thread starting = new Thread(registry::startEagerScopes);
+        starting.start();
+        // then
+        try {
+            assertThat(bean.get(5, TimeUnit.SECONDS), is(notNullValue()));
+        } finally {
+            release.countDown();
+            starting.join();
+        }
+    }
+
+    @Test
+    public void getBeanDoesNotWaitForABeanOfAnAncestor() throws Exception {
+        // given
+        BeanRegistryImpl parent = new BeanRegistryImpl();
+        parent.register(new NewObjectProvider(), "inParent");
+        BeanRegistryImpl child = parent.child();
+        child.startup = new CompletableFuture<>();
+        child.bootstrapThread = new Thread(() -> {});
+        // when
+        Object bean = CompletableFuture.supplyAsync(() -> child.getBean("inParent")).get(5, TimeUnit.SECONDS);
+        // then
+        assertThat(bean, is(sameInstance(parent.getBean("inParent"))));
+    }
+
+    @Test
+    public void getBeanFailsWhenRegistrationsCompletedWithoutTheBean() throws Exception {
+        // given
+        BeanRegistryImpl registry = startingRegistry();
+        CompletableFuture<Object> bean = CompletableFuture.supplyAsync(() -> registry.getBean("missing"));
+        // when
+        registry.registrationsCompleted();
+        // then
+        try {
+            bean.get(5, TimeUnit.SECONDS);
+            fail("getBean returned a bean that was never registered");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(SimpleDiException.class)));
+        }
+    }
+
+    @Test
+    public void registersProvidersAsTheyAreAndNotifiesCreationListeners() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        NewObjectProvider provider = new NewObjectProvider();
+        registry.register(provider, "bean", SingletonScope.NAME);
+        List<String> created = new ArrayList<>();
+        registry.creationListeners.add((scopeName, beanName, nanos) -> created.add(scopeName + ":" + beanName));
+        // when
+        registry.getBean("bean", SingletonScope.NAME);
+        // then
+        assertThat(registry.getScope(SingletonScope.NAME, false).provider("bean"), is(sameInstance(provider)));
+        assertThat(created, is(Collections.singletonList(SingletonScope.NAME + ":bean")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BeanRegistryImpl startingRegistry() {
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        registry.startup = new CompletableFuture<>();
+        registry.bootstrapThread = new Thread(() -> {});
+        return registry;
+    }
+}
@@ -0,0 +1,135 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+import mlesiewski.simpledi.core.scopes.SingletonScope;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BeanRegistryMonitorTest {
+
+    private BeanRegistryMonitor monitor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        BeanRegistry.init();
+        monitor = BeanRegistry.registerMBean();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        monitor.unregister();
+    }
+
+    @Test
+    public void isRegisteredWithThePlatformServerOnlyOncePerRegistry() throws Exception {
+        // given
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(BeanRegistryMonitor.OBJECT_NAME);
+        // then
+        assertThat(BeanRegistry.registerMBean(), is(sameInstance(monitor)));
+        assertThat(server.isRegistered(name), is(true));
+        assertThat(server.getAttribute(name, "Bootstrapped"), is(true));
+        // when
+        monitor.unregister();
+        // then
+        assertThat(server.isRegistered(name), is(false));
+        assertThat(BeanRegistry.registerMBean(), is(not(sameInstance(monitor))));
+        monitor = BeanRegistry.registerMBean();
+    }
+
+    @Test
+    public void countsProvidersInstancesAndCreations() throws Exception {
+        // given
+        BeanRegistry.register(new TestBeanProvider<>(Object::new), "singleton", SingletonScope.NAME);
+        BeanRegistry.register(new TestBeanProvider<>(Object::new), "new", NewInstanceScope.NAME);
+        // when
+        BeanRegistry.getBean("singleton", SingletonScope.NAME);
+        BeanRegistry.getBean("new", NewInstanceScope.NAME);
+        BeanRegistry.getBean("new", NewInstanceScope.NAME);
+        // then
+        BeanRegistryMonitorMXBean.ScopeInfo singletonScope = scope(SingletonScope.NAME);
+        assertThat(singletonScope.isStarted(), is(true));
+        assertThat(singletonScope.getProviderCount(), is(1));
+        assertThat(singletonScope.getInstanceCount(), is(1));
+        assertThat(scope(NewInstanceScope.NAME).getInstanceCount(), is(0));
+        assertThat(bean("singleton").getCreated(), is(1L));
+        assertThat(bean("singleton").isInstantiated(), is(true));
+        assertThat(bean("new").getCreated(), is(2L));
+        assertThat(bean("new").getRetainedBytes(), is(-1L));
+    }
+
+    @Test
+    public void countsFailuresAndResetsCounters() throws Exception {
+        // given
+        BeanRegistry.register(new TestBeanProvider<>(() -> {
+            throw new IllegalStateException();
+        }), "failing", NewInstanceScope.NAME);
+        try {
+            BeanRegistry.getBean("failing", NewInstanceScope.NAME);
+        } catch (RuntimeException e) {
+            // expected
+        }
+        // then
+        assertThat(bean("failing").getFailed(), is(1L));
+        // when
+        monitor.resetCounters();
+        // then
+        assertThat(bean("failing").getFailed(), is(0L));
+    }
+
+    @Test
+    public void estimatesRetainedSizesAndDumpsATable() throws Exception {
+        // given
+        BeanRegistry.register(new TestBeanProvider<>(() -> new long[8]), "array", SingletonScope.NAME);
+        BeanRegistry.getBean("array", SingletonScope.NAME);
+        // when
+        monitor.setRetainedSizeEstimated(true);
+        // then
+        assertThat(bean("array").getRetainedBytes(), is(16L + 8 * 8));
+        assertThat(monitor.dumpBeanTable(), containsString("array"));
+    }
+
+    @Test
+    public void showsAndResetsTimersOfBeanInstances() throws Exception {
+        // given
+        MethodTimer timer = new MethodTimer("find(java.lang.String)");
+        MethodTimers timed = () -> Collections.singletonMap(timer.method(), timer);
+        BeanRegistry.register(new TestBeanProvider<>(() -> timed), "timed", SingletonScope.NAME);
+        BeanRegistry.getBean("timed", SingletonScope.NAME);
+        timer.stop(timer.start(), true);
+        // when
+        List<BeanRegistryMonitorMXBean.MethodInfo> methods = monitor.getMethods();
+        // then
+        assertThat(methods.size(), is(1));
+        assertThat(methods.get(0).getBean(), is("timed"));
+        assertThat(methods.get(0).getMethod(), is("find(java.lang.String)"));
+        assertThat(methods.get(0).getCalls(), is(1L));
+        assertThat(methods.get(0).getErrors(), is(1L));
+        // when
+        monitor.resetCounters();
+        // then
+        assertThat(monitor.getMethods().get(0).getCalls(), is(0L));
+    }
+
+    private BeanRegistryMonitorMXBean.ScopeInfo scope(String name) {
+        return monitor.getScopes().stream().filter(scope -> scope.getName().equals(name)).findFirst().orElseThrow(AssertionError::new);
+    }
+
+    private BeanRegistryMonitorMXBean.BeanInfo bean(String name) {
+        return monitor.getBeans().stream().filter(bean -> bean.getName().equals(name)).findFirst().orElseThrow(AssertionError::new);
+    }
+}
@@ -3,11 +3,14 @@ package mlesiewski.simpledi.core;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static mlesiewski.simpledi.core.testutils.NewObjectProvider.NEW_OBJECT_PROVIDER;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
 
 public class BeanRegistryTest {
     
@@ -57,6 +60,15 @@ public class BeanRegistryTest {
         // then - error
     }
 
+    @Test
+    public void startAsyncReturnsTheSameCompletedFuture() throws Exception {
+        // when
+        Object result = BeanRegistry.startAsync().get(5, TimeUnit.SECONDS);
+        // then
+        assertThat(result, is(nullValue()));
+        assertThat(BeanRegistry.startAsync(), is(sameInstance(BeanRegistry.startAsync())));
+    }
+
     @BeforeMethod
     public void setUp() throws Exception {
         BeanRegistry.init();
@@ -13,11 +13,33 @@ public class BootstrapperTest implements Registerable {
     @Test
     public void bootstrapRegistersRegisterables() throws Exception {
         // given
-        Bootstrapper.bootstrapped = false;
+        BeanRegistryImpl registry = new BeanRegistryImpl();
         // when
-        Bootstrapper.bootstrap();
+        Bootstrapper.bootstrap(registry);
         // then
-        assertTrue(registered, "Bootstrapper.bootstrap() did not call BootstrapperTest#register()");
+        assertTrue(registered, "Bootstrapper.bootstrap(registry) did not call BootstrapperTest#register()");
+    }
+
+    @Test
+    public void bootstrapWithPreloadingRegistersRegisterables() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        // when
+        Bootstrapper.bootstrap(registry, BootstrapOptions.defaults().withPreloadThreads(2));
+        // then
+        assertTrue(registered, "Bootstrapper.bootstrap(registry, options) did not call BootstrapperTest#register()");
+    }
+
+    @Test
+    public void registryIsBootstrappedOnlyOnce() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        Bootstrapper.bootstrap(registry);
+        registered = false;
+        // when
+        Bootstrapper.bootstrap(registry);
+        // then
+        assertFalse(registered, "Bootstrapper.bootstrap(registry) bootstrapped the same registry twice");
     }
 
     @BeforeMethod
@@ -0,0 +1,48 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.annotations.Registerable;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+
+public class ClassPreloaderTest {
+
+    @Test
+    public void readsServiceFilesWithoutLoadingClasses() throws Exception {
+        // when
+        List<String> names = ClassPreloader.serviceClassNames(getClass().getClassLoader(), Registerable.class);
+        // then
+        assertThat(names, hasItem(BootstrapperTest.class.getName()));
+    }
+
+    @Test
+    public void preloadedClassesAreInOriginalOrder() throws Exception {
+        // given
+        ClassPreloader preloader = new ClassPreloader(2, getClass().getClassLoader());
+        List<String> names = Arrays.asList(String.class.getName(), Integer.class.getName(), BootstrapperTest.class.getName());
+        // when
+        List<Future<Class<?>>> classes = preloader.preload(names);
+        preloader.shutdown();
+        // then
+        for (int i = 0; i < names.size(); i++) {
+            assertThat(ClassPreloader.get(classes.get(i), names.get(i)).getName(), is(names.get(i)));
+        }
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*'no.such.Class'.*")
+    public void reportsMissingClassWithItsName() throws Exception {
+        // given
+        ClassPreloader preloader = new ClassPreloader(1, getClass().getClassLoader());
+        // when
+        List<Future<Class<?>>> classes = preloader.preload(Arrays.asList("no.such.Class"));
+        preloader.shutdown();
+        // then - error
+        ClassPreloader.get(classes.get(0), "no.such.Class");
+    }
+}
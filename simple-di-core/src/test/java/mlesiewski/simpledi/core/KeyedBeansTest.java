@@ -0,0 +1,148 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.fail;
+
+public class KeyedBeansTest {
+
+    private AtomicInteger produced;
+    private List<String> disposed;
+
+    @Test
+    public void keepsABeanPerKey() throws Exception {
+        // given
+        KeyedBeans<String> beans = new KeyedBeans<>("bean", 10, this::produce, disposed::add);
+        // when
+        String first = beans.get("a", 1);
+        String second = beans.get("a", 1);
+        String other = beans.get("a", 2);
+        // then
+        assertThat(first, is("a-1"));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(other, is("a-2"));
+        assertThat(beans.producedCount(), is(2L));
+        assertThat(beans.hitCount(), is(1L));
+    }
+
+    @Test
+    public void producesANewBeanEveryTimeWithoutCaching() throws Exception {
+        // given
+        KeyedBeans<String> beans = new KeyedBeans<>("bean", 0, this::produce, disposed::add);
+        // when
+        String first = beans.get("a", 1);
+        String second = beans.get("a", 1);
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(beans.size(), is(0));
+    }
+
+    @Test
+    public void evictsAndDisposesLeastRecentlyUsedBeans() throws Exception {
+        // given
+        KeyedBeans<String> beans = new KeyedBeans<>("bean", 2, this::produce, disposed::add);
+        List<List<Object>> evicted = new ArrayList<>();
+        beans.addEvictionListener((key, bean) -> evicted.add(key));
+        beans.get("a", 1);
+        beans.get("b", 1);
+        beans.get("a", 1);
+        // when
+        beans.get("c", 1);
+        // then
+        assertThat(evicted, is(Arrays.asList(Arrays.<Object>asList("b", 1))));
+        assertThat(disposed, is(Arrays.asList("b-1")));
+        assertThat(beans.evictionCount(), is(1L));
+        // when
+        beans.evict("a", 1);
+        beans.clear();
+        // then
+        assertThat(disposed, is(Arrays.asList("b-1", "a-1", "c-1")));
+        assertThat(beans.size(), is(0));
+    }
+
+    @Test
+    public void producesABeanOnceForConcurrentCalls() throws Exception {
+        // given
+        CountDownLatch producing = new CountDownLatch(1);
+        KeyedBeans<String> beans = new KeyedBeans<>("bean", 10, key -> {
+            await(producing);
+            return produce(key);
+        }, disposed::add);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        // when
+        for (int i = 0; i < 4; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> beans.get("a", 1), executor));
+        }
+        Thread.sleep(50);
+        producing.countDown();
+        // then
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.join(), is(sameInstance(results.get(0).join())));
+        }
+        assertThat(produced.get(), is(1));
+        executor.shutdown();
+    }
+
+    @Test
+    public void doesNotKeepFailures() throws Exception {
+        // given
+        KeyedBeans<String> beans = new KeyedBeans<>("bean", 10, key -> {
+            produced.incrementAndGet();
+            throw new SimpleDiException("failed");
+        }, disposed::add);
+        try {
+            beans.get("a");
+            fail("exception expected");
+        } catch (SimpleDiException expected) {
+            // when
+        }
+        try {
+            beans.get("a");
+            fail("exception expected");
+        } catch (SimpleDiException expected) {
+            // then
+        }
+        assertThat(produced.get(), is(2));
+        assertThat(beans.size(), is(0));
+    }
+
+    @Test
+    public void namesAFactoryBean() throws Exception {
+        // then
+        assertThat(KeyedBeans.factoryName("client"), is("client#keyed"));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        produced = new AtomicInteger();
+        disposed = new ArrayList<>();
+    }
+
+    private String produce(Object[] key) {
+        produced.incrementAndGet();
+        return key[0] + "-" + key[1];
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class LazyBeanProviderTest {
+
+    static volatile boolean providerInitialized;
+
+    @Test
+    public void loadsProviderClassOnFirstUse() throws Exception {
+        // given
+        LazyBeanProvider<Object> provider = lazy(InitializationTrackingProvider.class.getName());
+        // then
+        assertThat(provider.isLoaded(), is(false));
+        assertThat(providerInitialized, is(false));
+        // when
+        Object bean = provider.provide();
+        // then
+        assertThat(bean, is(notNullValue()));
+        assertThat(provider.isLoaded(), is(true));
+        assertThat(providerInitialized, is(true));
+    }
+
+    @Test
+    public void reportsClassInitializationFailureWithBeanName() throws Exception {
+        // given
+        LazyBeanProvider<Object> provider = lazy(LazyBeanProviderTest.class.getName() + "$FailingProvider");
+        try {
+            // when
+            provider.provide();
+            fail("class initialization failure was not reported");
+        } catch (SimpleDiException e) {
+            // then
+            assertThat(e.getMessage(), containsString("'lazyBean'"));
+            assertThat(e.getCause(), is(instanceOf(ExceptionInInitializerError.class)));
+        }
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*'lazyBean'.*")
+    public void reportsMissingClassWithBeanName() throws Exception {
+        // when
+        lazy("no.such.Provider").provide();
+        // then - error
+    }
+
+    private LazyBeanProvider<Object> lazy(String className) {
+        ProviderManifest.Entry entry = new ProviderManifest.Entry("lazyBean", BeanRegistry.defaultScope(), className);
+        return new LazyBeanProvider<>(entry, getClass().getClassLoader());
+    }
+
+    public static class InitializationTrackingProvider extends NewObjectProvider {
+        static {
+            providerInitialized = true;
+        }
+    }
+
+    public static class FailingProvider extends NewObjectProvider {
+        static final Object VALUE = failInitialization();
+
+        private static Object failInitialization() {
+            throw new IllegalStateException("class initialization failed");
+        }
+    }
+}
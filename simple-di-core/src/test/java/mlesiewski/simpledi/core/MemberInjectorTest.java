@@ -1,7 +1,11 @@
 package mlesiewski.simpledi.core;
 
+import mlesiewski.simpledi.core.annotations.Inject;
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+import mlesiewski.simpledi.core.testutils.IndexedInjectionClient;
 import mlesiewski.simpledi.core.testutils.NewObjectFieldInjectionClient;
 import mlesiewski.simpledi.core.testutils.NewObjectFinalFieldInjectionClient;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -31,6 +35,17 @@ public class MemberInjectorTest {
         assertThat(injectionClient.abstractMember(), is(not(nullValue())));
     }
 
+    @Test
+    public void injectsAMemberWithoutAScopeFromAnyScopeLikeGeneratedInjectors() throws Exception {
+        // given
+        BeanRegistry.register(new TestBeanProvider<Runnable>(() -> () -> {}), Runnable.class, NewInstanceScope.NAME);
+        RunnableClient injectionClient = new RunnableClient();
+        // when
+        MemberInjector.injectMembersInto(injectionClient);
+        // then
+        assertThat(injectionClient.runnable, is(not(nullValue())));
+    }
+
     @Test
     public void doesNotCauseErrorWhenInjectingToABeanWithoutAnyAnnotatedMembers() throws Exception {
         // when
@@ -46,4 +61,29 @@ public class MemberInjectorTest {
         MemberInjector.injectMembersInto(injectionClient);
         // then - exception
     }
-}
\ No newline at end of file
+
+    @Test
+    public void usesGeneratedInjectorListedInTheIndex() throws Exception {
+        // given
+        IndexedInjectionClient injectionClient = new IndexedInjectionClient();
+        // when
+        MemberInjector.injectMembersInto(injectionClient);
+        // then
+        assertThat(injectionClient.injectedByGeneratedInjector, is(true));
+        assertThat(injectionClient.member(), is(not(nullValue())));
+        assertThat(MemberInjector.hasGeneratedInjector(IndexedInjectionClient.class), is(true));
+    }
+
+    @Test
+    public void fallsBackToReflectionForClassesMissingFromTheIndex() throws Exception {
+        // then
+        assertThat(MemberInjector.hasGeneratedInjector(NewObjectFieldInjectionClient.class), is(false));
+        assertThat(MemberInjector.hasGeneratedInjector(Object.class), is(false));
+    }
+
+    private static class RunnableClient {
+
+        @Inject
+        Runnable runnable;
+    }
+}
@@ -0,0 +1,31 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class MembersInjectorIndexTest {
+
+    @Test
+    public void parsesLinesWrittenByLine() throws Exception {
+        // given
+        String text = MembersInjectorIndex.line("a.Bean", "a.BeanMembersInjector") + "\n\n" + MembersInjectorIndex.line("b.Bean", "b.BeanMembersInjector") + "\r\n";
+        // when
+        Map<String, String> index = MembersInjectorIndex.parse(new StringReader(text));
+        // then
+        assertThat(index.size(), is(2));
+        assertThat(index.get("a.Bean"), is("a.BeanMembersInjector"));
+        assertThat(index.get("b.Bean"), is("b.BeanMembersInjector"));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnMalformedLine() throws Exception {
+        // when
+        MembersInjectorIndex.parse(new StringReader("a.Bean"));
+        // then - error
+    }
+}
@@ -0,0 +1,133 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.fail;
+
+public class MethodBatcherTest {
+
+    private List<Collection<String>> bulkCalls;
+    private ExecutorService executor;
+
+    @Test
+    public void coalescesConcurrentCallsIntoOneBulkCall() throws Exception {
+        // given
+        MethodBatcher<String, Integer> batcher = new MethodBatcher<>("length(java.lang.String)", 10, 200_000);
+        // when
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (String key : new String[]{"a", "bb", "a", "missing"}) {
+            results.add(CompletableFuture.supplyAsync(() -> batcher.get(key, this::lengths), executor));
+        }
+        // then
+        assertThat(results.get(0).join(), is(1));
+        assertThat(results.get(1).join(), is(2));
+        assertThat(results.get(2).join(), is(1));
+        assertThat(results.get(3).join(), is(nullValue()));
+        assertThat(bulkCalls.size(), is(1));
+        assertThat(bulkCalls.get(0).size(), is(3));
+        assertThat(batcher.callCount(), is(4L));
+        assertThat(batcher.batchCount(), is(1L));
+        assertThat(batcher.averageBatchSize(), is(4.0));
+        assertThat(batcher.largestBatchSize(), is(3L));
+    }
+
+    @Test
+    public void callsTheBulkMethodOnceABatchIsFull() throws Exception {
+        // given
+        MethodBatcher<String, Integer> batcher = new MethodBatcher<>("length(java.lang.String)", 2, 10_000_000);
+        long start = System.nanoTime();
+        // when
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> batcher.get("a", this::lengths), executor);
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> batcher.get("bb", this::lengths), executor);
+        // then
+        assertThat(first.join() + second.join(), is(3));
+        assertThat(System.nanoTime() - start < 5_000_000_000L, is(true));
+        assertThat(bulkCalls.size(), is(1));
+    }
+
+    @Test
+    public void callsTheBulkMethodAloneAfterTheWindow() throws Exception {
+        // given
+        MethodBatcher<String, Integer> batcher = new MethodBatcher<>("length(java.lang.String)", 10, 0);
+        // when
+        Integer first = batcher.get("a", this::lengths);
+        Integer second = batcher.get("bb", this::lengths);
+        // then
+        assertThat(first, is(1));
+        assertThat(second, is(2));
+        assertThat(bulkCalls.size(), is(2));
+        assertThat(batcher.averageWaitMillis() >= 0, is(true));
+    }
+
+    @Test
+    public void throwsAFailureToEveryCallOfABatch() throws Exception {
+        // given
+        MethodBatcher<String, Integer> batcher = new MethodBatcher<>("length(java.lang.String)", 10, 200_000);
+        MethodBatcher.BulkLoader<String, Integer, IOException> failing = keys -> {
+            throw new IOException("failed");
+        };
+        // when
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (String key : new String[]{"a", "bb"}) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return batcher.get(key, failing);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        // then
+        for (CompletableFuture<Integer> result : results) {
+            try {
+                result.join();
+                fail("exception expected");
+            } catch (CompletionException expected) {
+                assertThat(expected.getCause(), is(instanceOf(IOException.class)));
+            }
+        }
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnNonPositiveMaximumBatchSize() throws Exception {
+        // when
+        new MethodBatcher<>("length(java.lang.String)", 0, 0);
+        // then - exception
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        bulkCalls = new CopyOnWriteArrayList<>();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    private Map<String, Integer> lengths(Collection<String> keys) {
+        bulkCalls.add(keys);
+        Map<String, Integer> lengths = new HashMap<>();
+        keys.stream().filter(key -> !key.equals("missing")).forEach(key -> lengths.put(key, key.length()));
+        return lengths;
+    }
+}
@@ -0,0 +1,124 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.fail;
+
+public class MethodCacheTest {
+
+    private AtomicInteger loads;
+
+    @Test
+    public void loadsAResultOnceAndCountsHitsAndMisses() throws Exception {
+        // given
+        MethodCache<String> cache = new MethodCache<>("method(int)", 10, 0);
+        // when
+        String first = cache.get(MethodCache.key(1), () -> load("one"));
+        String second = cache.get(MethodCache.key(1), () -> load("another one"));
+        // then
+        assertThat(first, is("one"));
+        assertThat(second, is("one"));
+        assertThat(loads.get(), is(1));
+        assertThat(cache.hitCount(), is(1L));
+        assertThat(cache.missCount(), is(1L));
+        assertThat(cache.hitRate(), is(0.5));
+    }
+
+    @Test
+    public void cachesNullArgumentsAndResults() throws Exception {
+        // given
+        MethodCache<String> cache = new MethodCache<>("method(java.lang.String)", 10, 0);
+        // when
+        cache.get(MethodCache.key(null), () -> load(null));
+        String result = cache.get(MethodCache.key(null), () -> load("not null"));
+        // then
+        assertThat(result, is(nullValue()));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedResultsWhenFull() throws Exception {
+        // given
+        MethodCache<String> cache = new MethodCache<>("method(int)", 10, 0);
+        for (int i = 0; i < 10; i++) {
+            int key = i;
+            cache.get(MethodCache.key(key), () -> load("value " + key));
+            Thread.sleep(2);
+        }
+        cache.get(MethodCache.key(0), () -> load("value 0"));
+        // when
+        cache.get(MethodCache.key(10), () -> load("value 10"));
+        // then
+        assertThat(cache.size(), is(9));
+        assertThat(cache.evictionCount(), is(2L));
+        cache.get(MethodCache.key(0), () -> load("value 0"));
+        assertThat(loads.get(), is(11));
+    }
+
+    @Test
+    public void loadsExpiredResultsAgain() throws Exception {
+        // given
+        MethodCache<String> cache = new MethodCache<>("method()", 10, 20);
+        cache.get(MethodCache.NO_ARGUMENTS, () -> load("old"));
+        Thread.sleep(40);
+        // when
+        String result = cache.get(MethodCache.NO_ARGUMENTS, () -> load("new"));
+        // then
+        assertThat(result, is("new"));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void doesNotCacheExceptions() throws Exception {
+        // given
+        MethodCache<String> cache = new MethodCache<>("method()", 10, 0);
+        try {
+            cache.get(MethodCache.NO_ARGUMENTS, () -> {
+                throw new IOException("failed");
+            });
+            fail("exception expected");
+        } catch (IOException expected) {
+            // when
+        }
+        String result = cache.get(MethodCache.NO_ARGUMENTS, () -> load("loaded"));
+        // then
+        assertThat(result, is("loaded"));
+    }
+
+    @Test
+    public void makesEqualKeysOfEqualArguments() throws Exception {
+        // then
+        assertThat(MethodCache.key(1, 2), is(MethodCache.key(1, 2)));
+        assertThat(MethodCache.key(1, 2), is(not(MethodCache.key(2, 1))));
+        assertThat(MethodCache.key(-1, 0), is(not(MethodCache.key(0, -1))));
+        assertThat(MethodCache.key("a", 2L), is(MethodCache.key("a", 2L)));
+        assertThat(MethodCache.key("a", null), is(not(MethodCache.key(null, "a"))));
+        assertThat(MethodCache.keyOf(new Object[]{"a", 1, true}), is(MethodCache.keyOf(new Object[]{"a", 1, true})));
+        assertThat(MethodCache.keyOf(new Object[]{"a", 1, true}).hashCode(), is(MethodCache.keyOf(new Object[]{"a", 1, true}).hashCode()));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnNonPositiveMaximumSize() throws Exception {
+        // when
+        new MethodCache<>("method()", 0, 0);
+        // then - exception
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        loads = new AtomicInteger();
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
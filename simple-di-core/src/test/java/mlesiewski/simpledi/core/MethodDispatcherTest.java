@@ -0,0 +1,107 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.fail;
+
+public class MethodDispatcherTest {
+
+    @Test
+    public void runsCallsOnAnotherThread() throws Exception {
+        // given
+        MethodDispatcher dispatcher = new MethodDispatcher("thread()", 4, 0);
+        // when
+        CompletableFuture<String> result = dispatcher.submit(() -> CompletableFuture.completedFuture(Thread.currentThread().getName()));
+        // then
+        assertThat(result.get(5, TimeUnit.SECONDS).startsWith("simple-di-async-"), is(true));
+        assertThat(result.get(), is(not(Thread.currentThread().getName())));
+        assertThat(dispatcher.completedCount(), is(1L));
+    }
+
+    @Test
+    public void queuesCallsOverTheConcurrencyLimit() throws Exception {
+        // given
+        MethodDispatcher dispatcher = new MethodDispatcher("fetch()", 2, 0);
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        // when
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<Integer> returned = new CompletableFuture<>();
+            pending.add(returned);
+            results.add(dispatcher.submit(() -> returned));
+        }
+        // then
+        waitUntil(() -> dispatcher.runningCount() == 2);
+        assertThat(dispatcher.queuedCount(), is(3));
+        for (int i = 0; i < 5; i++) {
+            pending.get(i).complete(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS), is(i));
+        }
+        assertThat(dispatcher.runningCount(), is(0));
+        assertThat(dispatcher.submittedCount(), is(5L));
+    }
+
+    @Test
+    public void completesExceptionallyWhenTheCallThrows() throws Exception {
+        // given
+        MethodDispatcher dispatcher = new MethodDispatcher("load()", 1, 1);
+        // when
+        CompletableFuture<String> result = dispatcher.submit(() -> {
+            throw new IOException("failed");
+        });
+        // then
+        try {
+            result.join();
+            fail("exception expected");
+        } catch (CompletionException expected) {
+            assertThat(expected.getCause(), is(instanceOf(IOException.class)));
+        }
+        assertThat(dispatcher.failedCount(), is(1L));
+        assertThat(dispatcher.submit(() -> CompletableFuture.completedFuture("next")).get(5, TimeUnit.SECONDS), is("next"));
+    }
+
+    @Test
+    public void runsARejectedCallOnTheCallingThreadAndReleasesItsSlotOnce() throws Exception {
+        // given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        MethodDispatcher dispatcher = new MethodDispatcher("rejected()", 2, executor);
+        // when
+        CompletableFuture<String> result = dispatcher.submit(() -> CompletableFuture.completedFuture(Thread.currentThread().getName()));
+        CompletableFuture<String> next = dispatcher.submit(() -> CompletableFuture.completedFuture("next"));
+        // then
+        assertThat(result.get(5, TimeUnit.SECONDS), is(Thread.currentThread().getName()));
+        assertThat(next.get(5, TimeUnit.SECONDS), is("next"));
+        assertThat(dispatcher.runningCount(), is(0));
+        assertThat(dispatcher.completedCount(), is(2L));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnNonPositiveMaximumConcurrency() throws Exception {
+        // when
+        new MethodDispatcher("load()", 0, 0);
+        // then - exception
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MethodTimerTest {
+
+    @Test
+    public void countsCallsAndErrors() throws Exception {
+        // given
+        MethodTimer timer = new MethodTimer("find(java.lang.String)");
+        // when
+        timer.stop(timer.start(), false);
+        timer.stop(timer.start(), true);
+        timer.stop(timer.start(), false);
+        // then
+        assertThat(timer.callCount(), is(3L));
+        assertThat(timer.errorCount(), is(1L));
+        assertThat(timer.averageMillis() <= timer.maxMillis(), is(true));
+    }
+
+    @Test
+    public void estimatesPercentilesWithinAQuarter() throws Exception {
+        // given
+        MethodTimer timer = new MethodTimer("find(java.lang.String)");
+        // when
+        for (int i = 0; i < 98; i++) {
+            timer.record(1_000_000, false);
+        }
+        timer.record(100_000_000, false);
+        timer.record(100_000_000, false);
+        // then
+        assertThat(timer.percentileMillis(50) >= 1 && timer.percentileMillis(50) < 1.25, is(true));
+        assertThat(timer.percentileMillis(99) >= 100 && timer.percentileMillis(99) <= timer.maxMillis(), is(true));
+        assertThat(timer.maxMillis(), is(100.0));
+    }
+
+    @Test
+    public void collectsCallsOfManyThreads() throws Exception {
+        // given
+        MethodTimer timer = new MethodTimer("find(java.lang.String)");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        // when
+        for (int i = 0; i < 4; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    timer.stop(timer.start(), false);
+                }
+            }, executor));
+        }
+        calls.forEach(CompletableFuture::join);
+        executor.shutdown();
+        // then
+        assertThat(timer.callCount(), is(4000L));
+    }
+
+    @Test
+    public void resetsCounters() throws Exception {
+        // given
+        MethodTimer timer = new MethodTimer("find(java.lang.String)");
+        timer.stop(timer.start(), true);
+        // when
+        timer.reset();
+        // then
+        assertThat(timer.callCount(), is(0L));
+        assertThat(timer.errorCount(), is(0L));
+        assertThat(timer.percentileMillis(99), is(0.0));
+    }
+
+    @Test
+    public void putsValuesIntoBucketsTheyFit() throws Exception {
+        for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 1000, 123_456_789, Long.MAX_VALUE}) {
+            // when
+            int bucket = MethodTimer.bucket(value);
+            // then
+            assertThat(value <= MethodTimer.upperBound(bucket), is(true));
+            assertThat(bucket == 0 || value > MethodTimer.upperBound(bucket - 1), is(true));
+            assertThat(bucket < MethodTimer.BUCKETS, is(true));
+        }
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnAPercentileOutOfRange() throws Exception {
+        // when
+        new MethodTimer("find(java.lang.String)").percentileMillis(101);
+        // then - exception
+    }
+}
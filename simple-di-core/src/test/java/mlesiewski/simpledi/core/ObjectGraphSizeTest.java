@@ -0,0 +1,63 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ObjectGraphSizeTest {
+
+    @Test
+    public void estimatesObjectsAndArrays() throws Exception {
+        // given
+        Holder holder = new Holder(null, new long[4]);
+        // when
+        long size = ObjectGraphSize.estimate(holder, Collections.emptySet(), 100);
+        // then - header 12 + long 8 + 2 references 8 = 28 -> 32, array header 16 + 4 * 8 = 48
+        assertThat(size, is(32L + 48L));
+    }
+
+    @Test
+    public void doesNotCountBoundariesAndSharedObjectsTwice() throws Exception {
+        // given
+        Holder other = new Holder(null, null);
+        Holder holder = new Holder(other, null);
+        Holder cyclic = new Holder(holder, holder);
+        holder.second = cyclic;
+        Set<Object> boundaries = Collections.newSetFromMap(new IdentityHashMap<>());
+        boundaries.add(other);
+        // when
+        long size = ObjectGraphSize.estimate(holder, boundaries, 100);
+        // then - two holders (32 each), the other one is not counted
+        assertThat(size, is(64L));
+    }
+
+    @Test
+    public void walksJdkClassesWhoseFieldsMayNotBeOpened() throws Exception {
+        // given
+        ArrayList<Object> list = new ArrayList<>();
+        list.add("a string");
+        Holder holder = new Holder("another string", list);
+        // when
+        long size = ObjectGraphSize.estimate(holder, Collections.emptySet(), 100);
+        // then - the holder, both strings and the list are counted at least by their shallow size
+        assertThat(size >= 32L + 3 * 16L, is(true));
+    }
+
+    private static final class Holder {
+
+        private final Object first;
+        private Object second;
+        private final long value = 1;
+
+        private Holder(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mlesiewski.simpledi.core;
+
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ProviderManifestTest {
+
+    @Test
+    public void parsesLinesWrittenByLine() throws Exception {
+        // given
+        String text = ProviderManifest.line("bean name", "scope", "a.Provider") + "\n\n" + ProviderManifest.line("other", "scope", "b.Provider") + "\r\n";
+        // when
+        List<ProviderManifest.Entry> entries = ProviderManifest.parse(new StringReader(text));
+        // then
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0).beanName, is("bean name"));
+        assertThat(entries.get(0).scopeName, is("scope"));
+        assertThat(entries.get(0).providerClassName, is("a.Provider"));
+        assertThat(entries.get(1).providerClassName, is("b.Provider"));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnMalformedLine() throws Exception {
+        // when
+        ProviderManifest.parse(new StringReader("bean\ta.Provider"));
+        // then - error
+    }
+}
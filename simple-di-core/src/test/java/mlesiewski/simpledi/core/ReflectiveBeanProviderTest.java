@@ -0,0 +1,170 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.annotations.Dispose;
+import mlesiewski.simpledi.core.testutils.AbstractNewObjectFieldInjectionClient;
+import mlesiewski.simpledi.core.testutils.ConstructorInjectionClient;
+import mlesiewski.simpledi.core.testutils.NewObjectFieldInjectionClient;
+import mlesiewski.simpledi.core.testutils.NewObjectFinalFieldInjectionClient;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static mlesiewski.simpledi.core.testutils.NewObjectProvider.NEW_OBJECT_PROVIDER;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReflectiveBeanProviderTest {
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        BeanRegistry.init();
+        BeanRegistry.register(NEW_OBJECT_PROVIDER, Object.class);
+    }
+
+    @Test
+    public void providesInstancesWithANoArgsConstructorAndInjectsFields() throws Exception {
+        // given
+        BeanRegistry.register(ReflectiveBeanProvider.of(NewObjectFieldInjectionClient.class), NewObjectFieldInjectionClient.class);
+        // when
+        NewObjectFieldInjectionClient bean = BeanRegistry.getBean(NewObjectFieldInjectionClient.class);
+        // then
+        assertThat(bean.member(), is(not(nullValue())));
+        assertThat(bean.abstractMember(), is(not(nullValue())));
+        assertThat(bean.staticMember(), is(nullValue()));
+    }
+
+    @Test
+    public void usesTheAnnotatedConstructor() throws Exception {
+        // given
+        BeanRegistry.register(ReflectiveBeanProvider.of(ConstructorInjectionClient.class), ConstructorInjectionClient.class);
+        // when
+        ConstructorInjectionClient bean = BeanRegistry.getBean(ConstructorInjectionClient.class);
+        // then
+        assertThat(bean.constructorMember(), is(not(nullValue())));
+        assertThat(bean.fieldMember(), is(not(nullValue())));
+    }
+
+    @Test
+    public void providesNewInstancesWithPrivateConstructors() throws Exception {
+        // given
+        ReflectiveBeanProvider<PrivateBean> provider = ReflectiveBeanProvider.of(PrivateBean.class);
+        // when
+        PrivateBean first = provider.provide();
+        PrivateBean second = provider.provide();
+        // then
+        assertThat(first, is(not(sameInstance(second))));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*final.*")
+    public void throwsExceptionOnFinalAnnotatedMember() throws Exception {
+        // when
+        ReflectiveBeanProvider.of(NewObjectFinalFieldInjectionClient.class);
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*abstract.*")
+    public void throwsExceptionOnAbstractClass() throws Exception {
+        // when
+        ReflectiveBeanProvider.of(AbstractNewObjectFieldInjectionClient.class);
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*no-args.*")
+    public void throwsExceptionWhenThereIsNoConstructorToUse() throws Exception {
+        // when
+        ReflectiveBeanProvider.of(NoUsableConstructor.class);
+        // then - exception
+    }
+
+    @Test
+    public void callsTheDisposeMethod() throws Exception {
+        // given
+        ReflectiveBeanProvider<DisposableBean> provider = ReflectiveBeanProvider.of(DisposableBean.class);
+        DisposableBean bean = provider.provide();
+        // when
+        provider.dispose(bean);
+        // then
+        assertThat(bean.disposed, is(true));
+    }
+
+    @Test
+    public void listsInjectedDependencies() throws Exception {
+        // when
+        ReflectiveBeanProvider<ConstructorInjectionClient> provider = ReflectiveBeanProvider.of(ConstructorInjectionClient.class);
+        // then
+        assertThat(provider.dependencies().size(), is(2));
+    }
+
+    @Test
+    public void providesInstancesOfClassesInvisibleToTheLibrary() throws Exception {
+        // given
+        Class<?> pluginClass = new PluginLoader().loadClass(PluginBean.class.getName());
+        // when
+        Object bean = ReflectiveBeanProvider.of(pluginClass).provide();
+        // then
+        assertThat(bean.getClass(), is(sameInstance(pluginClass)));
+        assertThat(pluginClass, is(not(sameInstance(PluginBean.class))));
+    }
+
+    public static class PluginBean {
+    }
+
+    /** defines its own copy of the {@link PluginBean} like a loader of plugins */
+    private static class PluginLoader extends ClassLoader {
+
+        PluginLoader() {
+            super(ReflectiveBeanProviderTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(PluginBean.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                            bytes.write(buffer, 0, read);
+                        }
+                        loaded = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return loaded;
+            }
+        }
+    }
+
+    private static class DisposableBean {
+
+        boolean disposed;
+
+        @Dispose
+        private void close() {
+            disposed = true;
+        }
+    }
+
+    private static class PrivateBean {
+
+        private PrivateBean() {
+        }
+    }
+
+    private static class NoUsableConstructor {
+
+        NoUsableConstructor(Object notAnnotated) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+import mlesiewski.simpledi.core.scopes.SingletonScope;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StartupProfileTest {
+
+    private Path file;
+
+    @Test
+    public void recordsBeansInOrderOfCreation() throws Exception {
+        // given
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        registry.register(new NewObjectProvider(), "first");
+        registry.register(new NewObjectProvider(), "second");
+        StartupProfile.Recorder recorder = StartupProfile.Recorder.start(registry, file);
+        // when
+        registry.bound(() -> registry.getBean("second"));
+        registry.bound(() -> registry.getBean("first"));
+        registry.bound(() -> registry.getBean("second"));
+        recorder.stop();
+        // then
+        List<String[]> entries = StartupProfile.read(file);
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0)[1], is("second"));
+        assertThat(entries.get(1)[1], is("first"));
+    }
+
+    @Test
+    public void replayCreatesRecordedSingletonsAndIgnoresStaleEntries() throws Exception {
+        // given
+        Files.write(file, Arrays.asList(
+                "# a profile",
+                SingletonScope.NAME + "\tstale",
+                SingletonScope.NAME + "\tbean",
+                NewInstanceScope.NAME + "\tnewInstance",
+                "no.such.Scope\tbean"), StandardCharsets.UTF_8);
+        BeanRegistryImpl registry = new BeanRegistryImpl();
+        NewObjectProvider singleton = new NewObjectProvider();
+        NewObjectProvider newInstance = new NewObjectProvider();
+        registry.register(singleton, "bean");
+        registry.register(newInstance, "newInstance", NewInstanceScope.NAME);
+        // when
+        int created = StartupProfile.replay(registry, file, 2);
+        // then
+        assertThat(created, is(1));
+        assertThat(singleton.counter.get(), is(1));
+        assertThat(newInstance.counter.get(), is(0));
+    }
+
+    @Test
+    public void replayOfMissingProfileDoesNothing() throws Exception {
+        // given
+        Files.delete(file);
+        // when
+        int created = StartupProfile.replay(new BeanRegistryImpl(), file, 1);
+        // then
+        assertThat(created, is(0));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = Files.createTempFile("simple-di", ".profile");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,224 @@
+package mlesiewski.simpledi.core;
+
+import mlesiewski.simpledi.core.ShutdownReport.Outcome;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TeardownTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private BeanRegistryImpl registry;
+    private List<String> disposed;
+
+    @Test
+    public void disposesBeansAfterBeansThatDependOnThem() throws Exception {
+        // given
+        register("database", bean -> disposed.add("database"));
+        register("repository", bean -> disposed.add("repository"), "database");
+        register("service", bean -> disposed.add("service"), "repository", "database");
+        registry.getBean("service");
+        registry.getBean("repository");
+        registry.getBean("database");
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(disposed, is(Arrays.asList("service", "repository", "database")));
+        assertThat(report.isClean(), is(true));
+        assertThat(report.count(Outcome.DISPOSED), is(3));
+    }
+
+    @Test
+    public void disposesIndependentBeansInParallel() throws Exception {
+        // given
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Consumer<Object> awaitTheOther = bean -> {
+            bothStarted.countDown();
+            try {
+                if (!bothStarted.await(2, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("disposed one after another");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        register("first", awaitTheOther);
+        register("second", awaitTheOther);
+        registry.getBean("first");
+        registry.getBean("second");
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(report.isClean(), is(true));
+        assertThat(report.count(Outcome.DISPOSED), is(2));
+    }
+
+    @Test
+    public void disposesOnlyCreatedBeans() throws Exception {
+        // given
+        register("created", bean -> disposed.add("created"));
+        register("notCreated", bean -> disposed.add("notCreated"));
+        registry.getBean("created");
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(disposed, is(Collections.singletonList("created")));
+        assertThat(report.disposals().size(), is(1));
+    }
+
+    @Test
+    public void disposesABeanOnlyOnce() throws Exception {
+        // given
+        register("bean", bean -> disposed.add("bean"));
+        registry.getBean("bean");
+        registry.shutdown(TIMEOUT);
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(disposed, is(Collections.singletonList("bean")));
+        assertThat(report.disposals().isEmpty(), is(true));
+    }
+
+    @Test
+    public void disposesDependenciesOfAFailedBean() throws Exception {
+        // given
+        register("dependency", bean -> disposed.add("dependency"));
+        register("failing", bean -> {
+            throw new IllegalStateException("cannot close");
+        }, "dependency");
+        registry.getBean("failing");
+        registry.getBean("dependency");
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(disposed, is(Collections.singletonList("dependency")));
+        assertThat(report.count(Outcome.FAILED), is(1));
+        assertThat(report.disposals().get(0).failure().get().getMessage(), is("cannot close"));
+        assertThat(report.isClean(), is(false));
+    }
+
+    @Test
+    public void interruptsABeanThatDoesNotDisposeInTime() throws Exception {
+        // given
+        CountDownLatch interrupted = new CountDownLatch(1);
+        register("dependency", bean -> disposed.add("dependency"));
+        register("hanging", bean -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }, "dependency");
+        registry.getBean("hanging");
+        registry.getBean("dependency");
+        // when
+        ShutdownReport report = registry.shutdown(Duration.ofMillis(100));
+        // then
+        assertThat(report.count(Outcome.TIMED_OUT), is(1));
+        assertThat(report.disposals().get(0).bean(), is("hanging"));
+        assertThat(disposed, is(Collections.singletonList("dependency")));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void startsATimeoutOfABeanWhenItsDisposingStarts() throws Exception {
+        // given - three rounds of two beans take longer than the timeout of one bean
+        for (int i = 0; i < 6; i++) {
+            register("bean" + i, bean -> {
+                try {
+                    Thread.sleep(150);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            registry.getBean("bean" + i);
+        }
+        // when
+        ShutdownReport report = new Teardown(registry, Duration.ofMillis(300)).run(2);
+        // then
+        assertThat(report.count(Outcome.DISPOSED), is(6));
+    }
+
+    @Test
+    public void doesNotHandOutDisposedBeans() throws Exception {
+        // given
+        register("bean", bean -> disposed.add("bean"));
+        Supplier<Object> link = registry.link("bean");
+        Object before = link.get();
+        // when
+        registry.shutdown(TIMEOUT);
+        // then
+        assertThat(registry.getBean("bean") == before, is(false));
+        assertThat(link.get() == before, is(false));
+    }
+
+    @Test
+    public void breaksADependencyCycle() throws Exception {
+        // given
+        register("one", bean -> disposed.add("one"), "other");
+        register("other", bean -> disposed.add("other"), "one");
+        registry.getBean("one");
+        registry.getBean("other");
+        // when
+        ShutdownReport report = registry.shutdown(TIMEOUT);
+        // then
+        assertThat(report.count(Outcome.DISPOSED), is(2));
+        assertThat(disposed.size(), is(2));
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        registry = new BeanRegistryImpl();
+        disposed = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    private void register(String name, Consumer<Object> dispose, String... dependencies) {
+        registry.register(new DisposableProvider(dispose, dependencies), name);
+    }
+
+    private static final class DisposableProvider implements BeanProvider<Object> {
+
+        private final Consumer<Object> dispose;
+        private final List<BeanHandle> dependencies = new ArrayList<>();
+
+        DisposableProvider(Consumer<Object> dispose, String... dependencies) {
+            this.dispose = dispose;
+            for (String dependency : dependencies) {
+                this.dependencies.add(new BeanHandle(dependency));
+            }
+        }
+
+        @Override
+        public Object provide() {
+            return new Object();
+        }
+
+        @Override
+        public void setSoftDependencies(Object newInstance) {
+            // empty
+        }
+
+        @Override
+        public void dispose(Object bean) {
+            dispose.accept(bean);
+        }
+
+        @Override
+        public List<BeanHandle> dependencies() {
+            return dependencies;
+        }
+    }
+}
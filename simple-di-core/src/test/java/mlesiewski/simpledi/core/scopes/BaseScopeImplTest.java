@@ -6,6 +6,8 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static mlesiewski.simpledi.core.testutils.NewObjectProvider.NEW_OBJECT_PROVIDER;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -21,6 +23,57 @@ public class BaseScopeImplTest {
     private BaseScopeImpl scope;
     private int timesBeanWasProvided = 0;
 
+    @Test
+    public void exposesHeldInstancesAndStartState() throws Exception {
+        // given
+        String name = "registered";
+        scope.register(NEW_OBJECT_PROVIDER, name);
+        // then
+        assertThat(scope.isStarted(), is(false));
+        assertThat(scope.instance(name), is(nullValue()));
+        // when
+        scope.start();
+        Object bean = scope.getBean(name);
+        // then
+        assertThat(scope.isStarted(), is(true));
+        assertThat(scope.instance(name), is(bean));
+    }
+
+    @Test
+    public void endInvalidatesCachedBeans() throws Exception {
+        // given
+        String name = "registered";
+        scope.register(NEW_OBJECT_PROVIDER, name);
+        scope.start();
+        Object first = scope.getBean(name);
+        // when
+        scope.end();
+        scope.start();
+        // then
+        assertThat(scope.hasInstance(name), is(false));
+        assertThat(scope.getBean(name) == first, is(false));
+    }
+
+    @Test
+    public void doesNotCacheABeanCreatedAcrossEndAndStart() throws Exception {
+        // given
+        String name = "registered";
+        AtomicBoolean restart = new AtomicBoolean(true);
+        scope.register(new TestBeanProvider<>(() -> {
+            if (restart.getAndSet(false)) {
+                scope.end();
+                scope.start();
+            }
+            return new Object();
+        }), name);
+        scope.start();
+        // when
+        Object stale = scope.getBean(name);
+        // then
+        assertThat(scope.hasInstance(name), is(false));
+        assertThat(scope.getBean(name) == stale, is(false));
+    }
+
     @Test
     public void doesNotHaveAnUnregisteredBean() throws Exception {
         // given
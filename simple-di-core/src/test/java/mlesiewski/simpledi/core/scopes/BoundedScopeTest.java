@@ -0,0 +1,134 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BoundedScopeTest {
+
+    @Test
+    public void keepsAtMostTheMaximumNumberOfBeans() throws Exception {
+        // given
+        List<String> evicted = new ArrayList<>();
+        BoundedScope scope = new BoundedScope("bounded", 10).onEviction((name, bean) -> evicted.add(name));
+        // when
+        for (int i = 0; i < 100; i++) {
+            scope.register(new NewObjectProvider(), "bean" + i);
+            scope.getBean("bean" + i);
+        }
+        // then
+        assertThat(scope.size(), is(10L));
+        assertThat(scope.evictionCount(), is(90L));
+        assertThat(evicted.size(), is(90));
+    }
+
+    @Test
+    public void keepsFrequentlyUsedBeans() throws Exception {
+        // given
+        BoundedScope scope = new BoundedScope("bounded", 10);
+        scope.register(new NewObjectProvider(), "hot");
+        Object hot = scope.getBean("hot");
+        for (int i = 0; i < 100; i++) {
+            scope.getBean("hot");
+        }
+        // when
+        for (int i = 0; i < 100; i++) {
+            scope.register(new NewObjectProvider(), "cold" + i);
+            scope.getBean("cold" + i);
+        }
+        // then
+        assertThat(scope.hasInstance("hot"), is(true));
+        assertThat(scope.getBean("hot"), is(sameInstance(hot)));
+    }
+
+    @Test
+    public void keepsAtMostTheMaximumWeight() throws Exception {
+        // given
+        BoundedScope scope = new BoundedScope("bounded", 10, (name, bean) -> (Integer) bean);
+        // when
+        for (int i = 0; i < 10; i++) {
+            scope.register(new TestBeanProvider<>(() -> 4), "bean" + i);
+            scope.getBean("bean" + i);
+        }
+        // then
+        assertThat(scope.weightedSize() <= 10, is(true));
+        assertThat(scope.evictionWeight(), is(40L - scope.weightedSize()));
+    }
+
+    @Test
+    public void returnsButDoesNotKeepATooHeavyBean() throws Exception {
+        // given
+        BoundedScope scope = new BoundedScope("bounded", 10, (name, bean) -> (Integer) bean);
+        scope.register(new TestBeanProvider<>(() -> 11), "heavy");
+        // when
+        Integer bean = scope.getBean("heavy");
+        // then
+        assertThat(bean, is(11));
+        assertThat(scope.hasInstance("heavy"), is(false));
+    }
+
+    @Test
+    public void countsHitsAndMisses() throws Exception {
+        // given
+        BoundedScope scope = new BoundedScope("bounded", 10);
+        scope.register(new NewObjectProvider(), "bean");
+        // when
+        scope.getBean("bean");
+        scope.getBean("bean");
+        scope.getBean("bean");
+        // then
+        assertThat(scope.missCount(), is(1L));
+        assertThat(scope.hitCount(), is(2L));
+        assertThat(scope.hitRatio(), is(2d / 3));
+    }
+
+    @Test
+    public void endRemovesAllBeans() throws Exception {
+        // given
+        List<Object> evicted = new ArrayList<>();
+        BoundedScope scope = new BoundedScope("bounded", 10).onEviction((name, bean) -> evicted.add(bean));
+        scope.register(new NewObjectProvider(), "bean");
+        Object bean = scope.getBean("bean");
+        // when
+        scope.end();
+        // then
+        assertThat(scope.size(), is(0L));
+        assertThat(evicted.size(), is(1));
+        assertThat(evicted.get(0), is(sameInstance(bean)));
+    }
+
+    @Test
+    public void doesNotKeepABeanCreatedAcrossEndAndStart() throws Exception {
+        // given
+        BoundedScope scope = new BoundedScope("bounded", 10);
+        AtomicBoolean restart = new AtomicBoolean(true);
+        scope.register(new TestBeanProvider<>(() -> {
+            if (restart.getAndSet(false)) {
+                scope.end();
+                scope.start();
+            }
+            return new Object();
+        }), "bean");
+        // when
+        Object stale = scope.getBean("bean");
+        // then
+        assertThat(scope.hasInstance("bean"), is(false));
+        assertThat(scope.getBean("bean") == stale, is(false));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnNonPositiveMaximum() throws Exception {
+        // when
+        new BoundedScope("bounded", 0);
+        // then - exception
+    }
+}
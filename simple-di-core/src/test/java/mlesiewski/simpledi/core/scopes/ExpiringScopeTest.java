@@ -0,0 +1,188 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static mlesiewski.simpledi.core.testutils.ConcurrentTestHelper.awaitCondition;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ExpiringScopeTest {
+
+    private static final String NAME = "bean";
+
+    @Test
+    public void createsABeanLazilyOnce() throws Exception {
+        // given
+        ExpiringScope scope = new ExpiringScope();
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        // then
+        assertThat(provider.provideCalled, is(false));
+        // when
+        Object first = scope.getBean(NAME);
+        Object second = scope.getBean(NAME);
+        // then
+        assertThat(first, is(sameInstance(second)));
+        assertThat(provider.counter.get(), is(1));
+        assertThat(scope.hasInstance(NAME), is(true));
+    }
+
+    @Test
+    public void refreshesABeanBeforeItExpires() throws Exception {
+        // given
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(new NewObjectProvider(), NAME, Duration.ofMillis(50));
+        Object first = scope.getBean(NAME);
+        // when
+        boolean refreshed = awaitCondition(() -> scope.refreshCount() > 0);
+        // then
+        assertThat(refreshed, is(true));
+        assertThat(scope.getBean(NAME), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void keepsTheOldInstanceWhenARefreshFails() throws Exception {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(new TestBeanProvider<>(() -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IllegalStateException("refresh failed");
+            }
+            return new Object();
+        }), NAME, Duration.ofMillis(50));
+        Object first = scope.getBean(NAME);
+        // when
+        boolean failed = awaitCondition(() -> scope.refreshFailureCount() > 1);
+        // then
+        assertThat(failed, is(true));
+        assertThat(scope.getBean(NAME), is(sameInstance(first)));
+        assertThat(scope.lastRefreshFailure(NAME).get().getMessage(), is("refresh failed"));
+    }
+
+    @Test
+    public void doesNotWaitForARefresh() throws Exception {
+        // given
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(new TestBeanProvider<>(() -> {
+            if (calls.incrementAndGet() > 1) {
+                refreshing.countDown();
+                awaitQuietly(release);
+            }
+            return new Object();
+        }), NAME, Duration.ofMillis(50));
+        Object first = scope.getBean(NAME);
+        refreshing.await();
+        // when
+        Object during = scope.getBean(NAME);
+        release.countDown();
+        boolean refreshed = awaitCondition(() -> scope.refreshCount() > 0);
+        // then
+        assertThat(during, is(sameInstance(first)));
+        assertThat(refreshed, is(true));
+    }
+
+    @Test
+    public void letsABeanThatIsNotReadExpire() throws Exception {
+        // given
+        NewObjectProvider provider = new NewObjectProvider();
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(provider, NAME, Duration.ofMillis(50));
+        scope.getBean(NAME);
+        // when
+        boolean expired = awaitCondition(() -> !scope.hasInstance(NAME));
+        // then - refreshed once after it was created and then dropped
+        assertThat(expired, is(true));
+        assertThat(scope.refreshCount(), is(1L));
+        assertThat(provider.counter.get(), is(2));
+    }
+
+    @Test
+    public void endCancelsRefreshes() throws Exception {
+        // given
+        NewObjectProvider provider = new NewObjectProvider();
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(provider, NAME, Duration.ofMillis(50));
+        scope.getBean(NAME);
+        // when
+        scope.end();
+        Thread.sleep(150);
+        // then
+        assertThat(scope.refreshCount(), is(0L));
+        assertThat(provider.counter.get(), is(1));
+    }
+
+    @Test
+    public void endDiscardsInstances() throws Exception {
+        // given
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(new NewObjectProvider(), NAME);
+        Object first = scope.getBean(NAME);
+        // when
+        scope.end();
+        scope.start();
+        // then
+        assertThat(scope.hasInstance(NAME), is(false));
+        assertThat(scope.getBean(NAME), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void doesNotKeepABeanCreatedAcrossEndAndStart() throws Exception {
+        // given
+        ExpiringScope scope = new ExpiringScope();
+        AtomicBoolean restart = new AtomicBoolean(true);
+        scope.register(new TestBeanProvider<>(() -> {
+            if (restart.getAndSet(false)) {
+                scope.end();
+                scope.start();
+            }
+            return new Object();
+        }), NAME);
+        // when
+        Object stale = scope.getBean(NAME);
+        // then
+        assertThat(scope.hasInstance(NAME), is(false));
+        assertThat(scope.getBean(NAME) == stale, is(false));
+    }
+
+    @Test
+    public void forkHasTheSameTimesToLive() throws Exception {
+        // given
+        ExpiringScope scope = new ExpiringScope();
+        scope.register(new NewObjectProvider(), NAME, Duration.ofMillis(50));
+        ExpiringScope fork = (ExpiringScope) scope.fork();
+        fork.getBean(NAME);
+        // when
+        boolean refreshed = awaitCondition(() -> fork.refreshCount() > 0);
+        // then
+        assertThat(refreshed, is(true));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnNonPositiveTimeToLive() throws Exception {
+        // when
+        new ExpiringScope().timeToLive(NAME, Duration.ZERO);
+        // then - exception
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package mlesiewski.simpledi.core.scopes;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void countsUpToFifteen() throws Exception {
+        // given
+        FrequencySketch sketch = new FrequencySketch(1024);
+        // when
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("five");
+        }
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("twenty");
+        }
+        // then
+        assertThat(sketch.frequency("five"), is(5));
+        assertThat(sketch.frequency("twenty"), is(15));
+        assertThat(sketch.frequency("none"), is(0));
+    }
+
+    @Test
+    public void halvesCountersAfterASample() throws Exception {
+        // given
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("key");
+        }
+        // when - the sample size of the smallest sketch is 160 additions
+        for (int i = 0; i < 152; i++) {
+            sketch.increment(i);
+        }
+        // then
+        assertThat(sketch.frequency("key") <= 4, is(true));
+    }
+}
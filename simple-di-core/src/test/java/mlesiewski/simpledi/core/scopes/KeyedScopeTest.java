@@ -0,0 +1,141 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class KeyedScopeTest {
+
+    private static final String NAME = "bean";
+
+    @Test
+    public void keepsABeanPerKey() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope("keyed", () -> null, 10);
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        // when
+        Object first = scope.getBean("first", NAME);
+        Object second = scope.getBean("second", NAME);
+        // then
+        assertThat(first, is(not(sameInstance(second))));
+        assertThat(scope.getBean("first", NAME), is(sameInstance(first)));
+        assertThat(provider.counter.get(), is(2));
+        assertThat(scope.keys().size(), is(2));
+    }
+
+    @Test
+    public void resolvesAKeyFromTheCurrentThread() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope();
+        scope.register(new NewObjectProvider(), NAME);
+        Object explicit = scope.getBean("tenant", NAME);
+        // when
+        Object bean = KeyedScope.CURRENT_KEY.call("tenant", () -> scope.getBean(NAME));
+        // then
+        assertThat(bean, is(sameInstance(explicit)));
+        assertThat(KeyedScope.CURRENT_KEY.get(), is(nullValue()));
+        assertThat(scope.hasInstance(NAME), is(false));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionWithoutAKey() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope();
+        scope.register(new NewObjectProvider(), NAME);
+        // when
+        scope.getBean(NAME);
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionForAnUnregisteredBean() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope();
+        // when
+        scope.getBean("tenant", NAME);
+        // then - exception
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedKey() throws Exception {
+        // given
+        List<Object> removed = new ArrayList<>();
+        KeyedScope scope = new KeyedScope("keyed", () -> null, 2).onRemoval((key, beans) -> removed.add(key));
+        scope.register(new NewObjectProvider(), NAME);
+        scope.getBean("first", NAME);
+        Thread.sleep(5);
+        scope.getBean("second", NAME);
+        Thread.sleep(5);
+        scope.getBean("first", NAME);
+        Thread.sleep(5);
+        // when
+        scope.getBean("third", NAME);
+        // then
+        assertThat(removed.size(), is(1));
+        assertThat(removed.get(0), is("second"));
+        assertThat(scope.keys().size(), is(2));
+    }
+
+    @Test
+    public void dropsAllBeansOfAKey() throws Exception {
+        // given
+        AtomicReference<Map<String, Object>> removed = new AtomicReference<>();
+        KeyedScope scope = new KeyedScope("keyed", () -> null, 10).onRemoval((key, beans) -> removed.set(beans));
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        Object bean = scope.getBean("tenant", NAME);
+        // when
+        boolean dropped = scope.drop("tenant");
+        // then
+        assertThat(dropped, is(true));
+        assertThat(removed.get().get(NAME), is(sameInstance(bean)));
+        assertThat(scope.keys().isEmpty(), is(true));
+        assertThat(scope.getBean("tenant", NAME), is(not(sameInstance(bean))));
+        assertThat(scope.drop("unknown"), is(false));
+    }
+
+    @Test
+    public void discardsBeansWhenEnded() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope("keyed", () -> null, 10);
+        scope.register(new NewObjectProvider(), NAME);
+        Object bean = scope.getBean("tenant", NAME);
+        // when
+        scope.end();
+        scope.start();
+        // then
+        assertThat(scope.keys().isEmpty(), is(true));
+        assertThat(scope.getBean("tenant", NAME), is(not(sameInstance(bean))));
+    }
+
+    @Test
+    public void forkHasTheSameKeySourceAndBound() throws Exception {
+        // given
+        KeyedScope scope = new KeyedScope("keyed", () -> "tenant", 3);
+        scope.register(new NewObjectProvider(), NAME);
+        // when
+        KeyedScope fork = (KeyedScope) scope.fork();
+        // then
+        assertThat(fork.maximumKeys(), is(3));
+        assertThat(fork.getBean(NAME), is(sameInstance(fork.getBean("tenant", NAME))));
+        assertThat(fork.getBean(NAME), is(not(sameInstance(scope.getBean(NAME)))));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void maximumKeysHaveToBePositive() throws Exception {
+        // when
+        new KeyedScope("keyed", () -> null, 0);
+    }
+}
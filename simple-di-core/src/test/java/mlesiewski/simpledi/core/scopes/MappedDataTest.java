@@ -0,0 +1,79 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedDataTest {
+
+    private static final int SEGMENT_SIZE = 16;
+
+    private Path file;
+    private MappedData data;
+
+    @Test
+    public void readsValuesWithinSegments() throws Exception {
+        // then
+        assertThat(data.size(), is(40L));
+        assertThat(data.segments().length, is(3));
+        assertThat(data.get(0), is((byte) 0));
+        assertThat(data.getInt(4), is(0x04050607));
+        assertThat(data.getLong(16), is(0x1011121314151617L));
+    }
+
+    @Test
+    public void readsValuesAcrossSegments() throws Exception {
+        // then
+        assertThat(data.getInt(14), is(0x0e0f1011));
+        assertThat(data.getLong(28), is(0x1c1d1e1f20212223L));
+    }
+
+    @Test
+    public void slicesWithoutCopying() throws Exception {
+        // when
+        ByteBuffer slice = data.slice(18, 4);
+        // then
+        assertThat(slice.remaining(), is(4));
+        assertThat(slice.get(0), is((byte) 18));
+        assertThat(slice.isReadOnly(), is(true));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void doesNotSliceAcrossSegments() throws Exception {
+        // when
+        data.slice(14, 4);
+        // then - exception
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void doesNotReadBeyondTheEnd() throws Exception {
+        // when
+        data.getLong(36);
+        // then - exception
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = Files.createTempFile("mapped-data-test", ".bin");
+        byte[] bytes = new byte[40];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        Files.write(file, bytes);
+        data = MappedData.map(file, SEGMENT_SIZE);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        data = null;
+        Files.deleteIfExists(file);
+    }
+}
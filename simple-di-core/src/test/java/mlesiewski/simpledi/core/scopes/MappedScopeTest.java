@@ -0,0 +1,139 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedScopeTest {
+
+    private static final String NAME = "lookup table";
+
+    private Path directory;
+    private AtomicInteger builds;
+
+    @Test
+    public void buildsAFileOnceAndMapsIt() throws Exception {
+        // given
+        MappedScope scope = new MappedScope("mapped", directory);
+        scope.register(new TestBeanProvider<>(() -> MappedScope.data(this::writeNumbers)), NAME);
+        // when
+        MappedData data = scope.getBean(NAME);
+        // then
+        assertThat(builds.get(), is(1));
+        assertThat(data.size(), is(4L * 100));
+        assertThat(data.getInt(4L * 42), is(42));
+        assertThat(data.file(), is(directory.resolve("lookup_table.bin")));
+        assertThat(scope.getBean(NAME), is(sameInstance(data)));
+    }
+
+    @Test
+    public void mapsAFileBuiltByAnotherProcess() throws Exception {
+        // given
+        MappedScope first = new MappedScope("mapped", directory);
+        first.register(new TestBeanProvider<>(() -> MappedScope.data(this::writeNumbers)), NAME);
+        first.getBean(NAME);
+        MappedScope second = new MappedScope("mapped", directory);
+        second.register(new TestBeanProvider<>(() -> MappedScope.data(this::writeNumbers)), NAME);
+        // when
+        MappedData data = second.getBean(NAME);
+        // then
+        assertThat(builds.get(), is(1));
+        assertThat(data.getInt(4L * 99), is(99));
+    }
+
+    @Test
+    public void buildsAFileOnceForConcurrentScopes() throws Exception {
+        // given
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            MappedScope scope = new MappedScope("mapped", directory);
+            scope.register(new TestBeanProvider<>(() -> MappedScope.data("numbers", this::writeNumbers)), NAME);
+            threads[i] = new Thread(() -> scope.getBean(NAME));
+        }
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // then
+        assertThat(builds.get(), is(1));
+        assertThat(Files.size(directory.resolve("numbers")), is(400L));
+    }
+
+    @Test
+    public void doesNotLeaveAFileWhenBuildingFails() throws Exception {
+        // given
+        MappedScope scope = new MappedScope("mapped", directory);
+        scope.register(new TestBeanProvider<>(() -> MappedScope.data(out -> {
+            throw new IOException("disk full");
+        })), NAME);
+        // when
+        try {
+            scope.getBean(NAME);
+        } catch (SimpleDiException e) {
+            // expected
+        }
+        // then
+        assertThat(Files.exists(directory.resolve("lookup_table.bin")), is(false));
+        assertThat(Files.exists(directory.resolve("lookup_table.bin.tmp")), is(false));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void dataCanBeRequestedOnlyWhileABeanIsCreated() throws Exception {
+        // when
+        MappedScope.data(this::writeNumbers);
+        // then - exception
+    }
+
+    @Test
+    public void forkUsesTheSameDirectory() throws Exception {
+        // given
+        MappedScope scope = new MappedScope("mapped", directory);
+        // when
+        MappedScope fork = (MappedScope) scope.fork();
+        // then
+        assertThat(fork.directory(), is(directory));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("mapped-scope-test");
+        builds = new AtomicInteger();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private void writeNumbers(WritableByteChannel out) throws IOException {
+        builds.incrementAndGet();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 100);
+        for (int i = 0; i < 100; i++) {
+            buffer.putInt(i);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -5,8 +5,11 @@ import mlesiewski.simpledi.core.testutils.NewObjectProvider;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static mlesiewski.simpledi.core.testutils.ConcurrentTestHelper.THREAD_COUNT;
 import static mlesiewski.simpledi.core.testutils.ConcurrentTestHelper.getBeanGettingThread;
@@ -72,6 +75,30 @@ public class SingletonScopeTest {
         assertThat(objectProvider.counter.get(), is(1));
     }
 
+    @Test
+    public void differentBeansAreCreatedConcurrently() throws Exception {
+        // given
+        CountDownLatch secondCreated = new CountDownLatch(1);
+        singletonScope.register(new TestBeanProvider<>(() -> {
+            try {
+                return secondCreated.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }), "first");
+        singletonScope.register(new TestBeanProvider<>(() -> {
+            secondCreated.countDown();
+            return true;
+        }), "second");
+        Thread first = new Thread(() -> singletonScope.getBean("first"));
+        // when
+        first.start();
+        singletonScope.getBean("second");
+        first.join();
+        // then
+        assertThat(singletonScope.getBean("first"), is(true));
+    }
+
     @BeforeMethod
     public void setUp() throws Exception {
         singletonScope = new SingletonScope();
@@ -0,0 +1,192 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SnapshotScopeTest {
+
+    private static final String NAME = "rules";
+
+    private Path directory;
+    private AtomicInteger builds;
+
+    @Test
+    public void buildsABeanAndWritesItsSnapshot() throws Exception {
+        // given
+        SnapshotScope scope = newScope("v1");
+        // when
+        List<String> bean = scope.getBean(NAME);
+        // then
+        assertThat(bean, is(rules()));
+        assertThat(builds.get(), is(1));
+        assertThat(scope.buildCount(), is(1L));
+        assertThat(Files.exists(directory.resolve("rules.snapshot")), is(true));
+        assertThat(scope.getBean(NAME), is(sameInstance(bean)));
+    }
+
+    @Test
+    public void loadsABeanFromItsSnapshotOnRestart() throws Exception {
+        // given
+        newScope("v1").getBean(NAME);
+        SnapshotScope restarted = newScope("v1");
+        // when
+        List<String> bean = restarted.getBean(NAME);
+        // then
+        assertThat(bean, is(rules()));
+        assertThat(builds.get(), is(1));
+        assertThat(restarted.loadCount(), is(1L));
+        assertThat(restarted.buildCount(), is(0L));
+    }
+
+    @Test
+    public void buildsABeanIfTheFingerprintChanged() throws Exception {
+        // given
+        newScope("v1").getBean(NAME);
+        SnapshotScope restarted = newScope("v2");
+        // when
+        restarted.getBean(NAME);
+        SnapshotScope restartedAgain = newScope("v2");
+        restartedAgain.getBean(NAME);
+        // then
+        assertThat(builds.get(), is(2));
+        assertThat(restarted.buildCount(), is(1L));
+        assertThat(restartedAgain.loadCount(), is(1L));
+    }
+
+    @Test
+    public void buildsABeanIfTheSnapshotIsCorrupt() throws Exception {
+        // given
+        newScope("v1").getBean(NAME);
+        Path file = directory.resolve("rules.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0xff;
+        Files.write(file, bytes);
+        SnapshotScope restarted = newScope("v1");
+        // when
+        List<String> bean = restarted.getBean(NAME);
+        // then
+        assertThat(bean, is(rules()));
+        assertThat(builds.get(), is(2));
+        assertThat(newScope("v1").<List<String>>getBean(NAME), is(rules()));
+        assertThat(builds.get(), is(2));
+    }
+
+    @Test
+    public void buildsABeanIfTheSnapshotIsTruncated() throws Exception {
+        // given
+        newScope("v1").getBean(NAME);
+        Path file = directory.resolve("rules.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        // when
+        List<String> bean = newScope("v1").getBean(NAME);
+        // then
+        assertThat(bean, is(rules()));
+        assertThat(builds.get(), is(2));
+    }
+
+    @Test
+    public void buildsABeanIfTheSnapshotHeaderHasAHugeFingerprintLength() throws Exception {
+        // given - the fingerprint length follows the magic number and the format version
+        newScope("v1").getBean(NAME);
+        Path file = directory.resolve("rules.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(2 * Integer.BYTES, 0x7ffffff0);
+        Files.write(file, bytes);
+        // when
+        List<String> bean = newScope("v1").getBean(NAME);
+        // then
+        assertThat(bean, is(rules()));
+        assertThat(builds.get(), is(2));
+    }
+
+    @Test
+    public void createsOtherBeansLikeASingletonScope() throws Exception {
+        // given
+        SnapshotScope scope = new SnapshotScope("snapshot", directory);
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, "other");
+        // when
+        Object first = scope.getBean("other");
+        Object second = scope.getBean("other");
+        // then
+        assertThat(first, is(sameInstance(second)));
+        assertThat(provider.counter.get(), is(1));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("snapshot-scope-test");
+        builds = new AtomicInteger();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private SnapshotScope newScope(String fingerprint) {
+        SnapshotScope scope = new SnapshotScope("snapshot", directory);
+        scope.register(new TestBeanProvider<>(() -> {
+            builds.incrementAndGet();
+            return rules();
+        }), NAME, fingerprint, new StringListCodec());
+        return scope;
+    }
+
+    private static List<String> rules() {
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rules.add("rule " + i);
+        }
+        return rules;
+    }
+
+    private static final class StringListCodec implements SnapshotScope.Codec<List<String>> {
+
+        @Override
+        public void write(List<String> bean, DataOutput out) throws IOException {
+            out.writeInt(bean.size());
+            for (String value : bean) {
+                out.writeUTF(value);
+            }
+        }
+
+        @Override
+        public List<String> read(ByteBuffer in) throws IOException {
+            int size = in.getInt();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte[] bytes = new byte[in.getShort() & 0xffff];
+                in.get(bytes);
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package mlesiewski.simpledi.core.scopes;
+
+import mlesiewski.simpledi.core.SimpleDiException;
+import mlesiewski.simpledi.core.testutils.NewObjectProvider;
+import mlesiewski.simpledi.core.testutils.TestBeanProvider;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StripedScopeTest {
+
+    private static final String NAME = "bean";
+    private static final int THREADS = 16;
+
+    @Test
+    public void createsOneStripePerThreadLazily() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        // then
+        assertThat(provider.provideCalled, is(false));
+        assertThat(scope.hasInstance(NAME), is(false));
+        // when
+        Object first = scope.getBean(NAME);
+        Object second = scope.getBean(NAME);
+        // then
+        assertThat(first, is(sameInstance(second)));
+        assertThat(provider.counter.get(), is(1));
+        assertThat(scope.instance(NAME), is(sameInstance(first)));
+        assertThat(scope.stripes(NAME).size(), is(1));
+    }
+
+    @Test
+    public void createsAtMostStripeCountInstances() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        Set<Object> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        // when
+        runInThreads(() -> seen.add(scope.getBean(NAME)));
+        // then
+        assertThat(seen.size() <= 4, is(true));
+        assertThat(provider.counter.get(), is(seen.size()));
+        assertThat(scope.stripes(NAME).size(), is(seen.size()));
+    }
+
+    @Test
+    public void aggregatesStripes() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        scope.register(new TestBeanProvider<>(LongAdder::new), NAME);
+        // when
+        runInThreads(() -> {
+            for (int i = 0; i < 1000; i++) {
+                scope.<LongAdder>getBean(NAME).increment();
+            }
+        });
+        long total = scope.<LongAdder, Long>aggregate(NAME, adders -> adders.stream().mapToLong(LongAdder::sum).sum());
+        // then
+        assertThat(total, is(THREADS * 1000L));
+    }
+
+    @Test
+    public void aggregatesNothingBeforeABeanIsCreated() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        scope.register(new NewObjectProvider(), NAME);
+        // when
+        int count = scope.<Object, Integer>aggregate(NAME, List::size);
+        // then
+        assertThat(count, is(0));
+        assertThat(scope.instance(NAME), is(nullValue()));
+    }
+
+    @Test
+    public void discardsStripesWhenEnded() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        NewObjectProvider provider = new NewObjectProvider();
+        scope.register(provider, NAME);
+        Object first = scope.getBean(NAME);
+        // when
+        scope.end();
+        scope.start();
+        Object second = scope.getBean(NAME);
+        // then
+        assertThat(first == second, is(false));
+        assertThat(provider.counter.get(), is(2));
+    }
+
+    @Test
+    public void doesNotKeepABeanCreatedAcrossEndAndStart() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 4);
+        AtomicBoolean restart = new AtomicBoolean(true);
+        scope.register(new TestBeanProvider<>(() -> {
+            if (restart.getAndSet(false)) {
+                scope.end();
+                scope.start();
+            }
+            return new Object();
+        }), NAME);
+        // when
+        Object stale = scope.getBean(NAME);
+        // then
+        assertThat(scope.hasInstance(NAME), is(false));
+        assertThat(scope.getBean(NAME) == stale, is(false));
+    }
+
+    @Test
+    public void forkHasTheSameStripeCount() throws Exception {
+        // given
+        StripedScope scope = new StripedScope("striped", 3);
+        // when
+        StripedScope fork = (StripedScope) scope.fork();
+        // then
+        assertThat(fork.stripeCount(), is(3));
+        assertThat(fork.getName(), is("striped"));
+    }
+
+    @Test
+    public void hasAStripePerProcessorByDefault() throws Exception {
+        // when
+        StripedScope scope = new StripedScope();
+        // then
+        assertThat(scope.getName(), is(StripedScope.NAME));
+        assertThat(scope.stripeCount(), is(Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void stripeCountHasToBePositive() throws Exception {
+        // when
+        new StripedScope("striped", 0);
+    }
+
+    private static void runInThreads(Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package mlesiewski.simpledi.core.testutils;
+
+import mlesiewski.simpledi.core.annotations.Inject;
+
+public class ConstructorInjectionClient {
+
+    private final Object constructorMember;
+
+    @Inject
+    private Object fieldMember;
+
+    public ConstructorInjectionClient() {
+        this(null);
+    }
+
+    @Inject
+    ConstructorInjectionClient(Object constructorMember) {
+        this.constructorMember = constructorMember;
+    }
+
+    public Object constructorMember() {
+        return constructorMember;
+    }
+
+    public Object fieldMember() {
+        return fieldMember;
+    }
+}
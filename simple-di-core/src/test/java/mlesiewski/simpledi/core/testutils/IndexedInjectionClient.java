@@ -0,0 +1,19 @@
+package mlesiewski.simpledi.core.testutils;
+
+import mlesiewski.simpledi.core.annotations.Inject;
+
+public class IndexedInjectionClient {
+
+    @Inject
+    private Object member;
+
+    public boolean injectedByGeneratedInjector;
+
+    public Object member() {
+        return member;
+    }
+
+    public void setMember(Object member) {
+        this.member = member;
+    }
+}
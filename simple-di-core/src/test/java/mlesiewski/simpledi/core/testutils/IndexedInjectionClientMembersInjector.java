@@ -0,0 +1,16 @@
+package mlesiewski.simpledi.core.testutils;
+
+import mlesiewski.simpledi.core.BeanHandle;
+import mlesiewski.simpledi.core.MembersInjector;
+
+/** an injector like the ones generated by the annotation processor - listed in the test members injector index */
+public class IndexedInjectionClientMembersInjector implements MembersInjector<IndexedInjectionClient> {
+
+    private final BeanHandle dependency0 = new BeanHandle("java.lang.Object");
+
+    @Override
+    public void injectMembers(IndexedInjectionClient bean) {
+        bean.setMember(dependency0.get());
+        bean.injectedByGeneratedInjector = true;
+    }
+}
@@ -0,0 +1,46 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.annotations.Cached;
+import mlesiewski.simpledi.core.annotations.Inject;
+import test.inject.BeanInjectedByType;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PriceCalculator {
+
+    final AtomicInteger calls = new AtomicInteger();
+    final BeanInjectedByType dependency;
+
+    @Inject
+    public PriceCalculator(BeanInjectedByType dependency) {
+        this.dependency = dependency;
+    }
+
+    @Cached
+    public long price(String item) {
+        calls.incrementAndGet();
+        return item.length() * 100L;
+    }
+
+    @Cached(maximumSize = 16)
+    int total(int quantity, int unitPrice) {
+        calls.incrementAndGet();
+        return quantity * unitPrice;
+    }
+
+    @Cached
+    public String label(String item, int quantity, boolean discounted) {
+        calls.incrementAndGet();
+        return quantity + " x " + item + (discounted ? " (discounted)" : "");
+    }
+
+    @Cached(expireAfterMillis = 60_000)
+    public String load(String file) throws IOException {
+        calls.incrementAndGet();
+        if (file.isEmpty()) {
+            throw new IOException("no file");
+        }
+        return "content of " + file;
+    }
+}
@@ -0,0 +1,27 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.annotations.Async;
+import mlesiewski.simpledi.core.annotations.Bean;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+@Bean
+public class ReportService {
+
+    volatile String thread;
+
+    @Async(maximumConcurrency = 2)
+    public CompletableFuture<String> report(String name) {
+        thread = Thread.currentThread().getName();
+        return CompletableFuture.completedFuture("report " + name);
+    }
+
+    @Async(poolSize = 1)
+    public CompletableFuture<byte[]> export(String name) throws IOException {
+        if (name.isEmpty()) {
+            throw new IOException("no name");
+        }
+        return CompletableFuture.completedFuture(name.getBytes());
+    }
+}
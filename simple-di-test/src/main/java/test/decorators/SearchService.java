@@ -0,0 +1,36 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.annotations.Bean;
+import mlesiewski.simpledi.core.annotations.Cached;
+import mlesiewski.simpledi.core.annotations.Timed;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Bean
+public class SearchService {
+
+    final List<String> indexed = new ArrayList<>();
+
+    @Timed
+    public List<String> find(String query) throws IOException {
+        if (query.isEmpty()) {
+            throw new IOException("no query");
+        }
+        List<String> found = new ArrayList<>();
+        indexed.stream().filter(document -> document.contains(query)).forEach(found::add);
+        return found;
+    }
+
+    @Timed
+    void index(String document) {
+        indexed.add(document);
+    }
+
+    @Timed
+    @Cached
+    public int count(String query) {
+        return (int) indexed.stream().filter(document -> document.contains(query)).count();
+    }
+}
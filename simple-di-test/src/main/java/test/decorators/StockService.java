@@ -0,0 +1,47 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.annotations.Batched;
+import mlesiewski.simpledi.core.annotations.Bean;
+import mlesiewski.simpledi.core.annotations.Cached;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Bean
+public class StockService {
+
+    final List<Collection<?>> bulkCalls = new CopyOnWriteArrayList<>();
+
+    @Batched(bulk = "stocks", windowMicros = 200_000)
+    public Integer stock(String item) throws IOException {
+        throw new UnsupportedOperationException("batched");
+    }
+
+    public Map<String, Integer> stocks(List<String> items) throws IOException {
+        bulkCalls.add(items);
+        if (items.contains("")) {
+            throw new IOException("no item");
+        }
+        Map<String, Integer> stocks = new HashMap<>();
+        items.stream().filter(item -> !item.equals("unknown")).forEach(item -> stocks.put(item, item.length()));
+        return stocks;
+    }
+
+    @Cached
+    @Batched(bulk = "names", maximumBatchSize = 2, windowMicros = 200_000)
+    public String name(int id) {
+        throw new UnsupportedOperationException("batched");
+    }
+
+    Map<Integer, String> names(Set<Integer> ids) {
+        bulkCalls.add(ids);
+        Map<Integer, String> names = new HashMap<>();
+        ids.forEach(id -> names.put(id, "item " + id));
+        return names;
+    }
+}
@@ -0,0 +1,20 @@
+package test.dispose;
+
+import mlesiewski.simpledi.core.annotations.Bean;
+import mlesiewski.simpledi.core.annotations.Dispose;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Bean
+public class Connection {
+
+    /** classes of disposed beans in the order they were disposed */
+    public static final List<Class<?>> DISPOSED = Collections.synchronizedList(new ArrayList<>());
+
+    @Dispose
+    public void close() {
+        DISPOSED.add(Connection.class);
+    }
+}
@@ -0,0 +1,19 @@
+package test.dispose;
+
+import mlesiewski.simpledi.core.annotations.Dispose;
+import mlesiewski.simpledi.core.annotations.Inject;
+
+public class Repository {
+
+    final Connection connection;
+
+    @Inject
+    public Repository(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Dispose
+    void flush() {
+        Connection.DISPOSED.add(Repository.class);
+    }
+}
@@ -0,0 +1,17 @@
+package test.keyed;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+public class Formatter {
+
+    private final NumberFormat format;
+
+    Formatter(Locale locale) {
+        this.format = NumberFormat.getInstance(locale);
+    }
+
+    public String format(double number) {
+        return format.format(number);
+    }
+}
@@ -0,0 +1,20 @@
+package test.keyed;
+
+import mlesiewski.simpledi.core.annotations.Dispose;
+
+public class RegionClient {
+
+    public final String region;
+    public final int port;
+    public volatile boolean closed;
+
+    RegionClient(String region, int port) {
+        this.region = region;
+        this.port = port;
+    }
+
+    @Dispose
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,27 @@
+package test.keyed;
+
+import mlesiewski.simpledi.core.annotations.Produce;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RegionClients {
+
+    public static final String FORMATTER = "formatter";
+
+    final AtomicInteger created = new AtomicInteger();
+
+    @Produce(maximumCached = 2)
+    RegionClient client(String region, int port) {
+        created.incrementAndGet();
+        if (region.isEmpty()) {
+            throw new IllegalArgumentException("no region");
+        }
+        return new RegionClient(region, port);
+    }
+
+    @Produce(name = FORMATTER)
+    static Formatter formatter(Locale locale) {
+        return new Formatter(locale);
+    }
+}
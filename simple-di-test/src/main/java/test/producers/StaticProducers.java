@@ -0,0 +1,32 @@
+package test.producers;
+
+import mlesiewski.simpledi.core.annotations.Produce;
+import mlesiewski.simpledi.core.scopes.NewInstanceScope;
+
+import java.io.IOException;
+
+public final class StaticProducers {
+
+    public static final String STATIC = "static_bean";
+    public static final String STATIC_NEW = "static_new_bean";
+    public static final String STATIC_EXCEPTION_BEAN = "static_exception_bean";
+    public static final String STATIC_EXCEPTION_MESSAGE = "static_exception_message";
+
+    private StaticProducers() {
+    }
+
+    @Produce(name = STATIC)
+    static UnnamedBean produceStaticBean() {
+        return new UnnamedBean(STATIC);
+    }
+
+    @Produce(name = STATIC_NEW, scope = NewInstanceScope.NAME)
+    public static UnnamedBean produceNewStaticBean() {
+        return new UnnamedBean(STATIC_NEW);
+    }
+
+    @Produce(name = STATIC_EXCEPTION_BEAN, scope = NewInstanceScope.NAME)
+    static UnnamedBean produceStaticExceptionBean() throws IOException {
+        throw new IOException(STATIC_EXCEPTION_MESSAGE);
+    }
+}
@@ -0,0 +1,81 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.MethodCache;
+import mlesiewski.simpledi.core.MethodCaches;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class PriceCalculatorTest {
+
+    private PriceCalculator calculator;
+
+    @Test
+    public void providesADecoratedBeanWithItsDependencies() throws Exception {
+        // then
+        assertThat(calculator, is(instanceOf(MethodCaches.class)));
+        assertThat(calculator.dependency, is(notNullValue()));
+    }
+
+    @Test
+    public void cachesResultsByArguments() throws Exception {
+        // when
+        long first = calculator.price("apple");
+        long second = calculator.price("apple");
+        calculator.price("pear");
+        // then
+        assertThat(first, is(500L));
+        assertThat(second, is(500L));
+        assertThat(calculator.calls.get(), is(2));
+        MethodCache<?> cache = ((MethodCaches) calculator).methodCaches().get("price(java.lang.String)");
+        assertThat(cache.hitCount(), is(1L));
+        assertThat(cache.missCount(), is(2L));
+    }
+
+    @Test
+    public void cachesResultsOfMethodsWithMoreArguments() throws Exception {
+        // when
+        calculator.total(2, 3);
+        calculator.total(2, 3);
+        calculator.total(3, 2);
+        calculator.label("apple", 2, true);
+        calculator.label("apple", 2, true);
+        calculator.label("apple", 2, false);
+        // then
+        assertThat(calculator.total(2, 3), is(6));
+        assertThat(calculator.label("apple", 2, true), is("2 x apple (discounted)"));
+        assertThat(calculator.calls.get(), is(4));
+    }
+
+    @Test
+    public void doesNotCacheExceptions() throws Exception {
+        // given
+        try {
+            calculator.load("");
+            fail("exception expected");
+        } catch (IOException expected) {
+            // when
+        }
+        try {
+            calculator.load("");
+            fail("exception expected");
+        } catch (IOException expected) {
+            // then
+        }
+        assertThat(calculator.load("prices.csv"), is("content of prices.csv"));
+        assertThat(calculator.calls.get(), is(3));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        calculator = BeanRegistryContext.create().getBean(PriceCalculator.class);
+    }
+}
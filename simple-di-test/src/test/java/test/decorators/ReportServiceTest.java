@@ -0,0 +1,66 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.MethodBatchers;
+import mlesiewski.simpledi.core.MethodCaches;
+import mlesiewski.simpledi.core.MethodDispatcher;
+import mlesiewski.simpledi.core.MethodDispatchers;
+import mlesiewski.simpledi.core.MethodTimers;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class ReportServiceTest {
+
+    private ReportService service;
+
+    @Test
+    public void runsAsyncMethodsOnContainerThreads() throws Exception {
+        // when
+        String report = service.report("sales").get(5, TimeUnit.SECONDS);
+        // then
+        assertThat(report, is("report sales"));
+        assertThat(service.thread.startsWith("simple-di-async-"), is(true));
+        MethodDispatcher dispatcher = ((MethodDispatchers) service).methodDispatchers().get("report(java.lang.String)");
+        assertThat(dispatcher.maximumConcurrency(), is(2));
+        assertThat(dispatcher.completedCount(), is(1L));
+    }
+
+    @Test
+    public void implementsOnlyInterfacesOfItsDecorations() throws Exception {
+        // then
+        assertThat(service, is(instanceOf(MethodDispatchers.class)));
+        assertThat(service, is(not(instanceOf(MethodCaches.class))));
+        assertThat(service, is(not(instanceOf(MethodBatchers.class))));
+        assertThat(service, is(not(instanceOf(MethodTimers.class))));
+    }
+
+    @Test
+    public void completesExceptionallyWhenTheMethodThrows() throws Exception {
+        // when
+        CompletableFuture<byte[]> export = service.export("");
+        // then
+        try {
+            export.get(5, TimeUnit.SECONDS);
+            fail("exception expected");
+        } catch (ExecutionException expected) {
+            assertThat(expected.getCause(), is(instanceOf(IOException.class)));
+        }
+        assertThat(new String(service.export("sales").get(5, TimeUnit.SECONDS)), is("sales"));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        service = BeanRegistryContext.create().getBean(ReportService.class);
+    }
+}
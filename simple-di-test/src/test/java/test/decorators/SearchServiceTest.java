@@ -0,0 +1,63 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.MethodTimer;
+import mlesiewski.simpledi.core.MethodTimers;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class SearchServiceTest {
+
+    private SearchService service;
+    private Map<String, MethodTimer> timers;
+
+    @Test
+    public void timesCallsOfMethods() throws Exception {
+        // when
+        service.index("simple dependency injection");
+        service.index("dependency inversion");
+        // then
+        assertThat(service.find("dependency").size(), is(2));
+        assertThat(timers.get("index(java.lang.String)").callCount(), is(2L));
+        assertThat(timers.get("find(java.lang.String)").callCount(), is(1L));
+        assertThat(timers.get("find(java.lang.String)").errorCount(), is(0L));
+    }
+
+    @Test
+    public void countsFailedCalls() throws Exception {
+        // when
+        try {
+            service.find("");
+            fail("exception expected");
+        } catch (IOException expected) {
+            // then
+        }
+        assertThat(timers.get("find(java.lang.String)").errorCount(), is(1L));
+    }
+
+    @Test
+    public void timesCachedCalls() throws Exception {
+        // given
+        service.index("dependency inversion");
+        // when
+        service.count("dependency");
+        service.count("dependency");
+        // then
+        assertThat(timers.get("count(java.lang.String)").callCount(), is(2L));
+        assertThat(service.find("dependency"), is(Collections.singletonList("dependency inversion")));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        service = BeanRegistryContext.create().getBean(SearchService.class);
+        timers = ((MethodTimers) service).methodTimers();
+    }
+}
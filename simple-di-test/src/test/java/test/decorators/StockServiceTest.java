@@ -0,0 +1,99 @@
+package test.decorators;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.MethodBatcher;
+import mlesiewski.simpledi.core.MethodBatchers;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class StockServiceTest {
+
+    private StockService service;
+
+    @Test
+    public void coalescesConcurrentCallsIntoOneBulkCall() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // when
+            List<CompletableFuture<Integer>> stocks = new ArrayList<>();
+            for (String item : Arrays.asList("apple", "pear", "unknown")) {
+                stocks.add(CompletableFuture.supplyAsync(() -> stock(item), executor));
+            }
+            // then
+            assertThat(stocks.get(0).join(), is(5));
+            assertThat(stocks.get(1).join(), is(4));
+            assertThat(stocks.get(2).join(), is(nullValue()));
+            assertThat(service.bulkCalls.size(), is(1));
+            assertThat(new HashSet<>(service.bulkCalls.get(0)), is(new HashSet<>(Arrays.asList("apple", "pear", "unknown"))));
+            MethodBatcher<?, ?> batcher = ((MethodBatchers) service).methodBatchers().get("stock(java.lang.String)");
+            assertThat(batcher.callCount(), is(3L));
+            assertThat(batcher.batchCount(), is(1L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void throwsAFailureOfTheBulkMethod() throws Exception {
+        // when
+        try {
+            service.stock("");
+            fail("exception expected");
+        } catch (IOException expected) {
+            // then
+        }
+    }
+
+    @Test
+    public void batchesMissesOfACachedMethod() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<CompletableFuture<String>> names = new ArrayList<>();
+            for (int id = 0; id < 3; id++) {
+                int key = id;
+                names.add(CompletableFuture.supplyAsync(() -> service.name(key), executor));
+            }
+            names.forEach(CompletableFuture::join);
+            // when
+            String name = service.name(1);
+            // then
+            assertThat(name, is("item 1"));
+            assertThat(service.bulkCalls.size(), is(2));
+            assertThat(service.bulkCalls.get(0), is(instanceOf(java.util.Set.class)));
+            assertThat(((MethodBatchers) service).methodBatchers().get("name(int)").largestBatchSize(), is(2L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        service = BeanRegistryContext.create().getBean(StockService.class);
+    }
+
+    private Integer stock(String item) {
+        try {
+            return service.stock(item);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
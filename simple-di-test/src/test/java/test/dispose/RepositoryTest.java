@@ -0,0 +1,27 @@
+package test.dispose;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.ShutdownReport;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class RepositoryTest {
+
+    @Test
+    public void disposesABeanBeforeItsDependencies() throws Exception {
+        // given
+        BeanRegistryContext context = BeanRegistryContext.create();
+        context.getBean(Repository.class);
+        Connection.DISPOSED.clear();
+        // when
+        ShutdownReport report = context.shutdown(Duration.ofSeconds(5));
+        // then
+        assertThat(report.isClean(), is(true));
+        assertThat(Connection.DISPOSED, is(Arrays.<Class<?>>asList(Repository.class, Connection.class)));
+    }
+}
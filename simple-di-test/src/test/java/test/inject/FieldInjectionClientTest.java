@@ -1,6 +1,8 @@
 package test.inject;
 
 import mlesiewski.simpledi.core.BeanRegistry;
+import mlesiewski.simpledi.core.MemberInjector;
+import mlesiewski.simpledi.core.MembersInjector;
 import org.testng.annotations.Test;
 
 import java.util.UUID;
@@ -27,4 +29,27 @@ public class FieldInjectionClientTest {
         assertThat(scopedByTypeActual, is(BeanInjectedByType.CALL_UUID));
         assertThat(defaultScopeByTypeInSuperclassActual, is(BeanInjectedByType.CALL_UUID));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void injectsBeansIntoFieldsOfAnExistingInstanceWithAGeneratedInjector() throws Exception {
+        // given
+        FieldInjectionClient injectionClient = new FieldInjectionClient();
+        // when
+        MemberInjector.injectMembersInto(injectionClient);
+        // then
+        assertThat(MembersInjector.class.isAssignableFrom(Class.forName("test.inject.FieldInjectionClientMembersInjector")), is(true));
+        assertThat(injectionClient.defaultScopeByName.call(), is(BeanInjectedByName.CALL_UUID));
+        assertThat(injectionClient.scopedByType.call(), is(BeanInjectedByType.CALL_UUID));
+        assertThat(injectionClient.defaultScopeByTypeInSuperclass.call(), is(BeanInjectedByType.CALL_UUID));
+    }
+
+    @Test
+    public void injectsBeansIntoPrivateFieldsOfAnExistingInstanceBySetters() throws Exception {
+        // given
+        PrivateFieldAccessLevelsClient injectionClient = new PrivateFieldAccessLevelsClient();
+        // when
+        MemberInjector.injectMembersInto(injectionClient);
+        // then
+        assertThat(injectionClient.call(), is(BeanInjectedByType.CALL_UUID));
+    }
+}
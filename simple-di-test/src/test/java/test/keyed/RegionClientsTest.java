@@ -0,0 +1,125 @@
+package test.keyed;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.KeyedBeans;
+import mlesiewski.simpledi.core.SimpleDiException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class RegionClientsTest {
+
+    private BeanRegistryContext context;
+
+    @Test
+    public void producesAndKeepsABeanPerKey() throws Exception {
+        // when
+        RegionClient first = context.produce(RegionClient.class, "eu", 443);
+        RegionClient second = context.produce(RegionClient.class, "eu", 443);
+        RegionClient other = context.produce(RegionClient.class, "us", 443);
+        // then
+        assertThat(first.region, is("eu"));
+        assertThat(first.port, is(443));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(other, is(not(sameInstance(first))));
+        assertThat(context.getBean(RegionClients.class).created.get(), is(2));
+    }
+
+    @Test
+    public void producesABeanOnceForConcurrentCalls() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<RegionClient>> clients = new ArrayList<>();
+        // when
+        for (int i = 0; i < 8; i++) {
+            clients.add(CompletableFuture.supplyAsync(() -> context.produce(RegionClient.class, "eu", 443), executor));
+        }
+        // then
+        for (CompletableFuture<RegionClient> client : clients) {
+            assertThat(client.join(), is(sameInstance(clients.get(0).join())));
+        }
+        assertThat(context.getBean(RegionClients.class).created.get(), is(1));
+        executor.shutdown();
+    }
+
+    @Test
+    public void evictsAndDisposesLeastRecentlyUsedBeans() throws Exception {
+        // given
+        KeyedBeans<RegionClient> clients = context.keyedBeans(RegionClient.class.getName());
+        List<Object> evictedKeys = new ArrayList<>();
+        clients.addEvictionListener((key, bean) -> evictedKeys.add(key));
+        RegionClient eu = clients.get("eu", 443);
+        clients.get("us", 443);
+        clients.get("eu", 443);
+        // when
+        clients.get("asia", 443);
+        // then
+        assertThat(clients.size(), is(2));
+        assertThat(evictedKeys.toString(), is("[[us, 443]]"));
+        assertThat(eu.closed, is(false));
+        // when
+        context.shutdown(Duration.ofSeconds(5));
+        // then
+        assertThat(eu.closed, is(true));
+    }
+
+    @Test
+    public void producesANewBeanEveryTimeWithoutCaching() throws Exception {
+        // when
+        Formatter first = context.produce(RegionClients.FORMATTER, Locale.GERMANY);
+        Formatter second = context.produce(RegionClients.FORMATTER, Locale.GERMANY);
+        // then
+        assertThat(first.format(1.5), is("1,5"));
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void doesNotKeepFailures() throws Exception {
+        // given
+        try {
+            context.produce(RegionClient.class, "", 443);
+        } catch (IllegalArgumentException expected) {
+            // when
+        }
+        // then
+        context.produce(RegionClient.class, "", 443);
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnAWrongNumberOfKeyArguments() throws Exception {
+        // when
+        context.produce(RegionClient.class, "eu");
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*key argument 1 of type int but got java.lang.String")
+    public void throwsExceptionOnAKeyArgumentOfAWrongType() throws Exception {
+        // when
+        context.produce(RegionClient.class, "eu", "443");
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void throwsExceptionOnANullPrimitiveKeyArgument() throws Exception {
+        // when
+        context.produce(RegionClient.class, "eu", null);
+        // then - exception
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        context = BeanRegistryContext.create();
+    }
+}
@@ -0,0 +1,54 @@
+package test.producers;
+
+import mlesiewski.simpledi.core.BeanRegistryContext;
+import mlesiewski.simpledi.core.SimpleDiException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StaticProducersTest {
+
+    private BeanRegistryContext context;
+
+    @Test
+    public void producesBeansWithStaticMethods() throws Exception {
+        // when
+        UnnamedBean bean = context.getBean(StaticProducers.STATIC);
+        // then
+        assertThat(bean.name, is(StaticProducers.STATIC));
+        assertThat(context.getBean(StaticProducers.STATIC), is(sameInstance(bean)));
+    }
+
+    @Test
+    public void producesBeansOfOtherScopesWithStaticMethods() throws Exception {
+        // when
+        UnnamedBean first = context.getBean(StaticProducers.STATIC_NEW);
+        UnnamedBean second = context.getBean(StaticProducers.STATIC_NEW);
+        // then
+        assertThat(first.name, is(StaticProducers.STATIC_NEW));
+        assertThat(first, is(not(sameInstance(second))));
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class)
+    public void doesNotRegisterClassesOfStaticProducers() throws Exception {
+        // when
+        context.getBean(StaticProducers.class);
+        // then - exception
+    }
+
+    @Test(expectedExceptions = SimpleDiException.class, expectedExceptionsMessageRegExp = ".*" + StaticProducers.STATIC_EXCEPTION_MESSAGE + ".*")
+    public void wrapsDeclaredException() throws Exception {
+        // when
+        context.getBean(StaticProducers.STATIC_EXCEPTION_BEAN);
+        // then - exception
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        context = BeanRegistryContext.create();
+    }
+}